@@ -0,0 +1,75 @@
+package com.library.management.benchmark;
+
+import com.library.management.model.Author;
+import com.library.management.repository.AuthorRepository;
+import com.library.management.service.AuthorCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Resolución de un autor existente por nombre: AuthorCache frente a la consulta directa que reemplaza.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorResolutionBenchmark {
+
+    @Param({"100", "10000"})
+    private int authors;
+
+    private ConfigurableApplicationContext context;
+    private AuthorCache authorCache;
+    private AuthorRepository authorRepository;
+    private List<String> names;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkData.startApplication();
+        authorCache = context.getBean(AuthorCache.class);
+        authorRepository = context.getBean(AuthorRepository.class);
+
+        names = new ArrayList<>(authors);
+        for (int i = 0; i < authors; i++) {
+            names.add("Autor " + i);
+        }
+        authorCache.resolveAll(names);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Author resolveCached(Cursor cursor) {
+        return authorCache.resolve(names.get(cursor.next++ % names.size()));
+    }
+
+    @Benchmark
+    public Optional<Author> findByName(Cursor cursor) {
+        return authorRepository.findByName(names.get(cursor.next++ % names.size()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.library.management.benchmark;
+
+import com.library.management.LibraryManagementSystemApplication;
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.repository.BookRepository;
+import com.library.management.service.AuthorCache;
+import com.library.management.service.AvailabilityIndex;
+import com.library.management.service.BookSearchIndex;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Arranque de la aplicación sobre una H2 en memoria propia de cada benchmark y generación de datos.
+final class BenchmarkData {
+
+    static final int AUTHORS = 500;
+    static final int GENRES = 20;
+
+    private static final String[] WORDS = {
+            "sombra", "viento", "ciudad", "noche", "jardín", "memoria", "río", "luz", "camino", "silencio",
+            "historia", "tiempo", "mar", "fuego", "casa", "bosque", "invierno", "espejo", "puerta", "sueño",
+            "guerra", "amor", "isla", "torre", "piedra", "hijo", "cielo", "libro", "nombre", "verano"
+    };
+
+    private BenchmarkData() {
+    }
+
+    // Los argumentos de línea de comandos tienen prioridad sobre application.properties
+    static ConfigurableApplicationContext startApplication() {
+        return new SpringApplicationBuilder(LibraryManagementSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--logging.level.root=ERROR");
+    }
+
+    static String title(int i) {
+        return WORDS[i % WORDS.length] + " del " + WORDS[(i * 7 + 3) % WORDS.length] + " " + i;
+    }
+
+    static String authorName(int i) {
+        return "Autor " + WORDS[i % WORDS.length] + " " + (i % AUTHORS);
+    }
+
+    static String genre(int i) {
+        return "Género " + (i % GENRES);
+    }
+
+    static String word(int i) {
+        return WORDS[Math.floorMod(i, WORDS.length)];
+    }
+
+    static byte[] csv(int rows) {
+        StringBuilder csv = new StringBuilder("titulo;autor;genero\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(title(i)).append(';').append(authorName(i)).append(';').append(genre(i)).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Inserta el catálogo con el mismo camino por lotes que la carga CSV y reconstruye los índices en memoria
+    static List<Long> seedBooks(ConfigurableApplicationContext context, int count) {
+        AuthorCache authorCache = context.getBean(AuthorCache.class);
+        BookRepository bookRepository = context.getBean(BookRepository.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<Long> ids = new ArrayList<>(count);
+        for (int start = 0; start < count; start += 1000) {
+            int end = Math.min(start + 1000, count);
+            Set<String> names = new HashSet<>();
+            for (int i = start; i < end; i++) {
+                names.add(authorName(i));
+            }
+            Map<String, Author> authors = authorCache.resolveAll(names);
+
+            List<Book> books = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                books.add(Book.builder()
+                        .title(title(i))
+                        .author(authors.get(authorName(i)))
+                        .genre(genre(i))
+                        .available(true)
+                        .build());
+            }
+            transactionTemplate.executeWithoutResult(status -> bookRepository.saveAll(books));
+            books.forEach(book -> ids.add(book.getId()));
+        }
+
+        rebuildIndexes(context);
+        return ids;
+    }
+
+    static void rebuildIndexes(ConfigurableApplicationContext context) {
+        context.getBean(BookSearchIndex.class).rebuild();
+        context.getBean(AvailabilityIndex.class).rebuild();
+    }
+}
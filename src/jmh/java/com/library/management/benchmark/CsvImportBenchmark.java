@@ -0,0 +1,74 @@
+package com.library.management.benchmark;
+
+import com.library.management.dto.BookDTO;
+import com.library.management.dto.CsvImportResultDTO;
+import com.library.management.service.BookImportService;
+import com.library.management.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Carga completa de un CSV: cada medición parte de un catálogo vacío, así todas las filas se insertan.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CsvImportBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private BookImportService bookImportService;
+    private JdbcTemplate jdbcTemplate;
+    private MockMultipartFile file;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkData.startApplication();
+        bookService = context.getBean(BookService.class);
+        bookImportService = context.getBean(BookImportService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        file = new MockMultipartFile("file", "libros-" + rows + ".csv", "text/csv", BenchmarkData.csv(rows));
+    }
+
+    @Setup(Level.Iteration)
+    public void clearCatalogue() {
+        jdbcTemplate.update("DELETE FROM book");
+        BenchmarkData.rebuildIndexes(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookDTO> saveBooksFromCsv() throws Exception {
+        return bookService.saveBooksFromCsv(file);
+    }
+
+    @Benchmark
+    public CsvImportResultDTO importBooksInChunks() throws Exception {
+        return bookImportService.importBooks(file);
+    }
+}
@@ -0,0 +1,91 @@
+package com.library.management.benchmark;
+
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.UserRepository;
+import com.library.management.service.LoanService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Préstamo + devolución con varios hilos sobre un conjunto de libros; cuantos menos libros, más contención.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoanBenchmark {
+
+    @Param({"1", "16", "256"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+    private LoanService loanService;
+    private List<Long> bookIds;
+    private Long userId;
+
+    // Contadores por hilo que JMH suma y publica junto al resultado
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long borrowed;
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            borrowed = 0;
+            conflicts = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkData.startApplication();
+        loanService = context.getBean(LoanService.class);
+        bookIds = BenchmarkData.seedBooks(context, books);
+
+        User user = new User();
+        user.setName("benchmark");
+        user.setRole("USER");
+        userId = context.getBean(UserRepository.class).save(user).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Loan borrowAndReturn(Outcomes outcomes) {
+        Long bookId = bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size()));
+        Loan loan;
+        try {
+            loan = loanService.borrowBook(bookId, userId);
+        } catch (RuntimeException e) {
+            // Otro hilo tiene el libro prestado
+            outcomes.conflicts++;
+            return null;
+        }
+        outcomes.borrowed++;
+        return loanService.returnBook(loan.getId());
+    }
+}
@@ -0,0 +1,79 @@
+package com.library.management.benchmark;
+
+import com.library.management.dto.BookDTO;
+import com.library.management.dto.PageResponse;
+import com.library.management.service.BookService;
+import com.library.management.service.Pagination;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// Primera página de searchBooks por catálogo: índice invertido frente a la consulta LIKE de respaldo.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    // Un cursor de id fuerza el camino LIKE + keyset de BookService.searchBooks
+    private static final String LIKE_CURSOR = Pagination.idCursor(0L);
+
+    @Param({"1000", "10000", "100000"})
+    private int catalogueSize;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+
+    @State(Scope.Thread)
+    public static class Queries {
+        private int next;
+
+        // Alterna búsquedas de una palabra, de dos palabras y por prefijo
+        String next() {
+            int i = next++;
+            return switch (i % 3) {
+                case 0 -> BenchmarkData.word(i);
+                case 1 -> BenchmarkData.word(i) + " " + BenchmarkData.word(i * 7 + 3);
+                default -> BenchmarkData.word(i).substring(0, 3);
+            };
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkData.startApplication();
+        bookService = context.getBean(BookService.class);
+        BenchmarkData.seedBooks(context, catalogueSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public PageResponse<BookDTO> searchIndexed(Queries queries) {
+        return bookService.searchBooks(queries.next(), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PageResponse<BookDTO> searchLike(Queries queries) {
+        return bookService.searchBooks(queries.next(), LIKE_CURSOR, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,85 @@
+package com.library.management.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+@Configuration
+public class AsyncConfig {
+
+    // Al declarar un Executor propio Spring Boot deja de crear el applicationTaskExecutor que usa
+    // Spring MVC para las respuestas asíncronas (StreamingResponseBody); se vuelve a declarar aquí.
+    @Lazy
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    // spring.threads.virtual.enabled=true en Java 21: un hilo virtual por tarea, sin pool
+    @Lazy
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualApplicationTaskExecutor(SimpleAsyncTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    // Pool dedicado a las cargas CSV para que no compitan con los hilos de Tomcat. Con hilos virtuales
+    // se mantienen workers y cola como control de admisión (ImportRejectedException), pero cada worker
+    // es un hilo virtual.
+    @Bean
+    public ThreadPoolTaskExecutor csvImportExecutor(@Value("${library.import.workers:2}") int workers,
+                                                    @Value("${library.import.queue-capacity:20}") int queueCapacity,
+                                                    Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("csv-import-").getVirtualThreadFactory());
+        }
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("csv-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Hilos que escriben en las conexiones SSE de /api/books/availability/stream (AvailabilityStream). Cada
+    // cliente tiene como mucho una tarea pendiente, así la cola nunca supera el número de clientes.
+    @Bean
+    public ThreadPoolTaskExecutor availabilityStreamExecutor(@Value("${library.stream.sender-threads:4}") int senderThreads,
+                                                             Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("sse-send-").getVirtualThreadFactory());
+        }
+        executor.setCorePoolSize(senderThreads);
+        executor.setMaxPoolSize(senderThreads);
+        executor.setThreadNamePrefix("sse-send-");
+        return executor;
+    }
+
+    // Pool fork-join acotado donde se analizan en paralelo los archivos de una carga múltiple
+    // (MultiFileImportService); lo comparten todas las cargas múltiples en curso.
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool csvParsePool(@Value("${library.import.parse-parallelism:4}") int parallelism) {
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("csv-parse-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
@@ -0,0 +1,74 @@
+package com.library.management.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+// Cache de segundo nivel de Hibernate (JCache sobre Caffeine). Cada región tiene tamaño máximo y TTL
+// configurables; las escrituras por JDBC que Hibernate no ve se invalidan en SecondLevelCacheEvictor.
+@Configuration
+public class CacheConfig {
+
+    public static final String BOOK_QUERY_REGION = "book-queries";
+    public static final String LOAN_QUERY_REGION = "loan-queries";
+
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+    private static final String DEFAULT_QUERY_REGION = "default-query-results-region";
+
+    // Un CacheManager propio por contexto: el proveedor JCache es global a la JVM
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${library.cache.entity.max-size:10000}") long entityMaxSize,
+                                              @Value("${library.cache.entity.ttl:10m}") Duration entityTtl,
+                                              @Value("${library.cache.query.max-size:1000}") long queryMaxSize,
+                                              @Value("${library.cache.query.ttl:5m}") Duration queryTtl) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("library-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (Class<?> entity : new Class<?>[]{Book.class, Author.class, User.class, Loan.class}) {
+            cacheManager.createCache(entity.getName(), region(entityMaxSize, entityTtl));
+        }
+        cacheManager.createCache(BOOK_QUERY_REGION, region(queryMaxSize, queryTtl));
+        cacheManager.createCache(LOAN_QUERY_REGION, region(queryMaxSize, queryTtl));
+        cacheManager.createCache(DEFAULT_QUERY_REGION, region(queryMaxSize, queryTtl));
+        // Hibernate necesita que las marcas de tiempo de las tablas no caduquen antes que los resultados
+        cacheManager.createCache(TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager,
+                                                                    @Value("${library.cache.enabled:true}") boolean enabled) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,68 @@
+package com.library.management.config;
+
+import com.library.management.metrics.SqlMetricsInterceptor;
+import com.library.management.metrics.SqlStatementMetrics;
+import com.library.management.service.BookReservationEngine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.function.ToDoubleFunction;
+
+// Métricas expuestas en /actuator/prometheus. La latencia por endpoint la da http.server.requests
+// (percentiles en application.properties); aquí se añaden las sentencias SQL por petición y los
+// contadores del motor de reservas.
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public MetricsConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Envuelve el DataSource para contar las sentencias de JPA y de JdbcTemplate por igual
+    @Bean
+    public static BeanPostProcessor sqlMetricsDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return SqlStatementMetrics.wrap(dataSource, meterRegistry::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlMetricsInterceptor(meterRegistry.getObject())).addPathPatterns("/api/**");
+    }
+
+    @Bean
+    public MeterBinder reservationMetrics(BookReservationEngine engine) {
+        return registry -> {
+            reservationCounter(registry, engine, "reserved", e -> e.stats().reservations());
+            reservationCounter(registry, engine, "conflict", e -> e.stats().conflicts());
+            reservationCounter(registry, engine, "retry", e -> e.stats().retries());
+            reservationCounter(registry, engine, "failure", e -> e.stats().failures());
+            reservationCounter(registry, engine, "released", e -> e.stats().releases());
+        };
+    }
+
+    private static void reservationCounter(MeterRegistry registry, BookReservationEngine engine, String outcome,
+                                           ToDoubleFunction<BookReservationEngine> count) {
+        FunctionCounter.builder("library.reservations", engine, count)
+                .description("Reservas de ejemplares por resultado")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,13 @@
+package com.library.management.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Tareas periódicas: pasada diaria de multas (FineAccrualEngine), ranking de popularidad (PopularityTracker),
+// archivado de préstamos devueltos (LoanArchiver), volcado a disco del diario de cambios (ChangeJournal)
+// e instantánea del modelo de lectura (ReadModelSnapshot).
+// Con hilos virtuales activos Spring Boot usa un SimpleAsyncTaskScheduler: cada ejecución en su propio hilo virtual.
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -21,12 +21,25 @@ public class SecurityConfig {
         http
                 .authorizeHttpRequests(authorizeRequests ->
                         authorizeRequests
-                                .requestMatchers("/api/books/search").permitAll()
+                                // Antes del comodín público de availability: cada suscripción SSE ocupa una de las
+                                // library.stream.max-clients plazas durante mucho tiempo
+                                .requestMatchers("/api/books/availability/stream").hasAnyRole("ADMIN", "LIBRARIAN")
+                                .requestMatchers("/api/books/search", "/api/books/popular", "/api/books/available", "/api/books/availability/**").permitAll()
+                                .requestMatchers("/actuator/health").permitAll()
+                                .requestMatchers("/actuator/**").hasRole("ADMIN")
                                 .requestMatchers("/api/books/**").hasAnyRole("ADMIN", "LIBRARIAN")
                                 .requestMatchers("/api/authors/**").hasAnyRole("ADMIN", "LIBRARIAN")
                                 .requestMatchers("/api/users/**").hasRole("ADMIN")
-                                .requestMatchers("/api/loans/borrow").hasAnyRole("LIBRARIAN", "USER")
+                                .requestMatchers("/api/cache/**").hasRole("ADMIN")
+                                .requestMatchers("/api/journal/**").hasRole("ADMIN")
+                                .requestMatchers("/api/loans/borrow", "/api/loans/borrow/batch").hasAnyRole("LIBRARIAN", "USER")
                                 .requestMatchers("/api/loans/return/**").hasAnyRole("LIBRARIAN", "USER")
+                                .requestMatchers("/api/loans/active", "/api/loans/stats", "/api/loans/fines/**").hasAnyRole("ADMIN", "LIBRARIAN")
+                                .requestMatchers("/api/loans/due", "/api/loans/books/**").hasAnyRole("ADMIN", "LIBRARIAN")
+                                .requestMatchers("/api/loans/archive").hasRole("ADMIN")
+                                // El userId de la ruta no se compara con el usuario autenticado: un USER podría
+                                // consultar los préstamos, el historial y los recuentos de cualquier otro
+                                .requestMatchers("/api/loans/users/**").hasAnyRole("ADMIN", "LIBRARIAN")
                                 .anyRequest().authenticated()
                 )
                 .httpBasic(withDefaults())
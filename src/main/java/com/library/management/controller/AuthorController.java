@@ -1,25 +1,37 @@
 package com.library.management.controller;
 
+import com.library.management.dto.AuthorCacheStatsDTO;
+import com.library.management.dto.PageResponse;
 import com.library.management.model.Author;
 import com.library.management.service.AuthorService;
+import com.library.management.service.CatalogueVersion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/authors")
 public class AuthorController {
 
     private final AuthorService authorService;
+    private final CatalogueVersion catalogueVersion;
 
-    public AuthorController(AuthorService authorService) {
+    public AuthorController(AuthorService authorService, CatalogueVersion catalogueVersion) {
         this.authorService = authorService;
+        this.catalogueVersion = catalogueVersion;
     }
 
     @GetMapping
-    public List<Author> getAllAuthors() {
-        return authorService.findAll();
+    public ResponseEntity<PageResponse<Author>> getAllAuthors(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size,
+                                                              WebRequest request) {
+        return ConditionalResponses.ifCatalogueModified(request, catalogueVersion,
+                () -> authorService.findPage(cursor, size));
+    }
+
+    @GetMapping("/cache/stats")
+    public AuthorCacheStatsDTO getCacheStats() {
+        return authorService.cacheStats();
     }
 }
@@ -1,19 +1,47 @@
 package com.library.management.controller;
 
+import com.library.management.dto.AvailableBookDTO;
+import com.library.management.dto.BookBatchRequestDTO;
+import com.library.management.dto.BookBatchResultDTO;
 import com.library.management.dto.BookDTO;
 import com.library.management.dto.BookRequestDTO;
 import com.library.management.dto.BookResponseDTO;
+import com.library.management.dto.CsvImportResultDTO;
+import com.library.management.dto.GenreAvailabilityDTO;
+import com.library.management.dto.ImportJobDTO;
+import com.library.management.dto.MultiFileImportResultDTO;
+import com.library.management.dto.PageResponse;
+import com.library.management.dto.PopularBookDTO;
+import com.library.management.dto.TitleAvailabilityDTO;
 import com.library.management.model.Book;
+import com.library.management.service.AvailabilityStream;
+import com.library.management.service.BookBatchService;
+import com.library.management.service.BookExportService;
+import com.library.management.service.BookImportService;
 import com.library.management.service.BookService;
+import com.library.management.service.CatalogueVersion;
+import com.library.management.service.ExportFormat;
+import com.library.management.service.ImportJob;
+import com.library.management.service.ImportJobService;
+import com.library.management.service.MultiFileImportService;
 import com.opencsv.exceptions.CsvValidationException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -22,20 +50,40 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final ImportJobService importJobService;
+    private final BookExportService bookExportService;
+    private final CatalogueVersion catalogueVersion;
+    private final BookBatchService bookBatchService;
+    private final MultiFileImportService multiFileImportService;
+    private final AvailabilityStream availabilityStream;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookImportService bookImportService,
+                          ImportJobService importJobService, BookExportService bookExportService,
+                          CatalogueVersion catalogueVersion, BookBatchService bookBatchService,
+                          MultiFileImportService multiFileImportService, AvailabilityStream availabilityStream) {
         this.bookService = bookService;
+        this.bookImportService = bookImportService;
+        this.importJobService = importJobService;
+        this.bookExportService = bookExportService;
+        this.catalogueVersion = catalogueVersion;
+        this.bookBatchService = bookBatchService;
+        this.multiFileImportService = multiFileImportService;
+        this.availabilityStream = availabilityStream;
     }
 
     @GetMapping
-    public List<Book> getAllBooks() {
-        return bookService.findAll();
+    public ResponseEntity<PageResponse<BookDTO>> getAllBooks(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer size,
+                                                             WebRequest request) {
+        return ConditionalResponses.ifCatalogueModified(request, catalogueVersion,
+                () -> bookService.findPage(cursor, size));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
-        Book book = bookService.findBookById(id);
-        return ResponseEntity.ok(book);
+    public ResponseEntity<Book> getBookById(@PathVariable Long id, WebRequest request) {
+        return ConditionalResponses.ifCatalogueModified(request, catalogueVersion,
+                () -> bookService.findBookById(id));
     }
 
     @PostMapping
@@ -50,6 +98,12 @@ public class BookController {
         return ResponseEntity.ok(bookService.update(id, bookDetails));
     }
 
+    // Altas, modificaciones y bajas en una sola petición; el resultado de cada operación va en su posición
+    @PostMapping("/batch")
+    public BookBatchResultDTO applyBatch(@Valid @RequestBody BookBatchRequestDTO request) {
+        return bookBatchService.apply(request.operations());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
         bookService.deleteById(id);
@@ -57,8 +111,49 @@ public class BookController {
     }
 
     @GetMapping("/search")
-    public List<Book> searchBooks(@RequestParam String query) {
-        return bookService.searchBooks(query);
+    public PageResponse<BookDTO> searchBooks(@RequestParam String query,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size) {
+        return bookService.searchBooks(query, cursor, size);
+    }
+
+    @GetMapping("/popular")
+    public List<PopularBookDTO> getPopularBooks(@RequestParam(required = false) String genre,
+                                                @RequestParam(required = false) Integer limit) {
+        return bookService.findPopular(genre, limit);
+    }
+
+    @GetMapping("/available")
+    public PageResponse<AvailableBookDTO> getAvailableBooks(@RequestParam String genre,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer size) {
+        return bookService.findAvailableByGenre(genre, cursor, size);
+    }
+
+    @GetMapping("/availability")
+    public TitleAvailabilityDTO getTitleAvailability(@RequestParam String title, @RequestParam String author) {
+        return bookService.availabilityByTitle(title, author);
+    }
+
+    @GetMapping("/availability/genres")
+    public List<GenreAvailabilityDTO> getGenreAvailability() {
+        return bookService.availabilityByGenres();
+    }
+
+    @GetMapping("/availability/genres/{genre}")
+    public GenreAvailabilityDTO getGenreAvailability(@PathVariable String genre) {
+        return bookService.availabilityByGenre(genre);
+    }
+
+    // Cambios de disponibilidad en vivo por SSE; el navegador envía Last-Event-ID al reconectar y se reanuda
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAvailability(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return availabilityStream.subscribe(lastEventId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "30")
+                        .build());
     }
 
     @PostMapping("/upload")
@@ -76,4 +171,81 @@ public class BookController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload books: " + e.getMessage());
         }
     }
+
+    @PostMapping("/upload/stream")
+    public ResponseEntity<?> uploadBooksStreaming(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Please upload a CSV file.");
+        }
+        try {
+            CsvImportResultDTO result = bookImportService.importBooks(file);
+            return ResponseEntity.status(HttpStatus.OK).body(result);
+        } catch (IOException | CsvValidationException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload books: " + e.getMessage());
+        }
+    }
+
+    // Varios CSV o zips con CSV en una petición (parámetro "files" repetido)
+    @PostMapping("/upload/multi")
+    public ResponseEntity<?> uploadBooksMulti(@RequestParam("files") List<MultipartFile> files) {
+        if (files.stream().allMatch(MultipartFile::isEmpty)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Please upload at least one CSV or zip file.");
+        }
+        try {
+            MultiFileImportResultDTO result = multiFileImportService.importFiles(files);
+            return ResponseEntity.status(HttpStatus.OK).body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error de validación: " + e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload books: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/imports")
+    public ResponseEntity<?> submitImport(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Please upload a CSV file.");
+        }
+        try {
+            ImportJob job = importJobService.submit(file);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/books/imports/" + job.getId()))
+                    .body(job.toDTO());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload books: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/imports/{id}")
+    public ResponseEntity<ImportJobDTO> getImport(@PathVariable String id) {
+        return ResponseEntity.ok(importJobService.findById(id).toDTO());
+    }
+
+    // Exportación completa o incremental: el cliente guarda X-Export-Watermark y lo envía como updatedSince la próxima vez.
+    // La incremental no incluye los borrados (ver BookExportService): hace falta una exportación completa periódica
+    @GetMapping("/export")
+    public ResponseEntity<?> exportBooks(@RequestParam(defaultValue = "ndjson") String format,
+                                         @RequestParam(required = false) String genre,
+                                         @RequestParam(required = false) Boolean available,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Formato no soportado: " + format + ". Use ndjson o csv.");
+        }
+
+        // Antes de la consulta de la exportación: lo que se confirme entre ambas se envía ahora y otra vez después
+        Instant watermark = bookExportService.watermark(updatedSince);
+        StreamingResponseBody body = outputStream ->
+                bookExportService.export(exportFormat, genre, available, updatedSince, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("books." + exportFormat.getExtension()).build().toString())
+                .header("X-Export-Watermark", watermark.toString())
+                .body(body);
+    }
 }
@@ -0,0 +1,30 @@
+package com.library.management.controller;
+
+import com.library.management.dto.CacheRegionStatsDTO;
+import com.library.management.service.SecondLevelCacheService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final SecondLevelCacheService secondLevelCacheService;
+
+    public CacheController(SecondLevelCacheService secondLevelCacheService) {
+        this.secondLevelCacheService = secondLevelCacheService;
+    }
+
+    @GetMapping("/stats")
+    public List<CacheRegionStatsDTO> getStats() {
+        return secondLevelCacheService.stats();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> evictAll() {
+        secondLevelCacheService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
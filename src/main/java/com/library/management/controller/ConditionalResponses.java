@@ -0,0 +1,34 @@
+package com.library.management.controller;
+
+import com.library.management.service.CatalogueVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+// GET condicional sobre la versión del catálogo: si If-None-Match coincide se responde 304 sin llamar al
+// servicio. no-cache permite guardar la respuesta pero obliga a revalidarla. No se envía Last-Modified:
+// la fecha va en segundos y un If-Modified-Since daría 304 tras dos cambios en el mismo segundo.
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    static <T> ResponseEntity<T> ifCatalogueModified(WebRequest request, CatalogueVersion catalogueVersion,
+                                                     Supplier<T> body) {
+        // El ETag se lee antes de consultar; si el catálogo cambia entre medias el siguiente GET lo detecta
+        String etag = catalogueVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(body.get());
+    }
+}
@@ -0,0 +1,26 @@
+package com.library.management.controller;
+
+import com.library.management.dto.JournalPageDTO;
+import com.library.management.journal.ChangeJournal;
+import com.library.management.service.Pagination;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/journal")
+public class JournalController {
+
+    private final ChangeJournal changeJournal;
+    private final Pagination pagination;
+
+    public JournalController(ChangeJournal changeJournal, Pagination pagination) {
+        this.changeJournal = changeJournal;
+        this.pagination = pagination;
+    }
+
+    // Los consumidores guardan nextSequence y lo envían como "from" en la siguiente llamada
+    @GetMapping
+    public JournalPageDTO read(@RequestParam(defaultValue = "1") long from,
+                               @RequestParam(required = false) Integer size) {
+        return changeJournal.read(from, pagination.resolveSize(size));
+    }
+}
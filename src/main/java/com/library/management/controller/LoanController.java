@@ -1,19 +1,38 @@
 package com.library.management.controller;
 
+import com.library.management.dto.BatchBorrowRequestDTO;
+import com.library.management.dto.BatchReturnRequestDTO;
+import com.library.management.dto.LoanArchiveResultDTO;
+import com.library.management.dto.LoanBatchResultDTO;
+import com.library.management.dto.LoanCountsDTO;
+import com.library.management.dto.LoanDTO;
+import com.library.management.dto.PageResponse;
+import com.library.management.dto.ReservationStatsDTO;
+import com.library.management.dto.UserFineDTO;
 import com.library.management.model.Loan;
+import com.library.management.service.LoanArchiver;
+import com.library.management.service.LoanHistoryService;
 import com.library.management.service.LoanService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @CrossOrigin(origins = "*")
+@RequestMapping("/api/loans")
 public class LoanController {
 
 
     private final LoanService loanService;
+    private final LoanHistoryService loanHistoryService;
+    private final LoanArchiver loanArchiver;
 
-    public LoanController(LoanService loanService) {
+    public LoanController(LoanService loanService, LoanHistoryService loanHistoryService, LoanArchiver loanArchiver) {
         this.loanService = loanService;
+        this.loanHistoryService = loanHistoryService;
+        this.loanArchiver = loanArchiver;
     }
 
     @PostMapping("/borrow")
@@ -25,4 +44,79 @@ public class LoanController {
     public Loan returnBook(@PathVariable Long loanId) {
         return loanService.returnBook(loanId);
     }
+
+    @PostMapping("/borrow/batch")
+    public LoanBatchResultDTO borrowBooks(@Valid @RequestBody BatchBorrowRequestDTO request) {
+        return loanService.borrowBooks(request.userId(), request.bookIds());
+    }
+
+    @PostMapping("/return/batch")
+    public LoanBatchResultDTO returnBooks(@Valid @RequestBody BatchReturnRequestDTO request) {
+        return loanService.returnBooks(request.loanIds());
+    }
+
+    @GetMapping("/active")
+    public PageResponse<LoanDTO> getActiveLoans(@RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer size) {
+        return loanService.findActivePage(cursor, size);
+    }
+
+    @GetMapping("/users/{userId}/active")
+    public PageResponse<LoanDTO> getActiveLoansByUser(@PathVariable Long userId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size) {
+        return loanService.findActiveByUser(userId, cursor, size);
+    }
+
+    @GetMapping("/due")
+    public PageResponse<LoanDTO> getLoansDueWithin(@RequestParam(defaultValue = "7") int days,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer size) {
+        return loanService.findDueWithin(days, cursor, size);
+    }
+
+    @GetMapping("/books/{bookId}")
+    public PageResponse<LoanDTO> getLoanHistoryByBook(@PathVariable Long bookId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size) {
+        return loanHistoryService.findByBook(bookId, cursor, size);
+    }
+
+    @GetMapping("/books/{bookId}/counts")
+    public LoanCountsDTO getLoanCountsByBook(@PathVariable Long bookId) {
+        return loanHistoryService.countsForBook(bookId);
+    }
+
+    @GetMapping("/users/{userId}/history")
+    public PageResponse<LoanDTO> getLoanHistoryByUser(@PathVariable Long userId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size) {
+        return loanHistoryService.findByUser(userId, cursor, size);
+    }
+
+    @GetMapping("/users/{userId}/counts")
+    public LoanCountsDTO getLoanCountsByUser(@PathVariable Long userId) {
+        return loanHistoryService.countsForUser(userId);
+    }
+
+    // Archivado manual; normalmente lo hace la pasada programada (library.archive.cron)
+    @PostMapping("/archive")
+    public LoanArchiveResultDTO archiveReturnedLoans() {
+        return loanArchiver.archive();
+    }
+
+    @GetMapping("/fines")
+    public List<UserFineDTO> getTopFines(@RequestParam(defaultValue = "50") int limit) {
+        return loanService.topAccruedFines(limit);
+    }
+
+    @GetMapping("/fines/users/{userId}")
+    public UserFineDTO getUserFine(@PathVariable Long userId) {
+        return loanService.accruedFine(userId);
+    }
+
+    @GetMapping("/stats")
+    public ReservationStatsDTO getReservationStats() {
+        return loanService.reservationStats();
+    }
 }
@@ -1,13 +1,12 @@
 package com.library.management.controller;
 
+import com.library.management.dto.PageResponse;
 import com.library.management.model.User;
 import com.library.management.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @CrossOrigin(origins = "*")
 @RequestMapping("/api/users")
@@ -21,8 +20,9 @@ public class UserController {
     }
 
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.findAll();
+    public PageResponse<User> getAllUsers(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size) {
+        return userService.findPage(cursor, size);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,11 @@
+package com.library.management.dto;
+
+public record AuthorCacheStatsDTO(
+        int size,
+        int maxSize,
+        long hits,
+        long misses,
+        double hitRatio,
+        long creations,
+        long evictions
+) {}
@@ -0,0 +1,18 @@
+package com.library.management.dto;
+
+import java.time.Instant;
+
+// Cambio enviado por /api/books/availability/stream. sequence es la del diario de cambios y se usa como id
+// del evento SSE: al reconectar, el navegador la devuelve en Last-Event-ID y se reanuda desde ahí.
+// available es null en un BOOK_UPDATED que no cambia la disponibilidad (cambio de nombre del autor).
+public record AvailabilityChangeDTO(
+        long sequence,
+        Instant recordedAt,
+        JournalEntryDTO.Type change,
+        Long bookId,
+        String title,
+        String authorName,
+        String genre,
+        Boolean available
+) {
+}
@@ -0,0 +1,9 @@
+package com.library.management.dto;
+
+public record AvailableBookDTO(
+        Long id,
+        String title,
+        String authorName,
+        String genre
+) {
+}
@@ -0,0 +1,17 @@
+package com.library.management.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchBorrowRequestDTO(
+        @NotNull(message = "El usuario es obligatorio")
+        Long userId,
+
+        @NotEmpty(message = "Debe indicar al menos un libro")
+        @Size(max = 50, message = "Como máximo 50 libros por petición")
+        List<@NotNull Long> bookIds
+) {
+}
@@ -0,0 +1,14 @@
+package com.library.management.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchReturnRequestDTO(
+        @NotEmpty(message = "Debe indicar al menos un préstamo")
+        @Size(max = 50, message = "Como máximo 50 préstamos por petición")
+        List<@NotNull Long> loanIds
+) {
+}
@@ -0,0 +1,25 @@
+package com.library.management.dto;
+
+// Resultado de una operación de /api/books/batch, en la misma posición que en la petición
+public record BookBatchItemDTO(
+        int index,
+        BookBatchOperationDTO.Action action,
+        Long bookId,
+        Status status
+) {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        INVALID,
+        NOT_FOUND,
+        ALREADY_EXISTS,
+        DUPLICATE,
+        HAS_LOANS
+    }
+
+    public boolean succeeded() {
+        return status == Status.CREATED || status == Status.UPDATED || status == Status.DELETED;
+    }
+}
@@ -0,0 +1,20 @@
+package com.library.management.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+// Una operación de /api/books/batch. CREATE necesita título y autor; UPDATE, además, el id; DELETE solo el id.
+public record BookBatchOperationDTO(
+        @NotNull(message = "La acción es obligatoria")
+        Action action,
+        Long id,
+        String title,
+        String authorName,
+        String genre
+) {
+
+    public enum Action {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+}
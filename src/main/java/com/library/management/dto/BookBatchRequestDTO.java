@@ -0,0 +1,15 @@
+package com.library.management.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BookBatchRequestDTO(
+        @NotEmpty(message = "Debe indicar al menos una operación")
+        @Size(max = 5000, message = "Como máximo 5000 operaciones por petición")
+        List<@NotNull @Valid BookBatchOperationDTO> operations
+) {
+}
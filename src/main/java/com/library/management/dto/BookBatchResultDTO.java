@@ -0,0 +1,15 @@
+package com.library.management.dto;
+
+import java.util.List;
+
+public record BookBatchResultDTO(
+        int requested,
+        int succeeded,
+        List<BookBatchItemDTO> items
+) {
+
+    public static BookBatchResultDTO of(List<BookBatchItemDTO> items) {
+        int succeeded = (int) items.stream().filter(BookBatchItemDTO::succeeded).count();
+        return new BookBatchResultDTO(items.size(), succeeded, items);
+    }
+}
@@ -0,0 +1,13 @@
+package com.library.management.dto;
+
+import java.time.Instant;
+
+public record BookExportDTO(
+        Long id,
+        String title,
+        Long authorId,
+        String authorName,
+        String genre,
+        boolean available,
+        Instant updatedAt
+) {}
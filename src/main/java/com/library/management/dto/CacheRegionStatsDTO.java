@@ -0,0 +1,11 @@
+package com.library.management.dto;
+
+public record CacheRegionStatsDTO(
+        String region,
+        long hits,
+        long misses,
+        long puts,
+        double hitRatio,
+        Long size
+) {
+}
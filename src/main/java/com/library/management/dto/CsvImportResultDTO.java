@@ -0,0 +1,12 @@
+package com.library.management.dto;
+
+import java.util.Map;
+
+public record CsvImportResultDTO(
+        String fileName,
+        long rowsRead,
+        long accepted,
+        Map<String, Long> skipped,
+        long elapsedMillis,
+        double rowsPerSecond
+) {}
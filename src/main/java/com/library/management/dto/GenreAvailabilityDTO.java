@@ -0,0 +1,8 @@
+package com.library.management.dto;
+
+public record GenreAvailabilityDTO(
+        String genre,
+        int books,
+        int available
+) {
+}
@@ -0,0 +1,17 @@
+package com.library.management.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+public record ImportJobDTO(
+        String id,
+        String status,
+        String fileName,
+        Instant submittedAt,
+        long rowsRead,
+        long accepted,
+        Map<String, Long> skipped,
+        long elapsedMillis,
+        double rowsPerSecond,
+        String error
+) {}
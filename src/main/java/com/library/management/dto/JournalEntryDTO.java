@@ -0,0 +1,25 @@
+package com.library.management.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+// Entrada del diario de cambios. Los libros llevan título, autor, género y disponibilidad;
+// los préstamos y devoluciones, loanId, userId y fecha de vencimiento.
+public record JournalEntryDTO(
+        long sequence,
+        Instant recordedAt,
+        Type type,
+        Long bookId,
+        Long loanId,
+        Long userId,
+        String title,
+        String authorName,
+        String genre,
+        Boolean available,
+        LocalDate dueDate
+) {
+
+    public enum Type {
+        BOOK_CREATED, BOOK_UPDATED, BOOK_DELETED, BORROWED, RETURNED
+    }
+}
@@ -0,0 +1,13 @@
+package com.library.management.dto;
+
+import java.util.List;
+
+// Página del diario: nextSequence es el offset con el que continuar. Si el offset pedido es menor que
+// firstSequence, las entradas anteriores ya se descartaron y el consumidor debe reconstruir su estado.
+public record JournalPageDTO(
+        long firstSequence,
+        long lastSequence,
+        long nextSequence,
+        List<JournalEntryDTO> entries
+) {
+}
@@ -0,0 +1,9 @@
+package com.library.management.dto;
+
+import java.time.LocalDate;
+
+public record LoanArchiveResultDTO(
+        LocalDate returnedBefore,
+        long archived,
+        long elapsedMillis
+) {}
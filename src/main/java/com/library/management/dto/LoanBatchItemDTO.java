@@ -0,0 +1,25 @@
+package com.library.management.dto;
+
+import java.time.LocalDate;
+
+// Resultado de un elemento de un préstamo o devolución por lote
+public record LoanBatchItemDTO(
+        Long bookId,
+        Long loanId,
+        Status status,
+        LocalDate dueDate
+) {
+
+    public enum Status {
+        BORROWED,
+        RETURNED,
+        NOT_FOUND,
+        NOT_AVAILABLE,
+        ALREADY_RETURNED,
+        DUPLICATE
+    }
+
+    public boolean succeeded() {
+        return status == Status.BORROWED || status == Status.RETURNED;
+    }
+}
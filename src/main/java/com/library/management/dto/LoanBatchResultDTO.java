@@ -0,0 +1,15 @@
+package com.library.management.dto;
+
+import java.util.List;
+
+public record LoanBatchResultDTO(
+        int requested,
+        int succeeded,
+        List<LoanBatchItemDTO> items
+) {
+
+    public static LoanBatchResultDTO of(List<LoanBatchItemDTO> items) {
+        int succeeded = (int) items.stream().filter(LoanBatchItemDTO::succeeded).count();
+        return new LoanBatchResultDTO(items.size(), succeeded, items);
+    }
+}
@@ -0,0 +1,8 @@
+package com.library.management.dto;
+
+public record LoanCountsDTO(
+        Long id,
+        long currentLoans,
+        long archivedLoans,
+        long totalLoans
+) {}
@@ -0,0 +1,16 @@
+package com.library.management.dto;
+
+import java.time.LocalDate;
+
+public record LoanDTO(
+        Long id,
+        Long bookId,
+        String bookTitle,
+        String authorName,
+        Long userId,
+        String userName,
+        LocalDate loanDate,
+        LocalDate dueDate,
+        LocalDate returnDate
+) {
+}
@@ -0,0 +1,16 @@
+package com.library.management.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record MultiFileImportResultDTO(
+        int files,
+        long rowsRead,
+        long accepted,
+        Map<String, Long> skipped,
+        long elapsedMillis,
+        double rowsPerSecond,
+        List<CsvImportResultDTO> results,
+        // nombre del archivo -> motivo, solo para los archivos que no se pudieron leer
+        Map<String, String> errors
+) {}
@@ -0,0 +1,9 @@
+package com.library.management.dto;
+
+import java.util.List;
+
+public record PageResponse<T>(
+        List<T> content,
+        int size,
+        String nextCursor
+) {}
@@ -0,0 +1,10 @@
+package com.library.management.dto;
+
+public record PopularBookDTO(
+        Long bookId,
+        String title,
+        String authorName,
+        String genre,
+        long loans
+) {
+}
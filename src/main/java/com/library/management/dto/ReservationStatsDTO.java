@@ -0,0 +1,10 @@
+package com.library.management.dto;
+
+public record ReservationStatsDTO(
+        long attempts,
+        long reservations,
+        long conflicts,
+        long retries,
+        long failures,
+        long releases
+) {}
@@ -0,0 +1,9 @@
+package com.library.management.dto;
+
+public record TitleAvailabilityDTO(
+        String title,
+        String authorName,
+        int copies,
+        int available
+) {
+}
@@ -0,0 +1,12 @@
+package com.library.management.dto;
+
+import java.time.LocalDate;
+
+public record UserFineDTO(
+        Long userId,
+        int overdueLoans,
+        long overdueDays,
+        double amount,
+        LocalDate asOf
+) {
+}
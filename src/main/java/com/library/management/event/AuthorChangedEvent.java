@@ -0,0 +1,6 @@
+package com.library.management.event;
+
+// Se publica tras cada alta, modificación o baja de un autor. Los cambios de sus libros por un
+// cambio de nombre se publican aparte como BookChangedEvent.
+public record AuthorChangedEvent(Long authorId) {
+}
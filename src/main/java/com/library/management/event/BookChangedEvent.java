@@ -0,0 +1,43 @@
+package com.library.management.event;
+
+import com.library.management.model.Book;
+
+// Se publica tras cada alta, modificación o baja de un libro. Lleva una copia de los campos
+// para que los listeners no dependan de la sesión de JPA. available es null cuando el cambio no toca la
+// disponibilidad (el cambio de nombre del autor): los listeners conservan la que ya tenían.
+public record BookChangedEvent(
+        Type type,
+        Long bookId,
+        String title,
+        String authorName,
+        String genre,
+        Boolean available
+) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static BookChangedEvent created(Book book) {
+        return of(Type.CREATED, book);
+    }
+
+    public static BookChangedEvent updated(Book book) {
+        return of(Type.UPDATED, book);
+    }
+
+    public static BookChangedEvent deleted(Book book) {
+        return of(Type.DELETED, book);
+    }
+
+    private static BookChangedEvent of(Type type, Book book) {
+        return new BookChangedEvent(
+                type,
+                book.getId(),
+                book.getTitle(),
+                book.getAuthor() != null ? book.getAuthor().getName() : null,
+                book.getGenre(),
+                book.isAvailable()
+        );
+    }
+}
@@ -0,0 +1,27 @@
+package com.library.management.event;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+// Se publica tras cada préstamo o devolución, tanto individual como por lote.
+public record LoanEvent(
+        Type type,
+        Long loanId,
+        Long bookId,
+        Long userId,
+        LocalDate dueDate,
+        Instant occurredAt
+) {
+
+    public enum Type {
+        BORROWED, RETURNED
+    }
+
+    public static LoanEvent borrowed(Long loanId, Long bookId, Long userId, LocalDate dueDate) {
+        return new LoanEvent(Type.BORROWED, loanId, bookId, userId, dueDate, Instant.now());
+    }
+
+    public static LoanEvent returned(Long loanId, Long bookId, Long userId, LocalDate dueDate) {
+        return new LoanEvent(Type.RETURNED, loanId, bookId, userId, dueDate, Instant.now());
+    }
+}
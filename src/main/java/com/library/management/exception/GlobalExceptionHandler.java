@@ -1,5 +1,8 @@
 package com.library.management.exception;
 
+import com.library.management.metrics.LibraryMetrics;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,6 +14,12 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final LibraryMetrics libraryMetrics;
+
+    public GlobalExceptionHandler(LibraryMetrics libraryMetrics) {
+        this.libraryMetrics = libraryMetrics;
+    }
+
     @ExceptionHandler(CsvHeaderMissingException.class)
     public ResponseEntity<Map<String, String>> HandlerCsvHeaderMissing(CsvHeaderMissingException ex) {
         Map<String, String> error =  new HashMap<>();
@@ -22,6 +31,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<Map<String, String>> handleResourceNotFound(ResourceNotFoundException ex) {
+        libraryMetrics.notFound(ex.getResourceName());
         Map<String, String> error = new HashMap<>();
         error.put("error", "Recurso no encontrado");
         error.put("message", ex.getMessage());
@@ -31,5 +41,47 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(ResourceAlreadyExistsException.class)
+    public ResponseEntity<Map<String, String>> handleResourceAlreadyExists(ResourceAlreadyExistsException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Recurso duplicado");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidPageRequest(InvalidPageRequestException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Paginación inválida");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    // Dos modificaciones concurrentes del mismo libro o autor (@Version): la segunda debe reintentarse
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Modificación concurrente");
+        error.put("message", "El recurso fue modificado por otra petición, vuelva a consultarlo e inténtelo de nuevo");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    // Una restricción única (p. ej. uk_book_natural_key) rechazó la escritura de otra petición concurrente
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Conflicto de datos");
+        error.put("message", "La operación choca con datos existentes, vuelva a consultarlos e inténtelo de nuevo");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(ImportRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleImportRejected(ImportRejectedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Carga rechazada");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
 
 }
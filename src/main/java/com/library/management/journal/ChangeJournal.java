@@ -0,0 +1,229 @@
+package com.library.management.journal;
+
+import com.library.management.dto.JournalEntryDTO;
+import com.library.management.dto.JournalPageDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.LoanEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Diario de cambios de solo escritura al final: cada alta, modificación o baja de libro y cada préstamo o
+// devolución confirmados reciben un número de secuencia y se copian a segmentos proyectados en memoria
+// (library.journal.dir). Escribir es copiar a memoria; el volcado a disco va por detrás, cada
+// library.journal.flush-interval, así la petición no espera a ningún fsync. Los consumidores leen desde un
+// offset (read) y siguen desde nextSequence; replay recorre el diario para reconstruir estado derivado.
+// Se conservan library.journal.max-segments segmentos; los más antiguos se borran.
+@Component
+public class ChangeJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeJournal.class);
+
+    private static final int REPLAY_BATCH = 1000;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final NavigableMap<Long, JournalSegment> segments = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private JournalSegment active;
+    private long nextSequence;
+    // Última secuencia volcada a disco; solo la escribe flush
+    private volatile long forcedSequence;
+
+    public ChangeJournal(@Value("${library.journal.dir:./data/journal}") String directory,
+                         @Value("${library.journal.segment-size:64MB}") DataSize segmentSize,
+                         @Value("${library.journal.max-segments:16}") int maxSegments) {
+        if (segmentSize.toBytes() > Integer.MAX_VALUE || segmentSize.toBytes() < 1024) {
+            throw new IllegalArgumentException("library.journal.segment-size debe estar entre 1KB y 2GB");
+        }
+        this.directory = Paths.get(directory);
+        this.segmentBytes = (int) segmentSize.toBytes();
+        this.maxSegments = Math.max(1, maxSegments);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(JournalSegment::isSegment).toList();
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Path file : files) {
+                JournalSegment segment = JournalSegment.open(file);
+                if (segment.wasTruncated()) {
+                    logger.warn("Diario de cambios: registro incompleto al final de {} descartado", file.getFileName());
+                }
+                segments.put(segment.firstSequence(), segment);
+            }
+            if (segments.isEmpty()) {
+                segments.put(1L, JournalSegment.create(directory, 1L, segmentBytes));
+            }
+            active = segments.lastEntry().getValue();
+            nextSequence = active.lastSequence() + 1;
+            forcedSequence = nextSequence - 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Diario de cambios abierto en {}: {} segmentos, secuencias {} a {} en {} ms", directory,
+                segments.size(), segments.firstKey(), nextSequence - 1, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            active.force();
+            for (JournalSegment segment : segments.values()) {
+                segment.close();
+            }
+        } catch (IOException e) {
+            logger.warn("No se pudo cerrar el diario de cambios", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        JournalEntryDTO.Type type = switch (event.type()) {
+            case CREATED -> JournalEntryDTO.Type.BOOK_CREATED;
+            case UPDATED -> JournalEntryDTO.Type.BOOK_UPDATED;
+            case DELETED -> JournalEntryDTO.Type.BOOK_DELETED;
+        };
+        append(type, Instant.now(), event.bookId(), null, null,
+                event.title(), event.authorName(), event.genre(), event.available(), null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoan(LoanEvent event) {
+        JournalEntryDTO.Type type = event.type() == LoanEvent.Type.BORROWED
+                ? JournalEntryDTO.Type.BORROWED
+                : JournalEntryDTO.Type.RETURNED;
+        append(type, event.occurredAt(), event.bookId(), event.loanId(), event.userId(),
+                null, null, null, null, event.dueDate());
+    }
+
+    // El cambio ya está confirmado en la base de datos: un fallo del diario se registra pero no se propaga
+    void append(JournalEntryDTO.Type type, Instant recordedAt, Long bookId, Long loanId, Long userId,
+                String title, String authorName, String genre, Boolean available, LocalDate dueDate) {
+        byte[] body = JournalCodec.encode(type, recordedAt, bookId, loanId, userId, title, authorName, genre,
+                available, dueDate);
+        lock.writeLock().lock();
+        try {
+            JournalCodec.setSequence(body, nextSequence);
+            if (!active.append(body)) {
+                roll();
+                if (!active.append(body)) {
+                    throw new IllegalStateException("La entrada ocupa " + body.length + " bytes, más que un segmento");
+                }
+            }
+            nextSequence++;
+        } catch (IOException | RuntimeException e) {
+            logger.error("No se pudo escribir {} del libro {} en el diario de cambios", type, bookId, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Hasta limit entradas con secuencia >= fromSequence
+    public JournalPageDTO read(long fromSequence, int limit) {
+        lock.readLock().lock();
+        try {
+            long first = segments.firstKey();
+            long from = Math.max(fromSequence, first);
+            List<JournalEntryDTO> entries = new ArrayList<>(Math.min(limit, REPLAY_BATCH));
+            Map.Entry<Long, JournalSegment> floor = segments.floorEntry(from);
+            for (JournalSegment segment : segments.tailMap(floor.getKey(), true).values()) {
+                if (entries.size() >= limit) {
+                    break;
+                }
+                segment.read(Math.max(from, segment.firstSequence()), limit - entries.size(), entries);
+            }
+            long next = entries.isEmpty() ? from : entries.get(entries.size() - 1).sequence() + 1;
+            return new JournalPageDTO(first, nextSequence - 1, next, entries);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Entrega en orden todas las entradas desde fromSequence y devuelve la secuencia con la que continuar.
+    // Se lee por bloques para no bloquear las escrituras durante todo el recorrido.
+    public long replay(long fromSequence, Consumer<JournalEntryDTO> consumer) {
+        long next = fromSequence;
+        while (true) {
+            JournalPageDTO page = read(next, REPLAY_BATCH);
+            page.entries().forEach(consumer);
+            next = page.nextSequence();
+            if (page.entries().size() < REPLAY_BATCH) {
+                return next;
+            }
+        }
+    }
+
+    public long lastSequence() {
+        lock.readLock().lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.journal.flush-interval:PT1S}")
+    public void flush() {
+        JournalSegment segment;
+        long sequence;
+        lock.readLock().lock();
+        try {
+            segment = active;
+            sequence = nextSequence - 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (sequence > forcedSequence) {
+            segment.force();
+            forcedSequence = sequence;
+        }
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void roll() throws IOException {
+        active.force();
+        active = JournalSegment.create(directory, nextSequence, segmentBytes);
+        segments.put(nextSequence, active);
+        while (segments.size() > maxSegments) {
+            JournalSegment oldest = segments.pollFirstEntry().getValue();
+            oldest.close();
+            Files.deleteIfExists(oldest.file());
+            logger.info("Diario de cambios: descartado {} (secuencias {} a {})", oldest.file().getFileName(),
+                    oldest.firstSequence(), oldest.lastSequence());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.library.management.journal;
+
+import com.library.management.dto.JournalEntryDTO;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+
+// Formato binario del cuerpo de una entrada: secuencia, instante, tipo, ids, vencimiento, disponibilidad
+// y los textos con su longitud delante. Los nulos se codifican como NULL_LONG, -1 o longitud -1.
+final class JournalCodec {
+
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int FIXED_BYTES = Long.BYTES * 6 + 2 + Integer.BYTES * 3;
+    private static final JournalEntryDTO.Type[] TYPES = JournalEntryDTO.Type.values();
+
+    private JournalCodec() {
+    }
+
+    // La secuencia se escribe después, con el lock del diario tomado (setSequence)
+    static byte[] encode(JournalEntryDTO.Type type, Instant recordedAt, Long bookId, Long loanId, Long userId,
+                         String title, String authorName, String genre, Boolean available, LocalDate dueDate) {
+        byte[] titleBytes = bytes(title);
+        byte[] authorBytes = bytes(authorName);
+        byte[] genreBytes = bytes(genre);
+        ByteBuffer body = ByteBuffer.allocate(FIXED_BYTES + length(titleBytes) + length(authorBytes) + length(genreBytes));
+        body.putLong(0L);
+        body.putLong(recordedAt.toEpochMilli());
+        body.put((byte) type.ordinal());
+        body.putLong(orNull(bookId));
+        body.putLong(orNull(loanId));
+        body.putLong(orNull(userId));
+        body.putLong(dueDate == null ? NULL_LONG : dueDate.toEpochDay());
+        body.put(available == null ? (byte) -1 : (byte) (available ? 1 : 0));
+        putString(body, titleBytes);
+        putString(body, authorBytes);
+        putString(body, genreBytes);
+        return body.array();
+    }
+
+    static void setSequence(byte[] body, long sequence) {
+        ByteBuffer.wrap(body).putLong(0, sequence);
+    }
+
+    static long sequenceAt(ByteBuffer buffer, int bodyPosition) {
+        return buffer.getLong(bodyPosition);
+    }
+
+    static JournalEntryDTO decode(ByteBuffer buffer, int bodyPosition) {
+        ByteBuffer body = buffer.duplicate().position(bodyPosition);
+        long sequence = body.getLong();
+        Instant recordedAt = Instant.ofEpochMilli(body.getLong());
+        JournalEntryDTO.Type type = TYPES[body.get()];
+        Long bookId = nullable(body.getLong());
+        Long loanId = nullable(body.getLong());
+        Long userId = nullable(body.getLong());
+        long dueDay = body.getLong();
+        byte available = body.get();
+        String title = getString(body);
+        String authorName = getString(body);
+        String genre = getString(body);
+        return new JournalEntryDTO(sequence, recordedAt, type, bookId, loanId, userId, title, authorName, genre,
+                available < 0 ? null : available == 1,
+                dueDay == NULL_LONG ? null : LocalDate.ofEpochDay(dueDay));
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static long orNull(Long value) {
+        return value == null ? NULL_LONG : value;
+    }
+
+    private static Long nullable(long value) {
+        return value == NULL_LONG ? null : value;
+    }
+
+    private static void putString(ByteBuffer body, byte[] value) {
+        if (value == null) {
+            body.putInt(-1);
+            return;
+        }
+        body.putInt(value.length);
+        body.put(value);
+    }
+
+    private static String getString(ByteBuffer body) {
+        int length = body.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        body.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
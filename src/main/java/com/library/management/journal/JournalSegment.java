@@ -0,0 +1,165 @@
+package com.library.management.journal;
+
+import com.library.management.dto.JournalEntryDTO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Un archivo del diario (changes-<primera secuencia>.journal) proyectado en memoria. Cada registro es
+// [longitud][crc32][cuerpo] y las secuencias de un segmento son consecutivas; una longitud 0 marca el
+// final de lo escrito. No es thread-safe: lo protege el lock de ChangeJournal.
+final class JournalSegment {
+
+    static final int HEADER_BYTES = Integer.BYTES * 2;
+    // Posición de uno de cada INDEX_INTERVAL registros, para llegar a una secuencia sin recorrer el archivo
+    private static final int INDEX_INTERVAL = 256;
+    private static final String PREFIX = "changes-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path file;
+    private final long firstSequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int[] index = new int[16];
+    private int records;
+    private int end;
+    private boolean truncated;
+
+    private JournalSegment(Path file, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+        this.file = file;
+        this.firstSequence = firstSequence;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int size) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(file, firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    // Abre un segmento existente y localiza el final; un registro incompleto (caída a mitad de escritura)
+    // o corrupto se descarta junto con lo que venga detrás
+    static JournalSegment open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        JournalSegment segment = new JournalSegment(file, sequenceOf(file), channel,
+                channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        segment.recover();
+        return segment;
+    }
+
+    static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX) && Files.isRegularFile(file);
+    }
+
+    static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private void recover() {
+        CRC32 crc = new CRC32();
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length < Long.BYTES || length > buffer.capacity() - position - HEADER_BYTES
+                    || JournalCodec.sequenceAt(buffer, position + HEADER_BYTES) != firstSequence + records
+                    || checksum(crc, position + HEADER_BYTES, length) != buffer.getInt(position + Integer.BYTES)) {
+                truncated = length != 0;
+                break;
+            }
+            indexRecord(position);
+            position += HEADER_BYTES + length;
+        }
+        end = position;
+        if (truncated) {
+            byte[] zeros = new byte[8192];
+            for (int i = end; i < buffer.capacity(); i += zeros.length) {
+                buffer.put(i, zeros, 0, Math.min(zeros.length, buffer.capacity() - i));
+            }
+        }
+    }
+
+    // false si el registro no cabe en lo que queda del segmento
+    boolean append(byte[] body) {
+        if (end + HEADER_BYTES + body.length > buffer.capacity()) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        buffer.put(end + HEADER_BYTES, body);
+        buffer.putInt(end + Integer.BYTES, (int) crc.getValue());
+        // La longitud va al final: un registro a medias conserva longitud 0 y se ignora al recuperar
+        buffer.putInt(end, body.length);
+        indexRecord(end);
+        end += HEADER_BYTES + body.length;
+        return true;
+    }
+
+    // Añade a entries hasta limit entradas a partir de sequence
+    void read(long sequence, int limit, List<JournalEntryDTO> entries) {
+        if (sequence < firstSequence || sequence > lastSequence()) {
+            return;
+        }
+        long offset = sequence - firstSequence;
+        int position = index[(int) (offset / INDEX_INTERVAL)];
+        for (long skip = offset % INDEX_INTERVAL; skip > 0; skip--) {
+            position += HEADER_BYTES + buffer.getInt(position);
+        }
+        for (int read = 0; read < limit && position < end; read++) {
+            entries.add(JournalCodec.decode(buffer, position + HEADER_BYTES));
+            position += HEADER_BYTES + buffer.getInt(position);
+        }
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    long lastSequence() {
+        return firstSequence + records - 1;
+    }
+
+    boolean wasTruncated() {
+        return truncated;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    private void indexRecord(int position) {
+        if (records % INDEX_INTERVAL == 0) {
+            int slot = records / INDEX_INTERVAL;
+            if (slot == index.length) {
+                index = Arrays.copyOf(index, index.length * 2);
+            }
+            index[slot] = position;
+        }
+        records++;
+    }
+
+    private int checksum(CRC32 crc, int position, int length) {
+        crc.reset();
+        crc.update(buffer.slice(position, length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,65 @@
+package com.library.management.metrics;
+
+import com.library.management.event.LoanEvent;
+import com.library.management.service.ImportProgress;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Contadores de dominio: cargas CSV, filas aceptadas/omitidas, préstamos, devoluciones, clientes SSE y recursos no encontrados
+@Component
+public class LibraryMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter borrowed;
+    private final Counter returned;
+
+    public LibraryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.borrowed = Counter.builder("library.loans").tag("type", "borrowed").register(meterRegistry);
+        this.returned = Counter.builder("library.loans").tag("type", "returned").register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoan(LoanEvent event) {
+        (event.type() == LoanEvent.Type.BORROWED ? borrowed : returned).increment();
+    }
+
+    // Las filas/s se obtienen como rate(library_import_rows_total) sobre las filas leídas
+    public void importFinished(ImportProgress progress, boolean succeeded) {
+        meterRegistry.counter("library.imports", "outcome", succeeded ? "completed" : "failed").increment();
+        meterRegistry.counter("library.import.rows", "result", "read").increment(progress.getRowsRead());
+        meterRegistry.counter("library.import.rows", "result", "accepted").increment(progress.getAccepted());
+        progress.getSkipped().forEach((reason, count) -> {
+            if (count > 0) {
+                meterRegistry.counter("library.import.rows.skipped", "reason", reason).increment(count);
+            }
+        });
+        Timer.builder("library.import.duration")
+                .register(meterRegistry)
+                .record(progress.getElapsedMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void loansArchived(long count) {
+        meterRegistry.counter("library.loans.archived").increment(count);
+    }
+
+    public void streamClients(Map<?, ?> subscribers) {
+        Gauge.builder("library.stream.clients", subscribers, Map::size).register(meterRegistry);
+    }
+
+    // Mensajes descartados por clientes SSE que no leen al ritmo de los cambios
+    public void streamDropped(long count) {
+        meterRegistry.counter("library.stream.dropped").increment(count);
+    }
+
+    public void notFound(String resource) {
+        meterRegistry.counter("library.errors.not_found", "resource", resource == null ? "unknown" : resource).increment();
+    }
+}
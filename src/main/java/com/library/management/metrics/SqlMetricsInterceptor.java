@@ -0,0 +1,55 @@
+package com.library.management.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+// Registra por endpoint (método HTTP + patrón de la URI) cuántas sentencias SQL ejecutó cada petición
+// y cuánto tiempo pasó en la base de datos.
+public class SqlMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementMetrics.begin();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatementMetrics.RequestTotals totals = SqlStatementMetrics.end();
+        if (totals == null || !(handler instanceof HandlerMethod)) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("library.http.sql.statements")
+                .description("Sentencias SQL por petición")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(meterRegistry)
+                .record(totals.getStatements());
+        Timer.builder("library.http.sql.time")
+                .description("Tiempo en la base de datos por petición")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(meterRegistry)
+                .record(totals.getNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    // Las respuestas asíncronas (exportación) siguen en otro hilo; aquí solo se limpia el hilo de la petición
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementMetrics.end();
+    }
+}
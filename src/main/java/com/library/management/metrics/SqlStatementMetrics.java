@@ -0,0 +1,135 @@
+package com.library.management.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Cuenta y mide cada sentencia SQL a nivel de JDBC, así cubre tanto JPA como JdbcTemplate.
+// El total global va a library.sql.statements; además se acumula por hilo entre begin() y end()
+// para que SqlMetricsInterceptor pueda registrar las sentencias de cada petición.
+public final class SqlStatementMetrics {
+
+    private static final ThreadLocal<RequestTotals> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementMetrics() {
+    }
+
+    public static final class RequestTotals {
+        private int statements;
+        private long nanos;
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    public static void begin() {
+        CURRENT.set(new RequestTotals());
+    }
+
+    // Devuelve lo acumulado desde begin() en este hilo, o null si no se llamó
+    public static RequestTotals end() {
+        RequestTotals totals = CURRENT.get();
+        CURRENT.remove();
+        return totals;
+    }
+
+    // El registro se resuelve en la primera sentencia: el DataSource se crea antes que el MeterRegistry
+    public static DataSource wrap(DataSource dataSource, Supplier<MeterRegistry> meterRegistry) {
+        LazyTimer timer = new LazyTimer(meterRegistry);
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return proxyConnection(super.getConnection(), timer);
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return proxyConnection(super.getConnection(username, password), timer);
+            }
+        };
+    }
+
+    private static Connection proxyConnection(Connection connection, LazyTimer timer) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> proxyStatement(result, Statement.class, timer);
+                case "prepareStatement" -> proxyStatement(result, PreparedStatement.class, timer);
+                case "prepareCall" -> proxyStatement(result, CallableStatement.class, timer);
+                default -> result;
+            };
+        };
+        return (Connection) Proxy.newProxyInstance(SqlStatementMetrics.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static Object proxyStatement(Object statement, Class<?> type, LazyTimer timer) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                record(System.nanoTime() - start, timer);
+            }
+        };
+        return Proxy.newProxyInstance(SqlStatementMetrics.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static void record(long nanos, LazyTimer timer) {
+        timer.get().record(nanos, TimeUnit.NANOSECONDS);
+        RequestTotals totals = CURRENT.get();
+        if (totals != null) {
+            totals.statements++;
+            totals.nanos += nanos;
+        }
+    }
+
+    private static final class LazyTimer {
+        private final Supplier<MeterRegistry> meterRegistry;
+        private volatile Timer timer;
+
+        private LazyTimer(Supplier<MeterRegistry> meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        private Timer get() {
+            Timer current = timer;
+            if (current == null) {
+                current = Timer.builder("library.sql.statements")
+                        .description("Sentencias SQL ejecutadas y su duración")
+                        .register(meterRegistry.get());
+                timer = current;
+            }
+            return current;
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
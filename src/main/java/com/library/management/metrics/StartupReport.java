@@ -0,0 +1,83 @@
+package com.library.management.metrics;
+
+import com.library.management.service.ReadModelSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Desglose del arranque al llegar ApplicationReadyEvent: tiempo hasta estar listo, los beans que más
+// tardaron en crearse (tiempo propio, sin contar sus dependencias; entityManagerFactory incluye el ddl-auto)
+// y la restauración de la instantánea del modelo de lectura. Los tiempos por bean solo están disponibles
+// con BufferingApplicationStartup (LibraryManagementSystemApplication); el detalle completo en /actuator/startup.
+@Component
+public class StartupReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupReport.class);
+
+    private static final int SLOWEST_BEANS = 8;
+    private static final String BEAN_STEP = "spring.beans.instantiate";
+
+    private final ApplicationStartup applicationStartup;
+    private final ReadModelSnapshot readModelSnapshot;
+
+    public StartupReport(ApplicationStartup applicationStartup, ReadModelSnapshot readModelSnapshot) {
+        this.applicationStartup = applicationStartup;
+        this.readModelSnapshot = readModelSnapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        StringBuilder report = new StringBuilder("Informe de arranque:");
+        report.append(String.format("%n  listo en %d ms (JVM en marcha desde hace %d ms)",
+                event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1,
+                ManagementFactory.getRuntimeMXBean().getUptime()));
+
+        ReadModelSnapshot.Restore restore = readModelSnapshot.getLastRestore();
+        report.append(String.format("%n  instantánea del modelo de lectura: %s, %d libros, %d entradas del diario, %d ms",
+                restore.outcome(), restore.books(), restore.replayedEntries(), restore.elapsedMillis()));
+
+        if (applicationStartup instanceof BufferingApplicationStartup buffering) {
+            report.append(String.format("%n  beans más lentos (tiempo propio):"));
+            slowestBeans(buffering.getBufferedTimeline()).entrySet().stream()
+                    .sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+                    .limit(SLOWEST_BEANS)
+                    .forEach(bean -> report.append(String.format("%n    %-40s %6d ms",
+                            bean.getKey(), bean.getValue().toMillis())));
+        }
+        logger.info(report.toString());
+    }
+
+    // Duración de cada bean menos la de los pasos anidados (sus dependencias se crean dentro)
+    private static Map<String, Duration> slowestBeans(StartupTimeline timeline) {
+        Map<Long, Duration> selfTime = new HashMap<>();
+        Map<Long, String> beanNames = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            StartupStep step = event.getStartupStep();
+            selfTime.merge(step.getId(), event.getDuration(), Duration::plus);
+            if (step.getParentId() != null) {
+                selfTime.merge(step.getParentId(), event.getDuration().negated(), Duration::plus);
+            }
+            if (BEAN_STEP.equals(step.getName())) {
+                step.getTags().forEach(tag -> {
+                    if ("beanName".equals(tag.getKey())) {
+                        beanNames.put(step.getId(), tag.getValue());
+                    }
+                });
+            }
+        }
+        Map<String, Duration> beans = new HashMap<>();
+        beanNames.forEach((id, name) -> beans.merge(name, selfTime.get(id), Duration::plus));
+        return beans;
+    }
+}
@@ -1,25 +1,38 @@
 package com.library.management.model;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-@Builder
 @Entity
-
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// El índice único sobre name (sustituye a idx_author_name) impide autores duplicados aunque escriban
+// varias instancias; AuthorCache relee el existente si pierde la carrera
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_author_name", columnNames = "name"))
 public class Author {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String name;
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 
     @OneToMany(mappedBy = "author")
     @JsonIgnore
@@ -28,6 +41,7 @@ public class Author {
     public Author() {
     }
 
+    @Builder
     public Author(Long id, String name, List<Book> books) {
         this.id = id;
         this.name = name;
@@ -58,4 +72,12 @@ public class Author {
     public void setBooks(List<Book> books) {
         this.books = books;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
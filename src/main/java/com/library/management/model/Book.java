@@ -1,34 +1,90 @@
 package com.library.management.model;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Builder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
-@Builder
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = @Index(name = "idx_book_updated_at", columnList = "updatedAt"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_book_natural_key", columnNames = "natural_key"))
 public class Book {
 
+    // Ids por bloques de una secuencia: a diferencia de IDENTITY, Hibernate puede agrupar los INSERT en batches
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     private String title;
     @ManyToOne
     private Author author;
     private String genre;
     private boolean available;
+    // Marca de agua para las exportaciones incrementales
+    @UpdateTimestamp
+    private Instant updatedAt;
+    // Bloqueo optimista; las escrituras por JDBC (BookJdbcRepository) también lo incrementan
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+    // Título + autor normalizados; el índice único impide duplicados aunque dos cargas se crucen
+    @Column(name = "natural_key", length = 511)
+    private String naturalKey;
 
     public Book() {
     }
 
     public Book(Long id, String title, Author author, String genre, boolean available) {
+        this(id, title, author, genre, available, null);
+    }
+
+    @Builder
+    public Book(Long id, String title, Author author, String genre, boolean available, Instant updatedAt) {
         this.id = id;
         this.title = title;
         this.author = author;
         this.genre = genre;
         this.available = available;
+        this.updatedAt = updatedAt;
+    }
+
+    // Mismo libro si coinciden título y autor sin distinguir mayúsculas ni espacios sobrantes
+    public static String naturalKey(String title, String authorName) {
+        return normalize(title) + '\u001f' + normalize(authorName);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : WHITESPACE.matcher(value.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void refreshNaturalKey() {
+        naturalKey = naturalKey(title, author != null ? author.getName() : null);
     }
 
     // Getters and Setters
@@ -71,4 +127,24 @@ public class Book {
     public void setAvailable(boolean available) {
         this.available = available;
     }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getNaturalKey() {
+        return naturalKey;
+    }
 }
@@ -0,0 +1,23 @@
+package com.library.management.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Préstamos archivados por libro; el total es este contador más sus filas en loan
+@Entity
+@Table(name = "book_loan_count")
+public class BookLoanCount {
+
+    @Id
+    private Long bookId;
+    private long loans;
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public long getLoans() {
+        return loans;
+    }
+}
@@ -1,13 +1,27 @@
 package com.library.management.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = {
+        @Index(name = "idx_loan_return_due", columnList = "returnDate, dueDate"),
+        @Index(name = "idx_loan_loan_date", columnList = "loanDate"),
+        // Préstamos activos o históricos de un usuario y de un libro sin recorrer la tabla
+        @Index(name = "idx_loan_user_return", columnList = "user_id, returnDate"),
+        @Index(name = "idx_loan_book_return", columnList = "book_id, returnDate")
+})
 public class Loan {
 
     @Id
@@ -0,0 +1,50 @@
+package com.library.management.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDate;
+
+// Préstamo devuelto que LoanArchiver sacó de la tabla loan. Conserva el id original y no tiene claves
+// foráneas: el libro o el usuario pueden borrarse sin perder el historial. Solo se escribe por JDBC.
+@Entity
+@Table(name = "loan_history", indexes = {
+        @Index(name = "idx_loan_history_book", columnList = "bookId, id"),
+        @Index(name = "idx_loan_history_user", columnList = "userId, id")
+})
+public class LoanHistory {
+
+    @Id
+    private Long id;
+    private Long bookId;
+    private Long userId;
+    private LocalDate loanDate;
+    private LocalDate dueDate;
+    private LocalDate returnDate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDate getLoanDate() {
+        return loanDate;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+}
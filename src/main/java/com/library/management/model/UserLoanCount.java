@@ -0,0 +1,23 @@
+package com.library.management.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Préstamos archivados por usuario; el total es este contador más sus filas en loan
+@Entity
+@Table(name = "user_loan_count")
+public class UserLoanCount {
+
+    @Id
+    private Long userId;
+    private long loans;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getLoans() {
+        return loans;
+    }
+}
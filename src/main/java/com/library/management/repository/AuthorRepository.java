@@ -1,10 +1,17 @@
 package com.library.management.repository;
 
 import com.library.management.model.Author;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AuthorRepository extends JpaRepository<Author, Long> {
     Optional<Author> findByName(String name);
+
+    List<Author> findByNameIn(Collection<String> names);
+
+    List<Author> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
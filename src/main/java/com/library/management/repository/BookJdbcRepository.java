@@ -0,0 +1,80 @@
+package com.library.management.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+// Cambios de disponibilidad sobre la tabla book con UPDATE condicionales (sueltos o en JDBC batch).
+// Las altas van por JPA: con la secuencia book_seq Hibernate ya agrupa los INSERT.
+@Repository
+public class BookJdbcRepository {
+
+    private static final String RESERVE_BOOK =
+            "UPDATE book SET available = FALSE, updated_at = ?, version = version + 1 WHERE id = ? AND available = TRUE";
+    private static final String RELEASE_BOOK =
+            "UPDATE book SET available = TRUE, updated_at = ?, version = version + 1 WHERE id = ? AND available = FALSE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCacheEvictor cacheEvictor;
+
+    public BookJdbcRepository(JdbcTemplate jdbcTemplate, SecondLevelCacheEvictor cacheEvictor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheEvictor = cacheEvictor;
+    }
+
+    // Reserva atómica: solo una de varias peticiones concurrentes obtiene 1; el resto obtiene 0
+    public int reserve(Long bookId) {
+        return updateOne(RESERVE_BOOK, bookId);
+    }
+
+    public int release(Long bookId) {
+        return updateOne(RELEASE_BOOK, bookId);
+    }
+
+    // Reserva varios ejemplares con el mismo UPDATE condicional, en un solo batch (en orden de id, LockOrder).
+    // El recuento de cada posición indica si ese libro se reservó (1) o ya estaba prestado (0).
+    public int[] reserveAll(List<Long> bookIds) {
+        return updateAll(RESERVE_BOOK, bookIds);
+    }
+
+    public int[] releaseAll(List<Long> bookIds) {
+        return updateAll(RELEASE_BOOK, bookIds);
+    }
+
+    private int updateOne(String sql, Long bookId) {
+        int updated = jdbcTemplate.update(sql, Timestamp.from(Instant.now()), bookId);
+        if (updated > 0) {
+            cacheEvictor.booksChanged(List.of(bookId));
+        }
+        return updated;
+    }
+
+    private int[] updateAll(String sql, List<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return new int[0];
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Long> sorted = LockOrder.sortedDistinct(bookIds);
+        cacheEvictor.booksChanged(sorted);
+        int[] counts = jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setTimestamp(1, now);
+                ps.setLong(2, sorted.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return sorted.size();
+            }
+        });
+        return LockOrder.toRequestOrder(bookIds, sorted, counts);
+    }
+}
@@ -0,0 +1,7 @@
+package com.library.management.repository;
+
+import com.library.management.model.BookLoanCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BookLoanCountRepository extends JpaRepository<BookLoanCount, Long> {
+}
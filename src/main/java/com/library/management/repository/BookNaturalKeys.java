@@ -0,0 +1,110 @@
+package com.library.management.repository;
+
+import com.library.management.model.Book;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Mantiene la columna book.natural_key fuera de los callbacks de Book: la rellena al arrancar en los libros
+// anteriores a la columna, la recalcula cuando cambia el nombre de un autor y la libera en los lotes. Si la base de datos ya tenía
+// duplicados, el primero (menor id) se queda con la clave y el resto se dejan a null y se avisa.
+@Component
+@DependsOn("entityManagerFactory")
+public class BookNaturalKeys {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookNaturalKeys.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCacheEvictor cacheEvictor;
+
+    public BookNaturalKeys(JdbcTemplate jdbcTemplate, SecondLevelCacheEvictor cacheEvictor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheEvictor = cacheEvictor;
+    }
+
+    private record KeyUpdate(Long bookId, String naturalKey) {
+    }
+
+    // Libro cuya clave se recalculó, con los campos que necesitan los eventos de cambio. No lleva la
+    // disponibilidad: leída aquí podría estar ya superada por un préstamo cuando se publique el evento.
+    public record RekeyedBook(Long id, String title, String genre) {
+    }
+
+    @PostConstruct
+    public void backfill() {
+        List<KeyUpdate> missing = jdbcTemplate.query(
+                "SELECT b.id, b.title, a.name FROM book b LEFT JOIN author a ON a.id = b.author_id " +
+                        "WHERE b.natural_key IS NULL ORDER BY b.id",
+                (rs, rowNum) -> new KeyUpdate(rs.getLong(1), Book.naturalKey(rs.getString(2), rs.getString(3))));
+        if (missing.isEmpty()) {
+            return;
+        }
+        Set<String> used = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT natural_key FROM book WHERE natural_key IS NOT NULL", String.class));
+        int updated = write(missing, used);
+        if (updated < missing.size()) {
+            logger.warn("{} libros duplicados (mismo título y autor) se quedan sin clave natural; conviene revisarlos",
+                    missing.size() - updated);
+        }
+        logger.info("Clave natural calculada para {} libros existentes", updated);
+    }
+
+    // Los libros del autor cambian de clave con su nombre. Se pasa el nombre nuevo porque la modificación
+    // del autor puede no haberse enviado todavía a la base de datos dentro de la misma transacción.
+    // Cuenta como una modificación de cada libro: sube version y updated_at (la exportación incremental
+    // los vuelve a enviar) y se invalida su copia en la cache de segundo nivel, que guarda la clave anterior.
+    public List<RekeyedBook> refreshAuthor(Long authorId, String authorName) {
+        List<RekeyedBook> books = jdbcTemplate.query(
+                "SELECT id, title, genre FROM book WHERE author_id = ? ORDER BY id",
+                (rs, rowNum) -> new RekeyedBook(rs.getLong(1), rs.getString(2), rs.getString(3)),
+                authorId);
+        if (books.isEmpty()) {
+            return books;
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> batch = new ArrayList<>(books.size());
+        for (RekeyedBook book : books) {
+            batch.add(new Object[]{Book.naturalKey(book.title(), authorName), now, book.id()});
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE book SET natural_key = ?, updated_at = ?, version = version + 1 WHERE id = ?", batch);
+        // SecondLevelCacheEvictor vuelve a invalidar tras el commit lo que una lectura concurrente
+        // haya cacheado con la clave anterior entretanto
+        cacheEvictor.booksChanged(books.stream().map(RekeyedBook::id).toList());
+        return books;
+    }
+
+    // Deja sin clave los libros indicados dentro de la transacción en curso, para que otros puedan tomar
+    // sus claves antes de que se les asigne la nueva
+    public void clear(List<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(bookIds.size());
+        bookIds.forEach(id -> batch.add(new Object[]{id}));
+        jdbcTemplate.batchUpdate("UPDATE book SET natural_key = NULL WHERE id = ?", batch);
+    }
+
+    // Escribe las claves no usadas todavía; devuelve cuántas se asignaron
+    private int write(List<KeyUpdate> updates, Set<String> used) {
+        List<Object[]> batch = new ArrayList<>(updates.size());
+        for (KeyUpdate update : updates) {
+            if (used.add(update.naturalKey())) {
+                batch.add(new Object[]{update.naturalKey(), update.bookId()});
+            }
+        }
+        jdbcTemplate.batchUpdate("UPDATE book SET natural_key = ? WHERE id = ?", batch);
+        return batch.size();
+    }
+}
@@ -1,11 +1,21 @@
 package com.library.management.repository;
 
+import com.library.management.config.CacheConfig;
+import com.library.management.dto.BookDTO;
+import com.library.management.dto.BookExportDTO;
 import com.library.management.model.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
 
@@ -18,6 +28,71 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT b FROM Book b WHERE b.title LIKE %:query% OR b.author.name LIKE %:query% OR b.genre LIKE %:query%")
     List<Book> searchBooks(@Param("query") String query);
 
-    // Check if a book with the same title and author name already exists
-    boolean existsByTitleAndAuthor_Name(String title, String authorName);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.BOOK_QUERY_REGION)
+    })
+    @Query("SELECT new com.library.management.dto.BookDTO(b.id, b.title, a.id, a.name, b.genre, b.available) " +
+            "FROM Book b LEFT JOIN b.author a " +
+            "WHERE (b.title LIKE %:query% OR a.name LIKE %:query% OR b.genre LIKE %:query%) " +
+            "AND b.id > :afterId ORDER BY b.id")
+    List<BookDTO> searchBooksAfter(@Param("query") String query, @Param("afterId") Long afterId, Pageable pageable);
+
+    // Keyset pagination: la siguiente página empieza después del último id devuelto.
+    // Proyección con el autor unido en la misma consulta: una sola sentencia por página, sin N+1.
+    @Query("SELECT new com.library.management.dto.BookDTO(b.id, b.title, a.id, a.name, b.genre, b.available) " +
+            "FROM Book b LEFT JOIN b.author a WHERE b.id > :afterId ORDER BY b.id")
+    List<BookDTO> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.library.management.dto.BookDTO(b.id, b.title, a.id, a.name, b.genre, b.available) " +
+            "FROM Book b LEFT JOIN b.author a WHERE b.id IN :ids")
+    List<BookDTO> findDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Proyección ligera [id, title, authorName, genre] para construir el índice de búsqueda
+    @Query("SELECT b.id, b.title, a.name, b.genre FROM Book b LEFT JOIN b.author a")
+    List<Object[]> findAllForSearchIndex();
+
+    // Proyección [id, title, authorName, genre, available] para el índice de disponibilidad
+    @Query("SELECT b.id, b.title, a.name, b.genre, b.available FROM Book b LEFT JOIN b.author a")
+    List<Object[]> findAllForAvailabilityIndex();
+
+    // Cursor de servidor para exportar el catálogo: proyección a DTO (no entra en el contexto de persistencia)
+    // leída de la base de datos por bloques de fetchSize filas. Debe consumirse dentro de una transacción.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.library.management.dto.BookExportDTO(b.id, b.title, a.id, a.name, b.genre, b.available, b.updatedAt) " +
+            "FROM Book b LEFT JOIN b.author a " +
+            "WHERE (:genre IS NULL OR b.genre = :genre) " +
+            "AND (:available IS NULL OR b.available = :available) " +
+            "AND (:updatedSince IS NULL OR b.updatedAt > :updatedSince) " +
+            "ORDER BY b.id")
+    Stream<BookExportDTO> streamForExport(@Param("genre") String genre,
+                                         @Param("available") Boolean available,
+                                         @Param("updatedSince") Instant updatedSince);
+
+    // updated_at más reciente (idx_book_updated_at), base de la marca de agua de la exportación incremental
+    @Query("SELECT MAX(b.updatedAt) FROM Book b")
+    Instant findMaxUpdatedAt();
+
+    // Comprobaciones de duplicado por clave natural (Book.naturalKey), resueltas con el índice único
+    boolean existsByNaturalKey(String naturalKey);
+
+    boolean existsByNaturalKeyAndIdNot(String naturalKey, Long id);
+
+    // Libros a modificar o borrar en una operación por lote, con su autor en la misma consulta
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.author WHERE b.id IN :ids")
+    List<Book> findWithAuthorByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT l.book.id FROM Loan l WHERE l.book.id IN :ids")
+    List<Long> findIdsWithLoans(@Param("ids") Collection<Long> ids);
+
+    // Versión por conjunto de existsByNaturalKey para las cargas y los lotes
+    @Query("SELECT b.naturalKey FROM Book b WHERE b.naturalKey IN :keys")
+    List<String> findExistingNaturalKeys(@Param("keys") Collection<String> keys);
+
+    // Como findExistingNaturalKeys pero con el id: [id, naturalKey]
+    @Query("SELECT b.id, b.naturalKey FROM Book b WHERE b.naturalKey IN :keys")
+    List<Object[]> findIdAndNaturalKeyByNaturalKeyIn(@Param("keys") Collection<String> keys);
 }
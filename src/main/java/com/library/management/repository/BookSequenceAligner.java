@@ -0,0 +1,42 @@
+package com.library.management.repository;
+
+import com.library.management.model.Book;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Los ids de Book salían de una columna IDENTITY; en una base de datos existente la secuencia book_seq
+// que crea ddl-auto empieza en 1 y chocaría con los ids ya usados. Antes de aceptar peticiones se sitúa
+// un bloque por encima del mayor id: el optimizador pooled reparte los ids que quedan por debajo del
+// valor leído de la secuencia.
+@Component
+@DependsOn("entityManagerFactory")
+public class BookSequenceAligner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSequenceAligner.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookSequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM book", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        Long next = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'BOOK_SEQ'", Long.class);
+        long minimum = maxId + Book.ID_ALLOCATION_SIZE;
+        if (next != null && next >= minimum) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE book_seq RESTART WITH " + minimum);
+        logger.info("Secuencia book_seq reajustada a {} (mayor id de libro: {})", minimum, maxId);
+    }
+}
@@ -0,0 +1,97 @@
+package com.library.management.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Mueve préstamos devueltos de loan a loan_history y suma los contadores por libro y por usuario.
+// Debe ejecutarse dentro de una transacción: la copia, los contadores y el borrado se confirman juntos.
+// Es repetible: un préstamo que ya está en loan_history (de una pasada anterior a medias) no se copia ni
+// vuelve a sumar en los contadores, solo se borra de loan.
+@Repository
+public class LoanArchiveJdbcRepository {
+
+    private static final String SELECT_RETURNED =
+            "SELECT id, book_id, user_id, loan_date, due_date, return_date FROM loan WHERE return_date < ? LIMIT ?";
+    private static final String INSERT_HISTORY =
+            "INSERT INTO loan_history (id, book_id, user_id, loan_date, due_date, return_date) " +
+                    "SELECT ?, ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM loan_history WHERE id = ?)";
+    private static final String MERGE_COUNT =
+            "MERGE INTO %1$s_loan_count t USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) s(%1$s_id, loans) " +
+                    "ON t.%1$s_id = s.%1$s_id " +
+                    "WHEN MATCHED THEN UPDATE SET loans = t.loans + s.loans " +
+                    "WHEN NOT MATCHED THEN INSERT (%1$s_id, loans) VALUES (s.%1$s_id, s.loans)";
+    private static final String DELETE_LOAN = "DELETE FROM loan WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCacheEvictor cacheEvictor;
+
+    public LoanArchiveJdbcRepository(JdbcTemplate jdbcTemplate, SecondLevelCacheEvictor cacheEvictor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheEvictor = cacheEvictor;
+    }
+
+    public record ReturnedLoan(Long id, Long bookId, Long userId, LocalDate loanDate, LocalDate dueDate,
+                               LocalDate returnDate) {
+    }
+
+    // Hasta limit préstamos devueltos antes de una fecha (idx_loan_return_due)
+    public List<ReturnedLoan> findReturnedBefore(LocalDate before, int limit) {
+        return jdbcTemplate.query(SELECT_RETURNED, (rs, rowNum) -> new ReturnedLoan(
+                rs.getLong(1),
+                rs.getObject(2, Long.class),
+                rs.getObject(3, Long.class),
+                rs.getObject(4, LocalDate.class),
+                rs.getObject(5, LocalDate.class),
+                rs.getObject(6, LocalDate.class)), Date.valueOf(before), limit);
+    }
+
+    public void archive(List<ReturnedLoan> loans) {
+        if (loans.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> history = new ArrayList<>(loans.size());
+        List<Object[]> deletes = new ArrayList<>(loans.size());
+        for (ReturnedLoan loan : loans) {
+            history.add(new Object[]{loan.id(), loan.bookId(), loan.userId(), loan.loanDate(), loan.dueDate(),
+                    loan.returnDate(), loan.id()});
+            deletes.add(new Object[]{loan.id()});
+        }
+
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_HISTORY, history);
+        // Solo cuentan los que se han copiado ahora; los ya archivados sumaron en su pasada
+        Map<Long, Long> byBook = new HashMap<>();
+        Map<Long, Long> byUser = new HashMap<>();
+        for (int i = 0; i < loans.size(); i++) {
+            if (inserted[i] == 0) {
+                continue;
+            }
+            ReturnedLoan loan = loans.get(i);
+            if (loan.bookId() != null) {
+                byBook.merge(loan.bookId(), 1L, Long::sum);
+            }
+            if (loan.userId() != null) {
+                byUser.merge(loan.userId(), 1L, Long::sum);
+            }
+        }
+
+        mergeCounts("book", byBook);
+        mergeCounts("user", byUser);
+        jdbcTemplate.batchUpdate(DELETE_LOAN, deletes);
+        // Tras el DELETE: si falla, la transacción se deshace y la cache sigue reflejando loan
+        cacheEvictor.loansChanged(loans.stream().map(ReturnedLoan::id).toList());
+    }
+
+    private void mergeCounts(String table, Map<Long, Long> counts) {
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        counts.forEach((id, loans) -> rows.add(new Object[]{id, loans}));
+        jdbcTemplate.batchUpdate(String.format(MERGE_COUNT, table), rows);
+    }
+}
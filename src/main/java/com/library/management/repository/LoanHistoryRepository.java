@@ -0,0 +1,29 @@
+package com.library.management.repository;
+
+import com.library.management.dto.LoanDTO;
+import com.library.management.model.LoanHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+// Lecturas del historial archivado con la misma proyección que los préstamos de la tabla loan. El título,
+// autor y nombre del usuario se toman de las tablas actuales y quedan a null si ya no existen.
+public interface LoanHistoryRepository extends JpaRepository<LoanHistory, Long> {
+
+    // idx_loan_history_book
+    @Query("SELECT new com.library.management.dto.LoanDTO(h.id, h.bookId, b.title, a.name, h.userId, u.name, h.loanDate, h.dueDate, h.returnDate) " +
+            "FROM LoanHistory h LEFT JOIN Book b ON b.id = h.bookId LEFT JOIN b.author a LEFT JOIN User u ON u.id = h.userId " +
+            "WHERE h.bookId = :bookId AND h.id < :beforeId ORDER BY h.id DESC")
+    List<LoanDTO> findByBookPageBefore(@Param("bookId") Long bookId, @Param("beforeId") Long beforeId,
+                                       Pageable pageable);
+
+    // idx_loan_history_user
+    @Query("SELECT new com.library.management.dto.LoanDTO(h.id, h.bookId, b.title, a.name, h.userId, u.name, h.loanDate, h.dueDate, h.returnDate) " +
+            "FROM LoanHistory h LEFT JOIN Book b ON b.id = h.bookId LEFT JOIN b.author a LEFT JOIN User u ON u.id = h.userId " +
+            "WHERE h.userId = :userId AND h.id < :beforeId ORDER BY h.id DESC")
+    List<LoanDTO> findByUserPageBefore(@Param("userId") Long userId, @Param("beforeId") Long beforeId,
+                                       Pageable pageable);
+}
@@ -0,0 +1,97 @@
+package com.library.management.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Escrituras por lote sobre la tabla loan para los préstamos y devoluciones de los autoservicios.
+@Repository
+public class LoanJdbcRepository {
+
+    private static final String INSERT_LOAN =
+            "INSERT INTO loan (book_id, user_id, loan_date, due_date) VALUES (?, ?, ?, ?)";
+    private static final String CLOSE_LOAN =
+            "UPDATE loan SET return_date = ? WHERE id = ? AND return_date IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCacheEvictor cacheEvictor;
+
+    public LoanJdbcRepository(JdbcTemplate jdbcTemplate, SecondLevelCacheEvictor cacheEvictor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheEvictor = cacheEvictor;
+    }
+
+    // Crea un préstamo por libro en un único batch; devuelve los ids generados en el mismo orden.
+    public List<Long> insertAll(Long userId, List<Long> bookIds, LocalDate loanDate, LocalDate dueDate) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_LOAN, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, bookIds.get(i));
+                        ps.setLong(2, userId);
+                        ps.setDate(3, Date.valueOf(loanDate));
+                        ps.setDate(4, Date.valueOf(dueDate));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookIds.size();
+                    }
+                },
+                keyHolder);
+
+        List<Long> ids = new ArrayList<>(bookIds.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        cacheEvictor.loansChanged(List.of());
+        return ids;
+    }
+
+    // Cierra un préstamo si sigue abierto; false si otra devolución lo cerró antes
+    public boolean close(Long loanId, LocalDate returnDate) {
+        cacheEvictor.loansChanged(List.of(loanId));
+        return jdbcTemplate.update(CLOSE_LOAN, Date.valueOf(returnDate), loanId) == 1;
+    }
+
+    // Cierra los préstamos que sigan abiertos (en orden de id, LockOrder); un recuento 0 indica que ya estaba devuelto.
+    public int[] closeAll(List<Long> loanIds, LocalDate returnDate) {
+        if (loanIds.isEmpty()) {
+            return new int[0];
+        }
+
+        Date date = Date.valueOf(returnDate);
+        List<Long> sorted = LockOrder.sortedDistinct(loanIds);
+        cacheEvictor.loansChanged(sorted);
+        int[] counts = jdbcTemplate.batchUpdate(CLOSE_LOAN, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setDate(1, date);
+                ps.setLong(2, sorted.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return sorted.size();
+            }
+        });
+        return LockOrder.toRequestOrder(loanIds, sorted, counts);
+    }
+}
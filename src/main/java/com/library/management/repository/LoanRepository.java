@@ -1,16 +1,90 @@
 package com.library.management.repository;
 
+import com.library.management.config.CacheConfig;
+import com.library.management.dto.LoanDTO;
 import com.library.management.model.Loan;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface LoanRepository extends JpaRepository<Loan, Long> {
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.LOAN_QUERY_REGION)
+    })
     @Query("SELECT l FROM Loan l WHERE l.returnDate IS NULL")
     List<Loan> findActiveLoans();
 
-    @Query("SELECT l.book, COUNT(l.book) AS borrowCount FROM Loan l GROUP BY l.book ORDER BY borrowCount DESC")
-    List<Object[]> findMostLoanedBooks();
+    // Préstamos activos como proyección: libro, autor y usuario en la misma sentencia, paginados por id
+    @Query("SELECT new com.library.management.dto.LoanDTO(l.id, b.id, b.title, a.name, u.id, u.name, l.loanDate, l.dueDate, l.returnDate) " +
+            "FROM Loan l JOIN l.book b LEFT JOIN b.author a LEFT JOIN l.user u " +
+            "WHERE l.returnDate IS NULL AND l.id > :afterId ORDER BY l.id")
+    List<LoanDTO> findActivePageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Préstamos activos de un usuario, paginados por id (idx_loan_user_return)
+    @Query("SELECT new com.library.management.dto.LoanDTO(l.id, b.id, b.title, a.name, u.id, u.name, l.loanDate, l.dueDate, l.returnDate) " +
+            "FROM Loan l JOIN l.book b LEFT JOIN b.author a JOIN l.user u " +
+            "WHERE l.user.id = :userId AND l.returnDate IS NULL AND l.id > :afterId ORDER BY l.id")
+    List<LoanDTO> findActiveByUserPageAfter(@Param("userId") Long userId, @Param("afterId") Long afterId,
+                                            Pageable pageable);
+
+    // Préstamos activos que vencen entre dos fechas, por (dueDate, id) a partir del último de la página
+    // anterior (idx_loan_return_due)
+    @Query("SELECT new com.library.management.dto.LoanDTO(l.id, b.id, b.title, a.name, u.id, u.name, l.loanDate, l.dueDate, l.returnDate) " +
+            "FROM Loan l JOIN l.book b LEFT JOIN b.author a LEFT JOIN l.user u " +
+            "WHERE l.returnDate IS NULL AND l.dueDate >= :from AND l.dueDate <= :to " +
+            "AND (l.dueDate > :afterDue OR (l.dueDate = :afterDue AND l.id > :afterId)) " +
+            "ORDER BY l.dueDate, l.id")
+    List<LoanDTO> findActiveDuePageAfter(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                         @Param("afterDue") LocalDate afterDue, @Param("afterId") Long afterId,
+                                         Pageable pageable);
+
+    // Historial de un libro, del préstamo más reciente al más antiguo (idx_loan_book_return)
+    @Query("SELECT new com.library.management.dto.LoanDTO(l.id, b.id, b.title, a.name, u.id, u.name, l.loanDate, l.dueDate, l.returnDate) " +
+            "FROM Loan l JOIN l.book b LEFT JOIN b.author a LEFT JOIN l.user u " +
+            "WHERE l.book.id = :bookId AND l.id < :beforeId ORDER BY l.id DESC")
+    List<LoanDTO> findByBookPageBefore(@Param("bookId") Long bookId, @Param("beforeId") Long beforeId,
+                                       Pageable pageable);
+
+    // Proyección [id, bookId, userId, dueDate, returnDate] para las devoluciones por lote: no carga las relaciones EAGER
+    @Query("SELECT l.id, l.book.id, l.user.id, l.dueDate, l.returnDate FROM Loan l WHERE l.id IN :ids")
+    List<Object[]> findReturnStateByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Proyección [id, userId, dueDate] de los préstamos activos vencidos antes de una fecha (idx_loan_return_due)
+    @Query("SELECT l.id, l.user.id, l.dueDate FROM Loan l WHERE l.returnDate IS NULL AND l.dueDate < :before")
+    List<Object[]> findActiveDueBefore(@Param("before") LocalDate before);
+
+    // Igual que la anterior, limitada a los préstamos que vencieron desde la última pasada
+    @Query("SELECT l.id, l.user.id, l.dueDate FROM Loan l " +
+            "WHERE l.returnDate IS NULL AND l.dueDate >= :from AND l.dueDate < :before")
+    List<Object[]> findActiveDueBetween(@Param("from") LocalDate from, @Param("before") LocalDate before);
+
+    @Query("SELECT MAX(l.id) FROM Loan l")
+    Long findMaxId();
+
+    // Préstamos por [bookId, genre, loanDate, count] desde una fecha; maxId acota la consulta para que
+    // PopularityTracker sepa qué eventos ya están incluidos (idx_loan_loan_date)
+    @Query("SELECT b.id, b.genre, l.loanDate, COUNT(l) FROM Loan l JOIN l.book b " +
+            "WHERE l.loanDate >= :from AND l.id <= :maxId GROUP BY b.id, b.genre, l.loanDate")
+    List<Object[]> countLoansByBookAndDaySince(@Param("from") LocalDate from, @Param("maxId") Long maxId);
+
+    // Historial de un usuario en la tabla loan, del más reciente al más antiguo (idx_loan_user_return)
+    @Query("SELECT new com.library.management.dto.LoanDTO(l.id, b.id, b.title, a.name, u.id, u.name, l.loanDate, l.dueDate, l.returnDate) " +
+            "FROM Loan l JOIN l.book b LEFT JOIN b.author a JOIN l.user u " +
+            "WHERE l.user.id = :userId AND l.id < :beforeId ORDER BY l.id DESC")
+    List<LoanDTO> findByUserPageBefore(@Param("userId") Long userId, @Param("beforeId") Long beforeId,
+                                       Pageable pageable);
+
+    long countByBook_Id(Long bookId);
+
+    long countByUser_Id(Long userId);
 }
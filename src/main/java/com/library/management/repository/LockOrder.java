@@ -0,0 +1,32 @@
+package com.library.management.repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Los UPDATE por lote se envían ordenados por id y sin repetidos: dos lotes que se solapan bloquean las
+// filas en el mismo orden y no pueden quedarse esperando el uno al otro (deadlock).
+final class LockOrder {
+
+    private LockOrder() {
+    }
+
+    static List<Long> sortedDistinct(List<Long> ids) {
+        return ids.stream().distinct().sorted().toList();
+    }
+
+    // Recuento de cada posición de la petición a partir del de cada id ordenado. Una repetición obtiene 0,
+    // como si su UPDATE condicional hubiera llegado después del primero.
+    static int[] toRequestOrder(List<Long> ids, List<Long> sorted, int[] counts) {
+        Map<Long, Integer> countById = new HashMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            countById.put(sorted.get(i), counts[i]);
+        }
+        int[] result = new int[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            Integer count = countById.remove(ids.get(i));
+            result[i] = count == null ? 0 : count;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,55 @@
+package com.library.management.repository;
+
+import com.library.management.config.CacheConfig;
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+// Las escrituras con JdbcTemplate no pasan por Hibernate, así que la cache de segundo nivel no se entera.
+// Se invalida a mano ahora y otra vez tras el commit: una lectura concurrente entre ambos momentos
+// podría haber vuelto a cachear el valor anterior.
+@Component
+public class SecondLevelCacheEvictor {
+
+    private final Cache cache;
+
+    public SecondLevelCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    public void booksChanged(Collection<Long> bookIds) {
+        List<Long> ids = List.copyOf(bookIds);
+        // Las consultas cacheadas de libros proyectan available: también quedan obsoletas
+        evictNowAndAfterCommit(() -> {
+            ids.forEach(id -> cache.evictEntityData(Book.class, id));
+            cache.evictQueryRegion(CacheConfig.BOOK_QUERY_REGION);
+        });
+    }
+
+    public void loansChanged(Collection<Long> loanIds) {
+        List<Long> ids = List.copyOf(loanIds);
+        evictNowAndAfterCommit(() -> {
+            ids.forEach(id -> cache.evictEntityData(Loan.class, id));
+            cache.evictQueryRegion(CacheConfig.LOAN_QUERY_REGION);
+        });
+    }
+
+    private void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.library.management.repository;
+
+import com.library.management.model.UserLoanCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UserLoanCountRepository extends JpaRepository<UserLoanCount, Long> {
+}
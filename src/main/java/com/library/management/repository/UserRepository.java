@@ -1,7 +1,12 @@
 package com.library.management.repository;
 
 import com.library.management.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -0,0 +1,199 @@
+package com.library.management.service;
+
+import com.library.management.dto.AuthorCacheStatsDTO;
+import com.library.management.dto.AuthorDTO;
+import com.library.management.event.AuthorChangedEvent;
+import com.library.management.model.Author;
+import com.library.management.repository.AuthorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Cache nombre -> autor delante de AuthorRepository.findByName. La creación de un autor nuevo
+// se serializa por nombre con locks repartidos en franjas, así dos peticiones concurrentes con el
+// mismo nombre nunca crean dos filas. No se hace dentro de computeIfAbsent: la consulta y el INSERT
+// quedarían dentro del synchronized interno de ConcurrentHashMap, que bloquea otras claves del mismo
+// bin y fija los hilos virtuales a su portador. Los locks solo evitan el INSERT duplicado dentro de esta
+// JVM; entre instancias, o frente a AuthorService, lo impide uk_author_name y se relee la fila ganadora.
+@Component
+public class AuthorCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorCache.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final AuthorRepository authorRepository;
+    private final TransactionTemplate newAuthorTransaction;
+    private final int maxSize;
+
+    private final ConcurrentHashMap<String, AuthorDTO> byName = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong creations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final ReentrantLock[] creationLocks = new ReentrantLock[LOCK_STRIPES];
+
+    public AuthorCache(AuthorRepository authorRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${library.author-cache.max-size:10000}") int maxSize) {
+        this.authorRepository = authorRepository;
+        // El alta va en su propia transacción: si choca con uk_author_name no deja marcada para deshacer la
+        // del llamador (saveBooksFromCsv) y la cache nunca guarda el id de un autor cuya inserción se deshizo
+        this.newAuthorTransaction = new TransactionTemplate(transactionManager);
+        this.newAuthorTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxSize = maxSize;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            creationLocks[i] = new ReentrantLock();
+        }
+    }
+
+    // Buscar o crear autor. Devuelve una instancia desacoplada (solo id y nombre) apta para asociarla a un libro.
+    public Author resolve(String name) {
+        AuthorDTO cached = byName.get(name);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return toAuthor(cached);
+        }
+
+        misses.incrementAndGet();
+        AuthorDTO resolved = findOrCreateLocked(name);
+        trimToSize();
+        return toAuthor(resolved);
+    }
+
+    // Versión por conjunto para las cargas: una sola consulta para todos los nombres que no están en cache.
+    public Map<String, Author> resolveAll(Collection<String> names) {
+        Map<String, Author> result = new HashMap<>();
+        List<String> pending = new ArrayList<>();
+        for (String name : names) {
+            AuthorDTO cached = byName.get(name);
+            if (cached != null) {
+                hits.incrementAndGet();
+                result.put(name, toAuthor(cached));
+            } else {
+                pending.add(name);
+            }
+        }
+        if (pending.isEmpty()) {
+            return result;
+        }
+
+        misses.addAndGet(pending.size());
+        for (Author author : authorRepository.findByNameIn(pending)) {
+            AuthorDTO entry = byName.computeIfAbsent(author.getName(), name -> toEntry(author));
+            result.put(author.getName(), toAuthor(entry));
+        }
+        for (String name : pending) {
+            if (!result.containsKey(name)) {
+                result.put(name, toAuthor(findOrCreateLocked(name)));
+            }
+        }
+        trimToSize();
+        return result;
+    }
+
+    // Después del commit: si se descartara antes, una resolución concurrente podría volver a cachear el
+    // nombre anterior, que sigue siendo el confirmado hasta entonces
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        evict(event.authorId());
+    }
+
+    public void evict(Long authorId) {
+        if (authorId != null && byName.values().removeIf(entry -> authorId.equals(entry.id()))) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    public void clear() {
+        byName.clear();
+    }
+
+    public AuthorCacheStatsDTO stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+        return new AuthorCacheStatsDTO(
+                byName.size(),
+                maxSize,
+                hitCount,
+                missCount,
+                total == 0 ? 0.0 : (double) hitCount / total,
+                creations.get(),
+                evictions.get()
+        );
+    }
+
+    private AuthorDTO findOrCreateLocked(String name) {
+        ReentrantLock creationLock = creationLocks[Math.floorMod(name.hashCode(), LOCK_STRIPES)];
+        creationLock.lock();
+        try {
+            AuthorDTO cached = byName.get(name);
+            if (cached != null) {
+                return cached;
+            }
+            AuthorDTO resolved = findOrCreate(name);
+            byName.put(name, resolved);
+            return resolved;
+        } finally {
+            creationLock.unlock();
+        }
+    }
+
+    private AuthorDTO findOrCreate(String name) {
+        Optional<Author> existing = authorRepository.findByName(name);
+        if (existing.isPresent()) {
+            return toEntry(existing.get());
+        }
+
+        logger.info("Creando nuevo autor: {}", name);
+        try {
+            Author created = newAuthorTransaction.execute(status -> {
+                Author newAuthor = new Author();
+                newAuthor.setName(name);
+                return authorRepository.save(newAuthor);
+            });
+            creations.incrementAndGet();
+            return toEntry(created);
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia o transacción creó el mismo autor entre la consulta y el INSERT
+            logger.info("El autor {} ya se creó en otra transacción, se usa el existente", name);
+            return toEntry(authorRepository.findByName(name).orElseThrow(() -> e));
+        }
+    }
+
+    // Si se supera el máximo se descartan entradas arbitrarias; un fallo posterior solo cuesta una consulta.
+    private void trimToSize() {
+        Iterator<String> names = byName.keySet().iterator();
+        while (byName.size() > maxSize && names.hasNext()) {
+            names.next();
+            names.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static AuthorDTO toEntry(Author author) {
+        return new AuthorDTO(author.getId(), author.getName());
+    }
+
+    private static Author toAuthor(AuthorDTO entry) {
+        return new Author(entry.id(), entry.name(), null);
+    }
+}
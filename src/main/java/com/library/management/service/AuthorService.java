@@ -1,9 +1,17 @@
 package com.library.management.service;
 
+import com.library.management.dto.AuthorCacheStatsDTO;
+import com.library.management.dto.PageResponse;
+import com.library.management.event.AuthorChangedEvent;
+import com.library.management.event.BookChangedEvent;
 import com.library.management.model.Author;
 import com.library.management.repository.AuthorRepository;
+import com.library.management.repository.BookNaturalKeys;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,24 +20,61 @@ import java.util.Optional;
 public class AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final AuthorCache authorCache;
+    private final Pagination pagination;
+    private final BookNaturalKeys bookNaturalKeys;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AuthorService(AuthorRepository authorRepository) {
+    public AuthorService(AuthorRepository authorRepository, AuthorCache authorCache, Pagination pagination,
+                         BookNaturalKeys bookNaturalKeys, ApplicationEventPublisher eventPublisher) {
         this.authorRepository = authorRepository;
+        this.authorCache = authorCache;
+        this.pagination = pagination;
+        this.bookNaturalKeys = bookNaturalKeys;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Author> findAll() {
         return authorRepository.findAll();
     }
 
+    public PageResponse<Author> findPage(String cursor, Integer size) {
+        int pageSize = pagination.resolveSize(size);
+        List<Author> authors = authorRepository.findByIdGreaterThanOrderByIdAsc(
+                pagination.afterId(cursor), PageRequest.ofSize(pageSize + 1));
+        return Pagination.page(authors, pageSize, author -> Pagination.idCursor(author.getId()));
+    }
+
     public Optional<Author> findById(Long id) {
         return authorRepository.findById(id);
     }
 
+    // El cambio de nombre y el de las claves naturales de sus libros se confirman juntos: si el nombre
+    // nuevo choca con un libro de otro autor, el índice único lo rechaza y no cambia nada
+    @Transactional
     public Author save(Author author) {
-        return authorRepository.save(author);
+        // save asigna el id al autor nuevo: hay que mirarlo antes
+        boolean isNew = author.getId() == null;
+        Author saved = authorRepository.save(author);
+        if (!isNew) {
+            // Los índices de búsqueda y disponibilidad (y el diario) guardan el nombre del autor de cada libro.
+            // Sin available: el cambio de nombre no la toca y cada listener conserva la suya
+            for (BookNaturalKeys.RekeyedBook book : bookNaturalKeys.refreshAuthor(saved.getId(), saved.getName())) {
+                eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED, book.id(),
+                        book.title(), saved.getName(), book.genre(), null));
+            }
+        }
+        // Tras el commit CatalogueVersion sube la versión y AuthorCache descarta el nombre anterior
+        eventPublisher.publishEvent(new AuthorChangedEvent(saved.getId()));
+        return saved;
     }
 
     public void deleteById(Long id) {
         authorRepository.deleteById(id);
+        eventPublisher.publishEvent(new AuthorChangedEvent(id));
+    }
+
+    public AuthorCacheStatsDTO cacheStats() {
+        return authorCache.stats();
     }
 }
@@ -0,0 +1,347 @@
+package com.library.management.service;
+
+import com.library.management.dto.AvailableBookDTO;
+import com.library.management.dto.GenreAvailabilityDTO;
+import com.library.management.dto.TitleAvailabilityDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.LoanEvent;
+import com.library.management.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Contadores de disponibilidad por género y por título+autor, mantenidos en memoria a partir de los
+// eventos de libros y préstamos. Responde a "cuántos ejemplares quedan" sin consultar la base de datos.
+@Component
+public class AvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityIndex.class);
+
+    private final BookRepository bookRepository;
+
+    private final Map<Long, Entry> books = new HashMap<>();
+    private final Map<String, Counts> byTitle = new HashMap<>();
+    private final Map<String, Counts> byGenre = new HashMap<>();
+    // género -> ids de libros disponibles, ordenados para paginar por id
+    private final Map<String, NavigableSet<Long>> availableByGenre = new HashMap<>();
+    // Cambios recibidos mientras rebuild() consulta la base de datos; se vuelven a aplicar sobre el resultado
+    private final List<Runnable> pendingDuringRebuild = new ArrayList<>();
+    private boolean rebuilding;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock initLock = new ReentrantLock();
+    private volatile boolean ready;
+
+    public AvailabilityIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    private record Entry(Long id, String title, String authorName, String genre, boolean available) {
+
+        Entry withAvailable(boolean value) {
+            return new Entry(id, title, authorName, genre, value);
+        }
+
+        String titleKey() {
+            return key(title) + '\u0000' + key(authorName);
+        }
+
+        String genreKey() {
+            return key(genre);
+        }
+    }
+
+    // Totales de un título o un género; el nombre que se muestra es el del primer libro visto
+    private static final class Counts {
+        private final String label;
+        private final String authorName;
+        private int total;
+        private int available;
+
+        private Counts(String label, String authorName) {
+            this.label = label;
+            this.authorName = authorName;
+        }
+    }
+
+    // El índice puede estar ya sirviendo (restaurado de la instantánea): los eventos que llegan entre la
+    // consulta y el cambio de mapas se guardan y se aplican después, si no se perderían con los mapas viejos.
+    // Volver a aplicar uno que la consulta ya reflejaba no cambia nada: cada evento fija el estado del libro.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        initLock.lock();
+        try {
+            rebuildOnce();
+        } finally {
+            initLock.unlock();
+        }
+    }
+
+    private void rebuildOnce() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            pendingDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Entry> entries = null;
+        try {
+            entries = bookRepository.findAllForAvailabilityIndex().stream()
+                    .map(row -> new Entry((Long) row[0], (String) row[1], (String) row[2], (String) row[3], (Boolean) row[4]))
+                    .toList();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (entries != null) {
+                    replace(entries);
+                    pendingDuringRebuild.forEach(Runnable::run);
+                }
+                pendingDuringRebuild.clear();
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Índice de disponibilidad construido con {} libros, {} títulos y {} géneros en {} ms",
+                entries.size(), byTitle.size(), byGenre.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Carga desde la instantánea de arranque (ReadModelSnapshot); rebuild() la sustituye después
+    void restore(Collection<ReadModelSnapshot.BookRow> rows) {
+        List<Entry> entries = rows.stream()
+                .map(row -> new Entry(row.id(), row.title(), row.authorName(), row.genre(), row.available()))
+                .toList();
+        lock.writeLock().lock();
+        try {
+            replace(entries);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<ReadModelSnapshot.BookRow> snapshot() {
+        lock.readLock().lock();
+        try {
+            List<ReadModelSnapshot.BookRow> rows = new ArrayList<>(books.size());
+            books.values().forEach(entry -> rows.add(new ReadModelSnapshot.BookRow(
+                    entry.id(), entry.title(), entry.authorName(), entry.genre(), entry.available())));
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void replace(List<Entry> entries) {
+        books.clear();
+        byTitle.clear();
+        byGenre.clear();
+        availableByGenre.clear();
+        entries.forEach(this::add);
+        ready = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        applyChange(() -> {
+            Entry previous = remove(event.bookId());
+            if (event.type() != BookChangedEvent.Type.DELETED) {
+                boolean available = event.available() != null
+                        ? event.available()
+                        : previous != null && previous.available();
+                add(new Entry(event.bookId(), event.title(), event.authorName(), event.genre(), available));
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoan(LoanEvent event) {
+        applyChange(() -> {
+            Entry entry = remove(event.bookId());
+            if (entry != null) {
+                add(entry.withAvailable(event.type() == LoanEvent.Type.RETURNED));
+            }
+        });
+    }
+
+    private void applyChange(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                pendingDuringRebuild.add(change);
+            }
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public TitleAvailabilityDTO countByTitle(String title, String authorName) {
+        ensureReady();
+        lock.readLock().lock();
+        try {
+            Counts counts = byTitle.get(key(title) + '\u0000' + key(authorName));
+            if (counts == null) {
+                return new TitleAvailabilityDTO(title, authorName, 0, 0);
+            }
+            return new TitleAvailabilityDTO(counts.label, counts.authorName, counts.total, counts.available);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public GenreAvailabilityDTO countByGenre(String genre) {
+        ensureReady();
+        lock.readLock().lock();
+        try {
+            Counts counts = byGenre.get(key(genre));
+            return counts == null
+                    ? new GenreAvailabilityDTO(genre, 0, 0)
+                    : new GenreAvailabilityDTO(counts.label, counts.total, counts.available);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<GenreAvailabilityDTO> countAllGenres() {
+        ensureReady();
+        lock.readLock().lock();
+        try {
+            List<GenreAvailabilityDTO> genres = new ArrayList<>(byGenre.size());
+            byGenre.values().forEach(counts ->
+                    genres.add(new GenreAvailabilityDTO(counts.label, counts.total, counts.available)));
+            genres.sort(Comparator.comparing(GenreAvailabilityDTO::genre, Comparator.nullsFirst(Comparator.naturalOrder())));
+            return genres;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Hasta limit libros disponibles del género con id mayor que afterId, en orden de id
+    public List<AvailableBookDTO> findAvailable(String genre, long afterId, int limit) {
+        ensureReady();
+        lock.readLock().lock();
+        try {
+            NavigableSet<Long> ids = availableByGenre.get(key(genre));
+            if (ids == null) {
+                return List.of();
+            }
+            List<AvailableBookDTO> page = new ArrayList<>(Math.min(limit, ids.size()));
+            for (Long id : ids.tailSet(afterId, false)) {
+                if (page.size() >= limit) {
+                    break;
+                }
+                Entry entry = books.get(id);
+                page.add(new AvailableBookDTO(entry.id(), entry.title(), entry.authorName(), entry.genre()));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Título, autor y género de un libro del catálogo, o null si no existe
+    public AvailableBookDTO summaryOf(Long bookId) {
+        ensureReady();
+        lock.readLock().lock();
+        try {
+            Entry entry = books.get(bookId);
+            return entry == null ? null : new AvailableBookDTO(entry.id(), entry.title(), entry.authorName(), entry.genre());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Si se consulta antes de ApplicationReadyEvent se construye en ese momento. Con un Lock y no con
+    // synchronized: rebuild() consulta la base de datos y un hilo virtual no debe quedar fijado a su portador.
+    private void ensureReady() {
+        if (!ready) {
+            initLock.lock();
+            try {
+                if (!ready) {
+                    rebuildOnce();
+                }
+            } finally {
+                initLock.unlock();
+            }
+        }
+    }
+
+    static String key(String value) {
+        return String.join(" ", BookSearchIndex.tokenize(value));
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void add(Entry entry) {
+        books.put(entry.id(), entry);
+        int available = entry.available() ? 1 : 0;
+
+        Counts title = byTitle.computeIfAbsent(entry.titleKey(), k -> new Counts(entry.title(), entry.authorName()));
+        title.total++;
+        title.available += available;
+
+        Counts genre = byGenre.computeIfAbsent(entry.genreKey(), k -> new Counts(entry.genre(), null));
+        genre.total++;
+        genre.available += available;
+
+        if (entry.available()) {
+            availableByGenre.computeIfAbsent(entry.genreKey(), k -> new TreeSet<>()).add(entry.id());
+        }
+    }
+
+    // Debe llamarse con el write lock tomado
+    private Entry remove(Long bookId) {
+        Entry entry = books.remove(bookId);
+        if (entry == null) {
+            return null;
+        }
+        int available = entry.available() ? 1 : 0;
+        decrement(byTitle, entry.titleKey(), available);
+        decrement(byGenre, entry.genreKey(), available);
+
+        if (entry.available()) {
+            NavigableSet<Long> ids = availableByGenre.get(entry.genreKey());
+            if (ids != null) {
+                ids.remove(bookId);
+                if (ids.isEmpty()) {
+                    availableByGenre.remove(entry.genreKey());
+                }
+            }
+        }
+        return entry;
+    }
+
+    private static void decrement(Map<String, Counts> countsByKey, String key, int available) {
+        Counts counts = countsByKey.get(key);
+        if (counts == null) {
+            return;
+        }
+        counts.total--;
+        counts.available -= available;
+        if (counts.total <= 0) {
+            countsByKey.remove(key);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.AvailabilityChangeDTO;
+import com.library.management.dto.AvailableBookDTO;
+import com.library.management.dto.JournalEntryDTO;
+import com.library.management.dto.JournalPageDTO;
+import com.library.management.journal.ChangeJournal;
+import com.library.management.metrics.LibraryMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Cambios de disponibilidad en vivo por Server-Sent Events. Un único hilo sigue el diario de cambios
+// (ChangeJournal), convierte cada entrada a JSON una sola vez y la deja en el buffer de cada cliente; ni las
+// escrituras del catálogo ni el despachador esperan nunca a un cliente. Cada buffer admite
+// library.stream.buffer-size mensajes: si un cliente no lee a tiempo se descartan los más antiguos y se le
+// envía un evento "dropped" para que vuelva a consultar la disponibilidad. Los buffers se vacían en
+// availabilityStreamExecutor, con como mucho una tarea por cliente.
+@Component
+public class AvailabilityStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityStream.class);
+
+    private static final int DISPATCH_BATCH = 500;
+    private static final Message HEARTBEAT = new Message(0, null);
+
+    private final ChangeJournal changeJournal;
+    private final AvailabilityIndex availabilityIndex;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor availabilityStreamExecutor;
+    private final LibraryMetrics libraryMetrics;
+    private final int maxClients;
+    private final int bufferSize;
+    private final Duration pollInterval;
+    private final Duration heartbeatInterval;
+    private final Duration timeout;
+
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    // Solo los usa el hilo despachador
+    private long nextSequence;
+    private long lastHeartbeat = System.nanoTime();
+    private ScheduledExecutorService dispatcher;
+
+    public AvailabilityStream(ChangeJournal changeJournal,
+                              AvailabilityIndex availabilityIndex,
+                              ObjectMapper objectMapper,
+                              TaskExecutor availabilityStreamExecutor,
+                              LibraryMetrics libraryMetrics,
+                              @Value("${library.stream.max-clients:1000}") int maxClients,
+                              @Value("${library.stream.buffer-size:256}") int bufferSize,
+                              @Value("${library.stream.poll-interval:PT0.2S}") Duration pollInterval,
+                              @Value("${library.stream.heartbeat-interval:PT30S}") Duration heartbeatInterval,
+                              @Value("${library.stream.timeout:PT30M}") Duration timeout) {
+        this.changeJournal = changeJournal;
+        this.availabilityIndex = availabilityIndex;
+        this.objectMapper = objectMapper;
+        this.availabilityStreamExecutor = availabilityStreamExecutor;
+        this.libraryMetrics = libraryMetrics;
+        this.maxClients = maxClients;
+        this.bufferSize = bufferSize;
+        this.pollInterval = pollInterval;
+        this.heartbeatInterval = heartbeatInterval;
+        this.timeout = timeout;
+        this.nextSequence = changeJournal.lastSequence() + 1;
+        libraryMetrics.streamClients(subscribers);
+    }
+
+    private record Message(long sequence, String json) {
+    }
+
+    // Hilo propio y no @Scheduled: el planificador compartido puede estar ocupado minutos con el archivado o las multas
+    @PostConstruct
+    public void start() {
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatchSafely, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+        subscribers.values().forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    // Vacío si se alcanzó library.stream.max-clients. Con lastEventId se reenvía lo publicado desde entonces.
+    public Optional<SseEmitter> subscribe(Long lastEventId) {
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), newEmitter(timeout.toMillis()));
+        subscribers.put(subscriber.id, subscriber);
+        if (subscribers.size() > maxClients) {
+            subscribers.remove(subscriber.id);
+            return Optional.empty();
+        }
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(subscriber));
+        subscriber.emitter.onError(error -> unsubscribe(subscriber));
+
+        // Ya registrado: lo que el despachador lea a partir de ahora le llega en vivo, y lo anterior está en
+        // el diario. Los repetidos se descartan por secuencia.
+        if (lastEventId != null) {
+            backfill(subscriber, lastEventId + 1);
+        }
+        subscriber.offer(HEARTBEAT);
+        subscriber.scheduleDrain();
+        return Optional.of(subscriber.emitter);
+    }
+
+    public int getClients() {
+        return subscribers.size();
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void dispatchSafely() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            logger.warn("Error al distribuir cambios de disponibilidad", e);
+        }
+    }
+
+    void dispatch() {
+        if (subscribers.isEmpty()) {
+            nextSequence = changeJournal.lastSequence() + 1;
+            return;
+        }
+        boolean sent = false;
+        JournalPageDTO page;
+        do {
+            page = changeJournal.read(nextSequence, DISPATCH_BATCH);
+            for (JournalEntryDTO entry : page.entries()) {
+                Message message = render(entry);
+                subscribers.values().forEach(subscriber -> subscriber.offer(message));
+            }
+            nextSequence = page.nextSequence();
+            sent |= !page.entries().isEmpty();
+        } while (page.entries().size() == DISPATCH_BATCH);
+
+        if (System.nanoTime() - lastHeartbeat >= heartbeatInterval.toNanos()) {
+            lastHeartbeat = System.nanoTime();
+            subscribers.values().forEach(subscriber -> subscriber.offer(HEARTBEAT));
+            sent = true;
+        }
+        if (sent) {
+            subscribers.values().forEach(Subscriber::scheduleDrain);
+        }
+    }
+
+    // Como mucho bufferSize entradas: si el cliente se quedó más atrás recibe las últimas y un aviso "dropped"
+    private void backfill(Subscriber subscriber, long from) {
+        JournalPageDTO head = changeJournal.read(from, 1);
+        long start = Math.max(from, head.firstSequence());
+        long lost = start - from;
+        if (head.lastSequence() - start + 1 > bufferSize) {
+            lost += head.lastSequence() - bufferSize + 1 - start;
+            start = head.lastSequence() - bufferSize + 1;
+        }
+        List<Message> messages = new ArrayList<>();
+        changeJournal.read(start, bufferSize).entries().forEach(entry -> messages.add(render(entry)));
+        subscriber.backfill(messages, Math.max(lost, 0));
+    }
+
+    private Message render(JournalEntryDTO entry) {
+        AvailabilityChangeDTO change = switch (entry.type()) {
+            case BORROWED, RETURNED -> {
+                AvailableBookDTO book = availabilityIndex.summaryOf(entry.bookId());
+                yield new AvailabilityChangeDTO(entry.sequence(), entry.recordedAt(), entry.type(), entry.bookId(),
+                        book != null ? book.title() : null, book != null ? book.authorName() : null,
+                        book != null ? book.genre() : null, entry.type() == JournalEntryDTO.Type.RETURNED);
+            }
+            case BOOK_CREATED, BOOK_UPDATED, BOOK_DELETED -> new AvailabilityChangeDTO(entry.sequence(),
+                    entry.recordedAt(), entry.type(), entry.bookId(), entry.title(), entry.authorName(), entry.genre(),
+                    entry.type() == JournalEntryDTO.Type.BOOK_DELETED ? Boolean.FALSE : entry.available());
+        };
+        try {
+            return new Message(entry.sequence(), objectMapper.writeValueAsString(change));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el cambio " + entry.sequence(), e);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber.id);
+    }
+
+    private final class Subscriber {
+        private final long id;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Message> buffer = new ArrayDeque<>();
+        private final Lock lock = new ReentrantLock();
+        // Protegidos por lock
+        private long lastSequence;
+        private long dropped;
+        private boolean draining;
+        private volatile boolean closed;
+
+        private Subscriber(long id, SseEmitter emitter) {
+            this.id = id;
+            this.emitter = emitter;
+        }
+
+        private void offer(Message message) {
+            lock.lock();
+            try {
+                if (message.sequence() > 0) {
+                    if (message.sequence() <= lastSequence) {
+                        return;
+                    }
+                    lastSequence = message.sequence();
+                }
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    dropped++;
+                }
+                buffer.addLast(message);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // El histórico va delante de lo que ya hubiera llegado en vivo, ordenado por secuencia y sin repetidos
+        private void backfill(List<Message> messages, long lost) {
+            lock.lock();
+            try {
+                TreeMap<Long, Message> merged = new TreeMap<>();
+                messages.forEach(message -> merged.put(message.sequence(), message));
+                buffer.stream().filter(message -> message.sequence() > 0)
+                        .forEach(message -> merged.put(message.sequence(), message));
+                buffer.clear();
+                dropped += lost;
+                while (merged.size() > bufferSize) {
+                    merged.pollFirstEntry();
+                    dropped++;
+                }
+                buffer.addAll(merged.values());
+                if (!merged.isEmpty()) {
+                    lastSequence = Math.max(lastSequence, merged.lastKey());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void scheduleDrain() {
+            lock.lock();
+            try {
+                if (draining || closed || (buffer.isEmpty() && dropped == 0)) {
+                    return;
+                }
+                draining = true;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                availabilityStreamExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                unsubscribe(this);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<Message> batch;
+                long lost;
+                lock.lock();
+                try {
+                    if (closed || (buffer.isEmpty() && dropped == 0)) {
+                        draining = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(buffer);
+                    buffer.clear();
+                    lost = dropped;
+                    dropped = 0;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    if (lost > 0) {
+                        libraryMetrics.streamDropped(lost);
+                        emitter.send(SseEmitter.event().name("dropped").data("{\"dropped\":" + lost + "}"));
+                    }
+                    for (Message message : batch) {
+                        emitter.send(message == HEARTBEAT
+                                ? SseEmitter.event().comment("")
+                                : SseEmitter.event().id(Long.toString(message.sequence())).name("availability")
+                                .data(message.json()));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Cliente desconectado: Spring completa el emitter y onError/onCompletion lo da de baja
+                    unsubscribe(this);
+                    lock.lock();
+                    try {
+                        draining = false;
+                    } finally {
+                        lock.unlock();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
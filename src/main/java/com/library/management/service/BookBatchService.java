@@ -0,0 +1,245 @@
+package com.library.management.service;
+
+import com.library.management.dto.BookBatchItemDTO;
+import com.library.management.dto.BookBatchOperationDTO;
+import com.library.management.dto.BookBatchResultDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.repository.BookNaturalKeys;
+import com.library.management.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Altas, modificaciones y bajas de libros por lote. Las comprobaciones se hacen por conjunto (una consulta
+// para los libros afectados, otra para los que tienen préstamos y otra para las claves título+autor),
+// las operaciones se aplican en el orden de la petición y los INSERT/UPDATE/DELETE salen agrupados en
+// JDBC batches. Si otra escritura concurrente ocupa un título+autor entre la comprobación y el commit,
+// el lote se vuelve a evaluar entero (hasta MAX_ATTEMPTS veces) en lugar de fallar con un único 409.
+@Service
+public class BookBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookBatchService.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final BookRepository bookRepository;
+    private final BookNaturalKeys bookNaturalKeys;
+    private final AuthorCache authorCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BookBatchService(BookRepository bookRepository,
+                            BookNaturalKeys bookNaturalKeys,
+                            AuthorCache authorCache,
+                            TransactionTemplate transactionTemplate,
+                            ApplicationEventPublisher eventPublisher) {
+        this.bookRepository = bookRepository;
+        this.bookNaturalKeys = bookNaturalKeys;
+        this.authorCache = authorCache;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public BookBatchResultDTO apply(List<BookBatchOperationDTO> operations) {
+        long start = System.nanoTime();
+        BookBatchItemDTO[] items = new BookBatchItemDTO[operations.size()];
+        List<Integer> pending = new ArrayList<>();
+        Set<Long> seenIds = new HashSet<>();
+        Set<String> authorNames = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BookBatchOperationDTO operation = operations.get(i);
+            if (!isValid(operation)) {
+                items[i] = item(i, operation, operation.id(), BookBatchItemDTO.Status.INVALID);
+            } else if (operation.action() != BookBatchOperationDTO.Action.CREATE && !seenIds.add(operation.id())) {
+                items[i] = item(i, operation, operation.id(), BookBatchItemDTO.Status.DUPLICATE);
+            } else {
+                pending.add(i);
+                if (operation.action() != BookBatchOperationDTO.Action.DELETE) {
+                    authorNames.add(operation.authorName().strip());
+                }
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            // Los autores se resuelven fuera de la transacción, como en la carga CSV: la cache de autores
+            // nunca guarda el id de un autor cuya inserción se deshizo.
+            Map<String, Author> authors = authorCache.resolveAll(authorNames);
+            applyWithRetry(operations, pending, authors, items);
+        }
+
+        BookBatchResultDTO result = BookBatchResultDTO.of(List.of(items));
+        logger.info("Lote de libros: {} operaciones, {} aplicadas en {} ms",
+                result.requested(), result.succeeded(), (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    // Cada intento vuelve a leer libros y claves y rellena de nuevo todas las posiciones pendientes
+    private void applyWithRetry(List<BookBatchOperationDTO> operations, List<Integer> pending,
+                                Map<String, Author> authors, BookBatchItemDTO[] items) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyPending(operations, pending, authors, items));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                logger.warn("Lote de {} operaciones en conflicto con otra escritura concurrente (intento {}), reintentando",
+                        pending.size(), attempt);
+            }
+        }
+    }
+
+    private void applyPending(List<BookBatchOperationDTO> operations, List<Integer> pending,
+                              Map<String, Author> authors, BookBatchItemDTO[] items) {
+        Set<Long> ids = new HashSet<>();
+        Set<Long> deleteIds = new HashSet<>();
+        Set<String> keys = new HashSet<>();
+        for (int i : pending) {
+            BookBatchOperationDTO operation = operations.get(i);
+            if (operation.action() != BookBatchOperationDTO.Action.CREATE) {
+                ids.add(operation.id());
+            }
+            if (operation.action() == BookBatchOperationDTO.Action.DELETE) {
+                deleteIds.add(operation.id());
+            } else {
+                keys.add(Book.naturalKey(operation.title(), operation.authorName()));
+            }
+        }
+
+        Map<Long, Book> books = new HashMap<>();
+        if (!ids.isEmpty()) {
+            bookRepository.findWithAuthorByIdIn(ids).forEach(book -> books.put(book.getId(), book));
+        }
+        Set<Long> withLoans = deleteIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(bookRepository.findIdsWithLoans(deleteIds));
+        // clave natural (título+autor) -> libro que la tiene; null para las altas de este mismo lote
+        Map<String, Long> owners = new HashMap<>();
+        if (!keys.isEmpty()) {
+            for (Object[] row : bookRepository.findIdAndNaturalKeyByNaturalKeyIn(keys)) {
+                owners.put((String) row[1], (Long) row[0]);
+            }
+        }
+
+        List<Book> created = new ArrayList<>();
+        List<Integer> createdPositions = new ArrayList<>();
+        List<Book> updated = new ArrayList<>();
+        List<BookBatchOperationDTO> updates = new ArrayList<>();
+        List<Book> deleted = new ArrayList<>();
+        for (int i : pending) {
+            BookBatchOperationDTO operation = operations.get(i);
+            switch (operation.action()) {
+                case CREATE -> {
+                    String key = Book.naturalKey(operation.title(), operation.authorName());
+                    if (owners.containsKey(key)) {
+                        items[i] = item(i, operation, owners.get(key), BookBatchItemDTO.Status.ALREADY_EXISTS);
+                    } else {
+                        owners.put(key, null);
+                        created.add(Book.builder()
+                                .title(operation.title().strip())
+                                .author(authors.get(operation.authorName().strip()))
+                                .genre(strip(operation.genre()))
+                                .available(true)
+                                .build());
+                        createdPositions.add(i);
+                    }
+                }
+                case UPDATE -> {
+                    Book book = books.get(operation.id());
+                    String key = Book.naturalKey(operation.title(), operation.authorName());
+                    if (book == null) {
+                        items[i] = item(i, operation, operation.id(), BookBatchItemDTO.Status.NOT_FOUND);
+                    } else if (owners.containsKey(key) && !book.getId().equals(owners.get(key))) {
+                        items[i] = item(i, operation, book.getId(), BookBatchItemDTO.Status.ALREADY_EXISTS);
+                    } else {
+                        owners.remove(Book.naturalKey(book.getTitle(), book.getAuthor().getName()), book.getId());
+                        owners.put(key, book.getId());
+                        updated.add(book);
+                        updates.add(operation);
+                        items[i] = item(i, operation, book.getId(), BookBatchItemDTO.Status.UPDATED);
+                    }
+                }
+                case DELETE -> {
+                    Book book = books.get(operation.id());
+                    if (book == null) {
+                        items[i] = item(i, operation, operation.id(), BookBatchItemDTO.Status.NOT_FOUND);
+                    } else if (withLoans.contains(book.getId())) {
+                        items[i] = item(i, operation, book.getId(), BookBatchItemDTO.Status.HAS_LOANS);
+                    } else {
+                        owners.remove(Book.naturalKey(book.getTitle(), book.getAuthor().getName()), book.getId());
+                        deleted.add(book);
+                        items[i] = item(i, operation, book.getId(), BookBatchItemDTO.Status.DELETED);
+                    }
+                }
+            }
+        }
+
+        // Hibernate envía los INSERT antes que los UPDATE y estos antes que los DELETE, pero una operación puede
+        // liberar el título+autor que usa otra del mismo lote. Se escribe por fases: primero los borrados; después
+        // se quita la clave a los libros que la cambian (NULL no choca con el índice único), así da igual el orden
+        // de sus UPDATE; y por último las altas.
+        if (!deleted.isEmpty()) {
+            bookRepository.deleteAll(deleted);
+            bookRepository.flush();
+        }
+        List<Long> rekeyed = new ArrayList<>();
+        for (int i = 0; i < updated.size(); i++) {
+            Book book = updated.get(i);
+            BookBatchOperationDTO operation = updates.get(i);
+            if (!Book.naturalKey(book.getTitle(), book.getAuthor().getName())
+                    .equals(Book.naturalKey(operation.title(), operation.authorName()))) {
+                rekeyed.add(book.getId());
+            }
+            book.setTitle(operation.title().strip());
+            book.setAuthor(authors.get(operation.authorName().strip()));
+            book.setGenre(strip(operation.genre()));
+        }
+        bookNaturalKeys.clear(rekeyed);
+        bookRepository.flush();
+        bookRepository.saveAll(created);
+        bookRepository.flush();
+        for (int i = 0; i < created.size(); i++) {
+            Book book = created.get(i);
+            int position = createdPositions.get(i);
+            items[position] = item(position, operations.get(position), book.getId(), BookBatchItemDTO.Status.CREATED);
+        }
+
+        created.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.created(book)));
+        updated.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.updated(book)));
+        deleted.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.deleted(book)));
+    }
+
+    private static boolean isValid(BookBatchOperationDTO operation) {
+        return switch (operation.action()) {
+            case CREATE -> hasText(operation.title()) && hasText(operation.authorName());
+            case UPDATE -> operation.id() != null && hasText(operation.title()) && hasText(operation.authorName());
+            case DELETE -> operation.id() != null;
+        };
+    }
+
+    private static BookBatchItemDTO item(int index, BookBatchOperationDTO operation, Long bookId,
+                                         BookBatchItemDTO.Status status) {
+        return new BookBatchItemDTO(index, operation.action(), bookId, status);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static String strip(String value) {
+        return value == null ? null : value.strip();
+    }
+}
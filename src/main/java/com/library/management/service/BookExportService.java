@@ -0,0 +1,109 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.BookExportDTO;
+import com.library.management.repository.BookRepository;
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Exportación del catálogo completo escribiendo directamente en la respuesta. Las filas llegan
+// de un cursor de base de datos y se escriben una a una, así la memoria no depende del catálogo.
+// La exportación incremental (updatedSince) solo trae altas y modificaciones: los libros borrados no
+// aparecen, así que el consumidor debe hacer una exportación completa periódica para detectar las bajas.
+@Service
+public class BookExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookExportService.class);
+
+    // Mismo orden de columnas que la carga CSV, así un export se puede volver a importar
+    private static final String[] CSV_HEADER = {"titulo", "autor", "genero", "disponible", "id", "autor_id", "actualizado"};
+
+    private final BookRepository bookRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration watermarkLag;
+
+    public BookExportService(BookRepository bookRepository, ObjectMapper objectMapper,
+                             @Value("${library.export.watermark-lag:PT5M}") Duration watermarkLag) {
+        this.bookRepository = bookRepository;
+        this.objectMapper = objectMapper;
+        this.watermarkLag = watermarkLag;
+    }
+
+    // Marca de agua para la siguiente exportación incremental, tomada de los datos y no del reloj: el
+    // updated_at más reciente menos watermark-lag. updated_at se fija antes del commit, así que una transacción
+    // que aún no ha confirmado puede tener un valor anterior al máximo visible; el margen la vuelve a incluir
+    // en la siguiente pasada siempre que no dure más que él. Los libros del margen se envían dos veces.
+    public Instant watermark(Instant updatedSince) {
+        Instant latest = bookRepository.findMaxUpdatedAt();
+        if (latest == null) {
+            return updatedSince != null ? updatedSince : Instant.EPOCH;
+        }
+        return latest.minus(watermarkLag);
+    }
+
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, String genre, Boolean available, Instant updatedSince,
+                       OutputStream outputStream) throws IOException {
+        long start = System.nanoTime();
+        long rows;
+        try (Stream<BookExportDTO> books = bookRepository.streamForExport(genre, available, updatedSince)) {
+            rows = format == ExportFormat.CSV
+                    ? writeCsv(books.iterator(), outputStream)
+                    : writeNdjson(books.iterator(), outputStream);
+        }
+        logger.info("Exportados {} libros en formato {} en {} ms", rows, format, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private long writeNdjson(Iterator<BookExportDTO> books, OutputStream outputStream) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(outputStream);
+        long rows = 0;
+        while (books.hasNext()) {
+            out.write(objectMapper.writeValueAsBytes(books.next()));
+            out.write('\n');
+            rows++;
+        }
+        out.flush();
+        return rows;
+    }
+
+    private long writeCsv(Iterator<BookExportDTO> books, OutputStream outputStream) throws IOException {
+        ICSVWriter writer = new CSVWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                ';', ICSVWriter.DEFAULT_QUOTE_CHARACTER, ICSVWriter.DEFAULT_ESCAPE_CHARACTER, ICSVWriter.DEFAULT_LINE_END);
+        writer.writeNext(CSV_HEADER, false);
+        long rows = 0;
+        while (books.hasNext()) {
+            BookExportDTO book = books.next();
+            writer.writeNext(new String[]{
+                    book.title(),
+                    book.authorName(),
+                    book.genre(),
+                    String.valueOf(book.available()),
+                    String.valueOf(book.id()),
+                    book.authorId() == null ? "" : String.valueOf(book.authorId()),
+                    book.updatedAt() == null ? "" : book.updatedAt().toString()
+            }, false);
+            rows++;
+        }
+        writer.flush();
+        if (writer.checkError()) {
+            throw new IOException("Error escribiendo el CSV de exportación");
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,198 @@
+package com.library.management.service;
+
+import com.library.management.dto.CsvImportResultDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.metrics.LibraryMetrics;
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.repository.BookRepository;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Carga de libros desde CSV en modo streaming: el archivo se lee por bloques de
+// library.import.chunk-size filas; cada bloque se resuelve con consultas por conjunto y se
+// inserta en su propia transacción con los INSERT agrupados (hibernate.jdbc.batch_size, ids de
+// la secuencia book_seq), así la memoria no crece con el tamaño del archivo.
+@Service
+public class BookImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookImportService.class);
+
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private final BookRepository bookRepository;
+    private final AuthorCache authorCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LibraryMetrics libraryMetrics;
+    private final int chunkSize;
+
+    public BookImportService(BookRepository bookRepository,
+                             AuthorCache authorCache,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             LibraryMetrics libraryMetrics,
+                             @Value("${library.import.chunk-size:1000}") int chunkSize) {
+        this.bookRepository = bookRepository;
+        this.authorCache = authorCache;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.libraryMetrics = libraryMetrics;
+        this.chunkSize = chunkSize;
+    }
+
+    public CsvImportResultDTO importBooks(MultipartFile file) throws IOException, CsvValidationException {
+        ImportProgress progress = new ImportProgress(file.getOriginalFilename());
+        try (InputStream inputStream = file.getInputStream()) {
+            importBooks(inputStream, progress);
+        }
+        return progress.toResult();
+    }
+
+    public void importBooks(InputStream inputStream, ImportProgress progress) throws IOException, CsvValidationException {
+        logger.info("Iniciando carga por bloques desde CSV: {} (bloques de {} filas)", progress.getFileName(), chunkSize);
+
+        boolean succeeded = false;
+        try (CSVReader reader = CsvSupport.openReader(inputStream)) {
+            CsvSupport.validateHeader(reader.readNext());
+
+            List<CsvBookRow> chunk = new ArrayList<>(chunkSize);
+            String[] nextLine;
+            int row = 2; // Comenzar desde la segunda fila (primera fila = encabezado)
+
+            while ((nextLine = reader.readNext()) != null) {
+                progress.rowRead();
+                CsvBookRow bookRow = toBookRow(nextLine, row++, progress);
+                if (bookRow != null) {
+                    chunk.add(bookRow);
+                }
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, progress);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            writeChunk(chunk, progress);
+            succeeded = true;
+        } finally {
+            progress.finish();
+            libraryMetrics.importFinished(progress, succeeded);
+        }
+
+        logger.info("Carga de {} finalizada: {} filas leídas, {} libros guardados, omitidas {} en {} ms",
+                progress.getFileName(), progress.getRowsRead(), progress.getAccepted(),
+                progress.getSkipped(), progress.getElapsedMillis());
+    }
+
+    // Valida una fila sin tocar la base de datos; devuelve null si la fila se omite.
+    static CsvBookRow toBookRow(String[] rowValues, int rowNumber, ImportProgress progress) {
+        if (CsvSupport.isBlankRow(rowValues)) {
+            progress.skipped(ImportSkipReason.EMPTY_ROW);
+            return null;
+        }
+
+        // Expect at least 3 columns: title, author, genre
+        if (rowValues.length < 3) {
+            logger.warn("Fila {} tiene menos de 3 columnas ({}), omitiendo", rowNumber, rowValues.length);
+            progress.skipped(ImportSkipReason.MISSING_COLUMNS);
+            return null;
+        }
+
+        String title = CsvSupport.safeTrim(rowValues[0]);
+        String authorName = CsvSupport.safeTrim(rowValues[1]);
+        String genre = CsvSupport.safeTrim(rowValues[2]);
+
+        if (title.isEmpty() || authorName.isEmpty()) {
+            logger.warn("Fila {} tiene datos inválidos (título o autor vacío), omitiendo", rowNumber);
+            progress.skipped(ImportSkipReason.INVALID_DATA);
+            return null;
+        }
+
+        return new CsvBookRow(rowNumber, title, authorName, genre);
+    }
+
+    // Resuelve e inserta un bloque: 2-3 consultas por bloque en lugar de 2-3 por fila. Otra carga puede
+    // insertar el mismo libro entre la comprobación y el INSERT; el índice único uk_book_natural_key
+    // rechaza el bloque, que se deshace y se vuelve a comprobar contra la base de datos.
+    void writeChunk(List<CsvBookRow> chunk, ImportProgress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writeChunkOnce(chunk, progress);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+                logger.warn("Bloque de {} filas en conflicto con otra carga concurrente (intento {}), reintentando",
+                        chunk.size(), attempt);
+            }
+        }
+    }
+
+    private void writeChunkOnce(List<CsvBookRow> chunk, ImportProgress progress) {
+        Set<String> existing = new HashSet<>(bookRepository.findExistingNaturalKeys(
+                chunk.stream().map(CsvBookRow::naturalKey).collect(Collectors.toSet())));
+
+        // Los duplicados dentro del bloque se detectan con la misma clave normalizada; entre bloques
+        // los detecta la consulta anterior porque los bloques previos ya están en la base de datos.
+        Set<String> seenInChunk = new HashSet<>();
+        List<ImportSkipReason> skipped = new ArrayList<>();
+        List<CsvBookRow> accepted = new ArrayList<>(chunk.size());
+        for (CsvBookRow row : chunk) {
+            if (existing.contains(row.naturalKey())) {
+                logger.warn("Fila {}: el libro '{}' por '{}' ya existe en la base de datos, omitiendo",
+                        row.rowNumber(), row.title(), row.authorName());
+                skipped.add(ImportSkipReason.DUPLICATE_IN_DB);
+            } else if (!seenInChunk.add(row.naturalKey())) {
+                logger.warn("Fila {}: libro '{}' por '{}' ya está presente en la carga actual, omitiendo",
+                        row.rowNumber(), row.title(), row.authorName());
+                skipped.add(ImportSkipReason.DUPLICATE_IN_FILE);
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        List<Book> books = new ArrayList<>(accepted.size());
+        if (!accepted.isEmpty()) {
+            // Los autores se resuelven fuera de la transacción del bloque: cada alta se confirma por separado,
+            // así la cache de autores nunca guarda el id de un autor cuya inserción se deshizo.
+            Map<String, Author> authors = authorCache.resolveAll(
+                    accepted.stream().map(CsvBookRow::authorName).collect(Collectors.toSet()));
+            for (CsvBookRow row : accepted) {
+                books.add(Book.builder()
+                        .title(row.title())
+                        .author(authors.get(row.authorName()))
+                        .genre(row.genre())
+                        .available(true)
+                        .build());
+            }
+
+            transactionTemplate.executeWithoutResult(status -> bookRepository.saveAll(books));
+            books.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.created(book)));
+        }
+
+        // El progreso solo cuenta el intento que se confirma
+        skipped.forEach(progress::skipped);
+        progress.accepted(books.size());
+        logger.debug("Bloque procesado: {} filas, {} libros guardados", chunk.size(), books.size());
+    }
+}
@@ -0,0 +1,100 @@
+package com.library.management.service;
+
+import com.library.management.dto.ReservationStatsDTO;
+import com.library.management.repository.BookJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Reserva de ejemplares sin bloqueos: un UPDATE condicional sobre Book.available decide qué
+// préstamo gana. Los errores transitorios de la base de datos (timeouts de lock, deadlocks)
+// se reintentan un número acotado de veces.
+@Component
+public class BookReservationEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookReservationEngine.class);
+
+    private final BookJdbcRepository bookJdbcRepository;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong reservations = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong releases = new AtomicLong();
+
+    public BookReservationEngine(BookJdbcRepository bookJdbcRepository,
+                                 @Value("${library.reservation.max-attempts:3}") int maxAttempts,
+                                 @Value("${library.reservation.backoff-millis:10}") long backoffMillis) {
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    // true si este llamador se quedó con el ejemplar; false si ya estaba prestado
+    public boolean reserve(Long bookId) {
+        attempts.incrementAndGet();
+        int updated = withRetry(() -> bookJdbcRepository.reserve(bookId));
+        if (updated == 0) {
+            conflicts.incrementAndGet();
+            return false;
+        }
+        reservations.incrementAndGet();
+        return true;
+    }
+
+    public void release(Long bookId) {
+        if (withRetry(() -> bookJdbcRepository.release(bookId)) > 0) {
+            releases.incrementAndGet();
+        }
+    }
+
+    // Para operaciones por lote: se reintenta la transacción entera, porque tras un deadlock la base de
+    // datos puede haber deshecho también las sentencias anteriores de la transacción
+    public <T> T retrying(Supplier<T> operation) {
+        return withRetry(operation);
+    }
+
+    public ReservationStatsDTO stats() {
+        return new ReservationStatsDTO(
+                attempts.get(),
+                reservations.get(),
+                conflicts.get(),
+                retries.get(),
+                failures.get(),
+                releases.get()
+        );
+    }
+
+    private <T> T withRetry(Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (TransientDataAccessException e) {
+                if (attempt >= maxAttempts || !backoff(attempt)) {
+                    failures.incrementAndGet();
+                    throw e;
+                }
+                retries.incrementAndGet();
+                logger.debug("Conflicto transitorio en la reserva (intento {}/{}), reintentando", attempt, maxAttempts);
+            }
+        }
+    }
+
+    private boolean backoff(int attempt) {
+        try {
+            Thread.sleep(backoffMillis * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.library.management.service;
+
+import com.library.management.event.BookChangedEvent;
+import com.library.management.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Índice invertido en memoria sobre título, autor y género. Sustituye al LIKE '%q%' de
+// BookRepository.searchBooks: los términos se normalizan (minúsculas, sin tildes) y cada
+// término de la búsqueda se compara por prefijo (a partir de MIN_PREFIX_LENGTH caracteres; uno más
+// corto solo coincide con el término exacto, si no "a" recorrería medio catálogo).
+@Component
+public class BookSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int GENRE_WEIGHT = 1;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    // Orden de los resultados: relevancia descendente y, a igual relevancia, id ascendente
+    private static final Comparator<Match> RANKING =
+            Comparator.comparingInt(Match::score).reversed().thenComparing(Match::bookId);
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final BookRepository bookRepository;
+
+    // término -> (id del libro -> peso acumulado de los campos donde aparece)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByBook = new HashMap<>();
+    // Cambios recibidos mientras rebuild() consulta la base de datos; se vuelven a aplicar sobre el resultado
+    private final List<BookChangedEvent> pendingDuringRebuild = new ArrayList<>();
+    private boolean rebuilding;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public BookSearchIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    public record Match(Long bookId, int score) {
+    }
+
+    // Como en AvailabilityIndex: si el índice ya sirve desde la instantánea, los cambios que llegan durante
+    // la consulta se aplican otra vez después del cambio; cada evento fija el estado completo del libro.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            pendingDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Object[]> rows = null;
+        try {
+            rows = bookRepository.findAllForSearchIndex();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (rows != null) {
+                    postings.clear();
+                    termsByBook.clear();
+                    for (Object[] row : rows) {
+                        add((Long) row[0], (String) row[1], (String) row[2], (String) row[3]);
+                    }
+                    pendingDuringRebuild.forEach(this::apply);
+                    ready = true;
+                }
+                pendingDuringRebuild.clear();
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Índice de búsqueda construido con {} libros y {} términos en {} ms",
+                rows.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Carga desde la instantánea de arranque (ReadModelSnapshot); rebuild() la sustituye después
+    void restore(Collection<ReadModelSnapshot.BookRow> rows) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByBook.clear();
+            for (ReadModelSnapshot.BookRow row : rows) {
+                add(row.id(), row.title(), row.authorName(), row.genre());
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                pendingDuringRebuild.add(event);
+            }
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void apply(BookChangedEvent event) {
+        remove(event.bookId());
+        if (event.type() != BookChangedEvent.Type.DELETED) {
+            add(event.bookId(), event.title(), event.authorName(), event.genre());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Devuelve los libros que contienen todos los términos de la búsqueda, del más al menos relevante.
+    // Una coincidencia exacta puntúa el doble que una por prefijo.
+    public List<Match> search(String query) {
+        return search(query, null, Integer.MAX_VALUE);
+    }
+
+    // Como search(query) pero solo los limit primeros posteriores a after ([score, id] del último de la
+    // página anterior, o null). Se guardan en un montículo de tamaño limit: cada página cuesta
+    // O(n log limit) sobre las n coincidencias en lugar de ordenarlas todas.
+    public List<Match> search(String query, long[] after, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String term : terms) {
+                Map<Long, Integer> termScores = new HashMap<>();
+                Map<String, Map<Long, Integer>> expansion = term.length() < MIN_PREFIX_LENGTH
+                        ? postings.subMap(term, true, term, true)
+                        : postings.subMap(term, true, term + Character.MAX_VALUE, true);
+                for (Map.Entry<String, Map<Long, Integer>> entry : expansion.entrySet()) {
+                    int factor = entry.getKey().equals(term) ? 2 : 1;
+                    entry.getValue().forEach((bookId, weight) ->
+                            termScores.merge(bookId, weight * factor, Math::max));
+                }
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((bookId, score) -> score + termScores.get(bookId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // La cima del montículo es el peor de los mejores encontrados hasta ahora
+        PriorityQueue<Match> best = new PriorityQueue<>(RANKING.reversed());
+        scores.forEach((bookId, score) -> {
+            if (after == null || score < after[0] || (score == after[0] && bookId > after[1])) {
+                best.offer(new Match(bookId, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        });
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(RANKING);
+        return matches;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> terms = new ArrayList<>();
+        for (String term : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void add(Long bookId, String title, String authorName, String genre) {
+        Map<String, Integer> weights = new HashMap<>();
+        new HashSet<>(tokenize(title)).forEach(term -> weights.merge(term, TITLE_WEIGHT, Integer::sum));
+        new HashSet<>(tokenize(authorName)).forEach(term -> weights.merge(term, AUTHOR_WEIGHT, Integer::sum));
+        new HashSet<>(tokenize(genre)).forEach(term -> weights.merge(term, GENRE_WEIGHT, Integer::sum));
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(bookId, weight));
+        termsByBook.put(bookId, new HashSet<>(weights.keySet()));
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void remove(Long bookId) {
+        Set<String> terms = termsByBook.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> books = postings.get(term);
+            if (books != null) {
+                books.remove(bookId);
+                if (books.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
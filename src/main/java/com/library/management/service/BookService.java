@@ -1,33 +1,40 @@
 package com.library.management.service;
 
+import com.library.management.dto.AvailableBookDTO;
 import com.library.management.dto.BookDTO;
 import com.library.management.dto.BookRequestDTO;
 import com.library.management.dto.BookResponseDTO;
-import com.library.management.exception.CsvHeaderMissingException;
+import com.library.management.dto.GenreAvailabilityDTO;
+import com.library.management.dto.PageResponse;
+import com.library.management.dto.PopularBookDTO;
+import com.library.management.dto.TitleAvailabilityDTO;
+import com.library.management.event.BookChangedEvent;
 import com.library.management.exception.ResourceAlreadyExistsException;
 import com.library.management.exception.ResourceNotFoundException;
 import com.library.management.model.Author;
 import com.library.management.model.Book;
-import com.library.management.repository.AuthorRepository;
 import com.library.management.repository.BookRepository;
-import com.opencsv.CSVParser;
-import com.opencsv.CSVParserBuilder;
 import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
 import com.opencsv.exceptions.CsvValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,17 +44,36 @@ public class BookService {
 
 
     private final BookRepository bookRepository;
-    private final AuthorRepository authorRepository;
-
-    public BookService(BookRepository bookRepository, AuthorRepository authorRepository) {
+    private final AuthorCache authorCache;
+    private final BookSearchIndex bookSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Pagination pagination;
+    private final AvailabilityIndex availabilityIndex;
+    private final PopularityTracker popularityTracker;
+
+    public BookService(BookRepository bookRepository, AuthorCache authorCache,
+                       BookSearchIndex bookSearchIndex, ApplicationEventPublisher eventPublisher,
+                       Pagination pagination, AvailabilityIndex availabilityIndex,
+                       PopularityTracker popularityTracker) {
         this.bookRepository = bookRepository;
-        this.authorRepository = authorRepository;
+        this.authorCache = authorCache;
+        this.bookSearchIndex = bookSearchIndex;
+        this.eventPublisher = eventPublisher;
+        this.pagination = pagination;
+        this.availabilityIndex = availabilityIndex;
+        this.popularityTracker = popularityTracker;
     }
 
     public List<Book> findAll() {
         return bookRepository.findAll();
     }
 
+    public PageResponse<BookDTO> findPage(String cursor, Integer size) {
+        int pageSize = pagination.resolveSize(size);
+        List<BookDTO> books = bookRepository.findPageAfter(pagination.afterId(cursor), PageRequest.ofSize(pageSize + 1));
+        return Pagination.page(books, pageSize, book -> Pagination.idCursor(book.id()));
+    }
+
     public Book findBookById(Long id) {
         return bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Libro", "id", id));
@@ -55,18 +81,11 @@ public class BookService {
 
     public BookResponseDTO save(BookRequestDTO request) {
         // Buscar o crear autor automáticamente
-        Author author = authorRepository.findByName(request.authorName())
-                .orElseGet(() -> {
-                    logger.info("Creando nuevo autor: {}", request.authorName());
-                    Author newAuthor = new Author();
-                    newAuthor.setName(request.authorName());
-                    return authorRepository.save(newAuthor);
-                });
+        Author author = authorCache.resolve(request.authorName());
 
         // Verificar si el libro ya existe
-        if (bookRepository.existsByTitleAndAuthor_Name(request.title(), author.getName())) {
-            throw new ResourceAlreadyExistsException("Libro", "título y autor",
-                    request.title() + " por " + author.getName());
+        if (bookRepository.existsByNaturalKey(Book.naturalKey(request.title(), author.getName()))) {
+            throw alreadyExists(request.title(), author.getName());
         }
 
         Book book = Book.builder()
@@ -76,7 +95,14 @@ public class BookService {
                 .available(true)
                 .build();
 
-        Book savedBook = bookRepository.save(book);
+        Book savedBook;
+        try {
+            savedBook = bookRepository.save(book);
+        } catch (DataIntegrityViolationException e) {
+            // Otra petición dio de alta el mismo libro entre la comprobación y el INSERT
+            throw alreadyExists(request.title(), author.getName());
+        }
+        eventPublisher.publishEvent(BookChangedEvent.created(savedBook));
 
         return new BookResponseDTO(
                 savedBook.getTitle(),
@@ -94,24 +120,16 @@ public class BookService {
                 .orElseThrow(() -> new ResourceNotFoundException("Libro", "id", id));
 
         // 2. Buscar o crear autor
-        Author author = authorRepository.findByName(request.authorName())
-                .orElseGet(() -> {
-                    Author newAuthor = new Author();
-                    newAuthor.setName(request.authorName());
-                    return authorRepository.save(newAuthor);
-                });
+        Author author = authorCache.resolve(request.authorName());
 
         // 3. Validar si otro libro (no este) tiene este título+autor
-        boolean exists = bookRepository.existsByTitleAndAuthor_Name(
-                request.title(),
-                author.getName()
+        boolean exists = bookRepository.existsByNaturalKeyAndIdNot(
+                Book.naturalKey(request.title(), author.getName()),
+                id
         );
 
         if (exists) {
-            throw new ResourceAlreadyExistsException(
-                    "Libro", "título y autor",
-                    request.title() + " / " + author.getName()
-            );
+            throw alreadyExists(request.title(), author.getName());
         }
 
         // 4. Actualizar campos
@@ -120,7 +138,13 @@ public class BookService {
         existingBook.setGenre(request.genre());
 
         // 5. Guardar
-        Book saved = bookRepository.save(existingBook);
+        Book saved;
+        try {
+            saved = bookRepository.save(existingBook);
+        } catch (DataIntegrityViolationException e) {
+            throw alreadyExists(request.title(), author.getName());
+        }
+        eventPublisher.publishEvent(BookChangedEvent.updated(saved));
 
         // 6. Convertir a DTO de respuesta
         return new BookResponseDTO(
@@ -136,59 +160,76 @@ public class BookService {
         Book bookExist = bookRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Libro", "id", id));
 
         bookRepository.delete(bookExist);
+        eventPublisher.publishEvent(BookChangedEvent.deleted(bookExist));
     }
 
-    public List<Book> searchBooks(String query) {
-        return bookRepository.searchBooks(query);
+    public PageResponse<BookDTO> searchBooks(String query, String cursor, Integer size) {
+        int pageSize = pagination.resolveSize(size);
+
+        // Mientras el índice se construye, o si la búsqueda no tiene términos, se usa la consulta LIKE
+        if (!bookSearchIndex.isReady() || BookSearchIndex.tokenize(query).isEmpty() || Pagination.isIdCursor(cursor)) {
+            List<BookDTO> books = bookRepository.searchBooksAfter(
+                    query, pagination.afterId(cursor), PageRequest.ofSize(pageSize + 1));
+            return Pagination.page(books, pageSize, book -> Pagination.idCursor(book.id()));
+        }
+
+        // El índice devuelve solo la página pedida, ordenada por (relevancia desc, id asc); el cursor es esa clave
+        List<BookSearchIndex.Match> window = bookSearchIndex.search(query, pagination.afterScore(cursor), pageSize + 1);
+        PageResponse<BookSearchIndex.Match> matches = Pagination.page(window, pageSize,
+                match -> Pagination.scoreCursor(match.score(), match.bookId()));
+        if (matches.content().isEmpty()) {
+            return new PageResponse<>(List.of(), 0, null);
+        }
+
+        Map<Long, BookDTO> booksById = bookRepository.findDTOsByIdIn(
+                        matches.content().stream().map(BookSearchIndex.Match::bookId).toList())
+                .stream()
+                .collect(Collectors.toMap(BookDTO::id, Function.identity()));
+
+        // Respetar el orden de relevancia del índice
+        List<BookDTO> books = matches.content().stream()
+                .map(match -> booksById.get(match.bookId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageResponse<>(books, books.size(), matches.nextCursor());
+    }
+
+    public TitleAvailabilityDTO availabilityByTitle(String title, String authorName) {
+        return availabilityIndex.countByTitle(title, authorName);
+    }
+
+    public GenreAvailabilityDTO availabilityByGenre(String genre) {
+        return availabilityIndex.countByGenre(genre);
+    }
+
+    public List<GenreAvailabilityDTO> availabilityByGenres() {
+        return availabilityIndex.countAllGenres();
+    }
+
+    // Libros disponibles de un género, servidos desde el índice de disponibilidad y paginados por id
+    public PageResponse<AvailableBookDTO> findAvailableByGenre(String genre, String cursor, Integer size) {
+        int pageSize = pagination.resolveSize(size);
+        List<AvailableBookDTO> books = availabilityIndex.findAvailable(genre, pagination.afterId(cursor), pageSize + 1);
+        return Pagination.page(books, pageSize, book -> Pagination.idCursor(book.id()));
+    }
+
+    // Libros más prestados en la ventana de popularidad, en total o de un género
+    public List<PopularBookDTO> findPopular(String genre, Integer limit) {
+        int size = pagination.resolveSize(limit);
+        return popularityTracker.top(genre == null || genre.isBlank() ? null : genre, size);
     }
 
     @Transactional
     public List<BookDTO> saveBooksFromCsv(MultipartFile file) throws IOException, CsvValidationException {
         logger.info("Iniciando carga de libros desde CSV: {}", file.getOriginalFilename());
 
-        CSVParser parser = new CSVParserBuilder()
-                .withSeparator(';')
-                .build();
-
-        try (CSVReader reader = new CSVReaderBuilder(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))
-                .withCSVParser(parser)
-                .build()) {
+        try (CSVReader reader = CsvSupport.openReader(file.getInputStream())) {
             String[] nextLine;
             String[] header = reader.readNext();
             List<Book> books = new ArrayList<>();
+            Set<String> keys = new HashSet<>();
 
-            // VALIDACIÓN ESTRICTA: El CSV DEBE contener encabezados válidos
-            if (header == null || header.length == 0) {
-                logger.error("El archivo CSV está vacío o no contiene encabezados");
-                throw new CsvHeaderMissingException("El archivo CSV debe contener encabezados en la primera fila");
-            }
-
-            logger.info("Primera fila leída con {} columnas: {}", header.length, String.join(", ", header));
-
-            // Verificar que la primera fila contiene encabezados válidos
-            boolean hasValidHeader = false;
-            for (String col : header) {
-                if (col != null) {
-                    String colLower = col.trim().toLowerCase();
-                    if (colLower.equals("title") || colLower.equals("titulo") ||
-                        colLower.equals("book") || colLower.equals("libro") ||
-                        colLower.equals("author") || colLower.equals("autor") ||
-                        colLower.equals("genre") || colLower.equals("genero") ||
-                        colLower.equals("name") || colLower.equals("nombre")) {
-                        hasValidHeader = true;
-                        break;
-                    }
-                }
-            }
-
-            if (!hasValidHeader) {
-                logger.error("El archivo CSV no contiene encabezados válidos. Primera fila: {}", String.join(", ", header));
-                throw new CsvHeaderMissingException(
-                    "El archivo CSV debe contener encabezados válidos en la primera fila. " +
-                    "Encabezados esperados: 'titulo/title', 'autor/author', 'genero/genre'. " +
-                    "Se encontró: " + String.join(", ", header)
-                );
-            }
+            CsvSupport.validateHeader(header);
 
             logger.info("Encabezados válidos detectados, procesando datos a partir de la fila 2");
             int row = 2; // Comenzar desde la segunda fila (primera fila = encabezado)
@@ -201,18 +242,10 @@ public class BookService {
                     continue;
                 }
 
-                boolean allEmpty = true;
-                for (String value : nextLine) {
-                    if (value != null && !value.trim().isEmpty()) {
-                        allEmpty = false;
-                        break;
-                    }
-                }
-
-                if (allEmpty) {
+                if (CsvSupport.isBlankRow(nextLine)) {
                     logger.debug("Fila {} tiene todos los valores vacíos, omitiendo", row);
                 } else {
-                    processRow(nextLine, row, books);
+                    processRow(nextLine, row, books, keys);
                 }
                 row++;
             }
@@ -222,6 +255,7 @@ public class BookService {
             List<Book> savedBooks = new ArrayList<>();
             if (!books.isEmpty()) {
                 savedBooks = bookRepository.saveAll(books);
+                savedBooks.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.created(book)));
                 logger.info("Libros guardados en la base de datos: {}", savedBooks.size());
             } else {
                 logger.warn("No se encontraron libros válidos para guardar");
@@ -245,21 +279,15 @@ public class BookService {
     }
 
     // Helper to validate and convert a CSV row into a Book, collecting into 'books' if valid.
-    private void processRow(String[] rowValues, int rowNumber, List<Book> books) {
+    // 'keys' holds the natural keys already accepted, so the in-batch duplicate check is a set lookup.
+    private void processRow(String[] rowValues, int rowNumber, List<Book> books, Set<String> keys) {
         if (rowValues == null) {
             logger.debug("Fila {} es null, omitiendo", rowNumber);
             return;
         }
 
         // Skip completely empty or whitespace-only rows
-        boolean allBlank = true;
-        for (String v : rowValues) {
-            if (v != null && !v.trim().isEmpty()) {
-                allBlank = false;
-                break;
-            }
-        }
-        if (allBlank) {
+        if (CsvSupport.isBlankRow(rowValues)) {
             logger.debug("Fila {} está completamente vacía, omitiendo", rowNumber);
             return;
         }
@@ -270,9 +298,9 @@ public class BookService {
             return;
         }
 
-        String title = safeTrim(rowValues[0]);
-        String authorName = safeTrim(rowValues[1]);
-        String genre = safeTrim(rowValues[2]);
+        String title = CsvSupport.safeTrim(rowValues[0]);
+        String authorName = CsvSupport.safeTrim(rowValues[1]);
+        String genre = CsvSupport.safeTrim(rowValues[2]);
 
         logger.debug("Procesando fila {}: titulo='{}', autor='{}', genero='{}'", rowNumber, title, authorName, genre);
 
@@ -283,29 +311,20 @@ public class BookService {
         }
 
         // 1) Validar si el libro ya existe en la base de datos
-        if (bookRepository.existsByTitleAndAuthor_Name(title, authorName)) {
+        String key = Book.naturalKey(title, authorName);
+        if (bookRepository.existsByNaturalKey(key)) {
             logger.warn("Fila {}: el libro '{}' por '{}' ya existe en la base de datos, omitiendo", rowNumber, title, authorName);
             return;
         }
 
         // 2) Validar duplicados en el lote actual del CSV
-        boolean duplicateInBatch = books.stream().anyMatch(b ->
-                title.equalsIgnoreCase(safeTrim(b.getTitle())) &&
-                authorName.equalsIgnoreCase(safeTrim(b.getAuthor().getName()))
-        );
-        if (duplicateInBatch) {
+        if (!keys.add(key)) {
             logger.warn("Fila {}: libro '{}' por '{}' ya está presente en la carga actual, omitiendo", rowNumber, title, authorName);
             return;
         }
 
         // Buscar o crear autor
-        Author author = authorRepository.findByName(authorName)
-                .orElseGet(() -> {
-                    logger.info("Creando nuevo autor: {}", authorName);
-                    Author newAuthor = new Author();
-                    newAuthor.setName(authorName);
-                    return authorRepository.save(newAuthor);
-                });
+        Author author = authorCache.resolve(authorName);
 
         Book book = Book.builder()
                 .title(title).author(author).genre(genre).available(true).build();
@@ -315,7 +334,7 @@ public class BookService {
         logger.info("Libro agregado a la lista para guardar: '{}' por {}", title, authorName);
     }
 
-    private String safeTrim(String s) {
-        return s == null ? "" : s.trim();
+    private static ResourceAlreadyExistsException alreadyExists(String title, String authorName) {
+        return new ResourceAlreadyExistsException("Libro", "título y autor", title + " por " + authorName);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package com.library.management.service;
+
+import com.library.management.event.AuthorChangedEvent;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.LoanEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Contador de cambios del catálogo (libros, autores y disponibilidad) para las lecturas condicionales.
+// Se incrementa después del commit: una lectura que calcula el ETag antes de consultar nunca etiqueta
+// datos antiguos con una versión nueva. El arranque forma parte del ETag, así un reinicio invalida todos.
+@Component
+public class CatalogueVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        changed();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        changed();
+    }
+
+    // BookDTO incluye la disponibilidad, así que cada préstamo y devolución cambia el catálogo
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoan(LoanEvent event) {
+        changed();
+    }
+
+    private void changed() {
+        changes.incrementAndGet();
+    }
+
+    public String etag() {
+        return "\"" + epoch + "-" + changes.get() + "\"";
+    }
+}
@@ -0,0 +1,11 @@
+package com.library.management.service;
+
+import com.library.management.model.Book;
+
+// Fila del CSV ya validada, pendiente de resolver contra la base de datos.
+record CsvBookRow(int rowNumber, String title, String authorName, String genre, String naturalKey) {
+
+    CsvBookRow(int rowNumber, String title, String authorName, String genre) {
+        this(rowNumber, title, authorName, genre, Book.naturalKey(title, authorName));
+    }
+}
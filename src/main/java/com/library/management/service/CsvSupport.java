@@ -0,0 +1,80 @@
+package com.library.management.service;
+
+import com.library.management.exception.CsvHeaderMissingException;
+import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+// Utilidades compartidas por las cargas de libros desde CSV (separador ';', UTF-8).
+final class CsvSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvSupport.class);
+
+    private static final Set<String> VALID_HEADERS = Set.of(
+            "title", "titulo", "book", "libro", "author", "autor", "genre", "genero", "name", "nombre");
+
+    private CsvSupport() {
+    }
+
+    static CSVReader openReader(InputStream inputStream) {
+        CSVParser parser = new CSVParserBuilder()
+                .withSeparator(';')
+                .build();
+
+        return new CSVReaderBuilder(new InputStreamReader(inputStream, StandardCharsets.UTF_8))
+                .withCSVParser(parser)
+                .build();
+    }
+
+    // VALIDACIÓN ESTRICTA: El CSV DEBE contener encabezados válidos
+    static void validateHeader(String[] header) {
+        if (header == null || header.length == 0) {
+            logger.error("El archivo CSV está vacío o no contiene encabezados");
+            throw new CsvHeaderMissingException("El archivo CSV debe contener encabezados en la primera fila");
+        }
+
+        logger.info("Primera fila leída con {} columnas: {}", header.length, String.join(", ", header));
+
+        // Verificar que la primera fila contiene encabezados válidos
+        boolean hasValidHeader = false;
+        for (String col : header) {
+            if (col != null && VALID_HEADERS.contains(col.trim().toLowerCase())) {
+                hasValidHeader = true;
+                break;
+            }
+        }
+
+        if (!hasValidHeader) {
+            logger.error("El archivo CSV no contiene encabezados válidos. Primera fila: {}", String.join(", ", header));
+            throw new CsvHeaderMissingException(
+                "El archivo CSV debe contener encabezados válidos en la primera fila. " +
+                "Encabezados esperados: 'titulo/title', 'autor/author', 'genero/genre'. " +
+                "Se encontró: " + String.join(", ", header)
+            );
+        }
+    }
+
+    static boolean isBlankRow(String[] rowValues) {
+        if (rowValues == null) {
+            return true;
+        }
+        for (String value : rowValues) {
+            if (value != null && !value.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String safeTrim(String s) {
+        return s == null ? "" : s.trim();
+    }
+}
@@ -0,0 +1,172 @@
+package com.library.management.service;
+
+import com.library.management.dto.UserFineDTO;
+import com.library.management.event.LoanEvent;
+import com.library.management.repository.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Multas acumuladas de los préstamos activos vencidos, por usuario. Para cada usuario se guarda el número
+// de préstamos vencidos (n) y la suma de sus fechas de vencimiento en días (S): la deuda a fecha d es
+// (n * d - S) * FINE_PER_DAY, así que consultar cuesta O(1) y no hace falta recalcular cada día.
+// La pasada diaria solo lee los préstamos que vencieron desde la pasada anterior.
+@Component
+public class FineAccrualEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(FineAccrualEngine.class);
+
+    private final LoanRepository loanRepository;
+
+    // préstamo vencido -> [userId, día de vencimiento]
+    private final Map<Long, long[]> overdueLoans = new HashMap<>();
+    private final Map<Long, UserTotals> totalsByUser = new HashMap<>();
+    // Devoluciones vistas mientras una pasada consulta la base de datos; evita volver a sumar esos préstamos
+    private final Set<Long> returnedDuringPass = new HashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private LocalDate accruedUntil;
+
+    public FineAccrualEngine(LoanRepository loanRepository) {
+        this.loanRepository = loanRepository;
+    }
+
+    private static final class UserTotals {
+        private int loans;
+        private long dueDaySum;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            overdueLoans.clear();
+            totalsByUser.clear();
+            accruedUntil = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        accrue(LocalDate.now());
+    }
+
+    @Scheduled(cron = "${library.fines.accrual-cron:0 5 0 * * *}")
+    public void dailyPass() {
+        accrue(LocalDate.now());
+    }
+
+    // Añade los préstamos que han pasado a estar vencidos a fecha today (dueDate < today)
+    void accrue(LocalDate today) {
+        LocalDate from;
+        lock.writeLock().lock();
+        try {
+            from = accruedUntil;
+            if (from != null && !today.isAfter(from)) {
+                return;
+            }
+            returnedDuringPass.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        List<Object[]> rows = from == null
+                ? loanRepository.findActiveDueBefore(today)
+                : loanRepository.findActiveDueBetween(from, today);
+
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : rows) {
+                Long loanId = (Long) row[0];
+                Long userId = (Long) row[1];
+                if (userId == null || returnedDuringPass.contains(loanId) || overdueLoans.containsKey(loanId)) {
+                    continue;
+                }
+                long dueDay = ((LocalDate) row[2]).toEpochDay();
+                overdueLoans.put(loanId, new long[]{userId, dueDay});
+                UserTotals totals = totalsByUser.computeIfAbsent(userId, id -> new UserTotals());
+                totals.loans++;
+                totals.dueDaySum += dueDay;
+            }
+            returnedDuringPass.clear();
+            accruedUntil = today;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Pasada de multas hasta {}: {} préstamos nuevos vencidos, {} usuarios con deuda en {} ms",
+                today, rows.size(), totalsByUser.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Al devolver un préstamo vencido su multa deja de acumularse (la cobra LoanService.calculateFine)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoan(LoanEvent event) {
+        if (event.type() != LoanEvent.Type.RETURNED) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            returnedDuringPass.add(event.loanId());
+            long[] loan = overdueLoans.remove(event.loanId());
+            if (loan == null) {
+                return;
+            }
+            UserTotals totals = totalsByUser.get(loan[0]);
+            totals.loans--;
+            totals.dueDaySum -= loan[1];
+            if (totals.loans == 0) {
+                totalsByUser.remove(loan[0]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public UserFineDTO fineFor(Long userId) {
+        return fineFor(userId, LocalDate.now());
+    }
+
+    UserFineDTO fineFor(Long userId, LocalDate asOf) {
+        lock.readLock().lock();
+        try {
+            return toDTO(userId, totalsByUser.get(userId), asOf);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Usuarios con mayor deuda primero
+    public List<UserFineDTO> topFines(int limit) {
+        LocalDate asOf = LocalDate.now();
+        List<UserFineDTO> fines;
+        lock.readLock().lock();
+        try {
+            fines = new ArrayList<>(totalsByUser.size());
+            totalsByUser.forEach((userId, totals) -> fines.add(toDTO(userId, totals, asOf)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        fines.sort(Comparator.comparingDouble(UserFineDTO::amount).reversed().thenComparing(UserFineDTO::userId));
+        return fines.size() > limit ? fines.subList(0, limit) : fines;
+    }
+
+    private static UserFineDTO toDTO(Long userId, UserTotals totals, LocalDate asOf) {
+        if (totals == null) {
+            return new UserFineDTO(userId, 0, 0, 0.0, asOf);
+        }
+        long overdueDays = totals.loans * asOf.toEpochDay() - totals.dueDaySum;
+        return new UserFineDTO(userId, totals.loans, overdueDays, overdueDays * LoanService.FINE_PER_DAY, asOf);
+    }
+}
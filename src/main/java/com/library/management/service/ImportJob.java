@@ -0,0 +1,72 @@
+package com.library.management.service;
+
+import com.library.management.dto.ImportJobDTO;
+
+import java.time.Instant;
+import java.util.Collections;
+
+public class ImportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final String fileName;
+    private final Instant submittedAt = Instant.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile ImportProgress progress;
+    private volatile String error;
+
+    public ImportJob(String id, String fileName) {
+        this.id = id;
+        this.fileName = fileName;
+    }
+
+    ImportProgress start() {
+        progress = new ImportProgress(fileName);
+        status = Status.RUNNING;
+        return progress;
+    }
+
+    void complete() {
+        status = Status.COMPLETED;
+    }
+
+    void fail(String message) {
+        error = message;
+        status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public ImportJobDTO toDTO() {
+        ImportProgress current = progress;
+        if (current == null) {
+            return new ImportJobDTO(id, status.name(), fileName, submittedAt, 0, 0,
+                    Collections.emptyMap(), 0, 0.0, error);
+        }
+        return new ImportJobDTO(
+                id,
+                status.name(),
+                fileName,
+                submittedAt,
+                current.getRowsRead(),
+                current.getAccepted(),
+                current.getSkipped(),
+                current.getElapsedMillis(),
+                current.getRowsPerSecond(),
+                error
+        );
+    }
+}
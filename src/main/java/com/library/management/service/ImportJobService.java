@@ -0,0 +1,108 @@
+package com.library.management.service;
+
+import com.library.management.exception.ImportRejectedException;
+import com.library.management.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Cargas CSV en segundo plano: el upload devuelve un id y el progreso se consulta por polling.
+@Service
+public class ImportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobService.class);
+
+    private final BookImportService bookImportService;
+    private final TaskExecutor csvImportExecutor;
+    private final int maxRetainedJobs;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> jobOrder = new ConcurrentLinkedQueue<>();
+
+    public ImportJobService(BookImportService bookImportService,
+                            TaskExecutor csvImportExecutor,
+                            @Value("${library.import.max-retained-jobs:100}") int maxRetainedJobs) {
+        this.bookImportService = bookImportService;
+        this.csvImportExecutor = csvImportExecutor;
+        this.maxRetainedJobs = maxRetainedJobs;
+    }
+
+    public ImportJob submit(MultipartFile file) throws IOException {
+        // El archivo temporal del multipart se borra al terminar la petición, así que se copia antes
+        Path tempFile = Files.createTempFile("library-import-", ".csv");
+        file.transferTo(tempFile);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename());
+        jobs.put(job.getId(), job);
+        jobOrder.add(job.getId());
+
+        try {
+            csvImportExecutor.execute(() -> run(job, tempFile));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            jobOrder.remove(job.getId());
+            deleteQuietly(tempFile);
+            throw new ImportRejectedException("Hay demasiadas cargas en cola, inténtelo más tarde");
+        }
+
+        evictFinishedJobs();
+        logger.info("Carga {} encolada para el archivo {}", job.getId(), file.getOriginalFilename());
+        return job;
+    }
+
+    public ImportJob findById(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Carga", "id", id);
+        }
+        return job;
+    }
+
+    private void run(ImportJob job, Path file) {
+        ImportProgress progress = job.start();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            bookImportService.importBooks(inputStream, progress);
+            job.complete();
+        } catch (Exception e) {
+            logger.error("La carga {} falló", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    // Conserva como máximo maxRetainedJobs; solo se descartan cargas ya terminadas, de la más antigua a la más nueva
+    private void evictFinishedJobs() {
+        Iterator<String> ids = jobOrder.iterator();
+        while (jobs.size() > maxRetainedJobs && ids.hasNext()) {
+            String id = ids.next();
+            ImportJob job = jobs.get(id);
+            if (job == null || job.isFinished()) {
+                jobs.remove(id);
+                ids.remove();
+            }
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar el archivo temporal {}", file, e);
+        }
+    }
+}
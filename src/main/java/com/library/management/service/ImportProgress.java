@@ -0,0 +1,81 @@
+package com.library.management.service;
+
+import com.library.management.dto.CsvImportResultDTO;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Contadores de una carga CSV. Es seguro leerlos desde otro hilo mientras la carga avanza.
+public class ImportProgress {
+
+    private final String fileName;
+    private final long startedNanos = System.nanoTime();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final Map<ImportSkipReason, AtomicLong> skipped = new EnumMap<>(ImportSkipReason.class);
+    private volatile long finishedNanos;
+
+    public ImportProgress(String fileName) {
+        this.fileName = fileName;
+        for (ImportSkipReason reason : ImportSkipReason.values()) {
+            skipped.put(reason, new AtomicLong());
+        }
+    }
+
+    public void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    public void accepted(int count) {
+        accepted.addAndGet(count);
+    }
+
+    public void skipped(ImportSkipReason reason) {
+        skipped.get(reason).incrementAndGet();
+    }
+
+    public void finish() {
+        finishedNanos = System.nanoTime();
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public Map<String, Long> getSkipped() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        skipped.forEach((reason, count) -> result.put(reason.name(), count.get()));
+        return result;
+    }
+
+    public long getElapsedMillis() {
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        return (end - startedNanos) / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        long elapsed = getElapsedMillis();
+        return elapsed == 0 ? 0.0 : getRowsRead() * 1000.0 / elapsed;
+    }
+
+    public CsvImportResultDTO toResult() {
+        return new CsvImportResultDTO(
+                fileName,
+                getRowsRead(),
+                getAccepted(),
+                getSkipped(),
+                getElapsedMillis(),
+                getRowsPerSecond()
+        );
+    }
+}
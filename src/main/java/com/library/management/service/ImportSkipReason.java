@@ -0,0 +1,9 @@
+package com.library.management.service;
+
+public enum ImportSkipReason {
+    EMPTY_ROW,
+    MISSING_COLUMNS,
+    INVALID_DATA,
+    DUPLICATE_IN_DB,
+    DUPLICATE_IN_FILE
+}
@@ -0,0 +1,86 @@
+package com.library.management.service;
+
+import com.library.management.dto.LoanArchiveResultDTO;
+import com.library.management.metrics.LibraryMetrics;
+import com.library.management.repository.LoanArchiveJdbcRepository;
+import com.library.management.repository.LoanArchiveJdbcRepository.ReturnedLoan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Archivado de préstamos devueltos hace más de library.archive.after-days días: pasan a loan_history por
+// bloques de library.archive.batch-size, cada uno en su transacción, y la tabla loan solo conserva los
+// activos y los devueltos recientes. El plazo nunca es menor que la ventana de PopularityTracker, que
+// reconstruye el ranking leyendo loan.
+@Component
+public class LoanArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanArchiver.class);
+
+    private final LoanArchiveJdbcRepository loanArchiveJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LibraryMetrics libraryMetrics;
+    private final int afterDays;
+    private final int batchSize;
+    private final Lock lock = new ReentrantLock();
+
+    public LoanArchiver(LoanArchiveJdbcRepository loanArchiveJdbcRepository,
+                        TransactionTemplate transactionTemplate,
+                        LibraryMetrics libraryMetrics,
+                        @Value("${library.archive.after-days:180}") int afterDays,
+                        @Value("${library.archive.batch-size:1000}") int batchSize,
+                        @Value("${library.popularity.window-days:30}") int popularityWindowDays) {
+        this.loanArchiveJdbcRepository = loanArchiveJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.libraryMetrics = libraryMetrics;
+        if (afterDays < popularityWindowDays) {
+            logger.warn("library.archive.after-days={} es menor que la ventana de popularidad; se usan {} días",
+                    afterDays, popularityWindowDays);
+        }
+        this.afterDays = Math.max(afterDays, popularityWindowDays);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${library.archive.cron:0 30 1 * * *}")
+    public void scheduledArchive() {
+        archive();
+    }
+
+    public LoanArchiveResultDTO archive() {
+        return archive(LocalDate.now());
+    }
+
+    LoanArchiveResultDTO archive(LocalDate today) {
+        LocalDate before = today.minusDays(afterDays);
+        long start = System.nanoTime();
+        long archived = 0;
+        // La pasada programada y una manual no deben copiar los mismos préstamos a la vez
+        lock.lock();
+        try {
+            int moved;
+            do {
+                moved = transactionTemplate.execute(status -> {
+                    List<ReturnedLoan> loans = loanArchiveJdbcRepository.findReturnedBefore(before, batchSize);
+                    loanArchiveJdbcRepository.archive(loans);
+                    return loans.size();
+                });
+                archived += moved;
+            } while (moved == batchSize);
+        } finally {
+            lock.unlock();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        libraryMetrics.loansArchived(archived);
+        logger.info("Archivado de préstamos devueltos antes de {}: {} préstamos en {} ms", before, archived, elapsedMillis);
+        return new LoanArchiveResultDTO(before, archived, elapsedMillis);
+    }
+}
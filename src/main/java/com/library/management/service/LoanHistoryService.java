@@ -0,0 +1,111 @@
+package com.library.management.service;
+
+import com.library.management.dto.LoanCountsDTO;
+import com.library.management.dto.LoanDTO;
+import com.library.management.dto.PageResponse;
+import com.library.management.exception.ResourceNotFoundException;
+import com.library.management.model.BookLoanCount;
+import com.library.management.model.UserLoanCount;
+import com.library.management.repository.BookLoanCountRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanHistoryRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserLoanCountRepository;
+import com.library.management.repository.UserRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Consultas de historial que leen a la vez la tabla loan y el archivo (loan_history y contadores), así
+// los clientes no necesitan saber si un préstamo ya se archivó (LoanArchiver).
+@Service
+public class LoanHistoryService {
+
+    private static final Comparator<LoanDTO> NEWEST_FIRST = Comparator.comparing(LoanDTO::id).reversed();
+
+    private final LoanRepository loanRepository;
+    private final LoanHistoryRepository loanHistoryRepository;
+    private final BookLoanCountRepository bookLoanCountRepository;
+    private final UserLoanCountRepository userLoanCountRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final Pagination pagination;
+
+    public LoanHistoryService(LoanRepository loanRepository,
+                              LoanHistoryRepository loanHistoryRepository,
+                              BookLoanCountRepository bookLoanCountRepository,
+                              UserLoanCountRepository userLoanCountRepository,
+                              BookRepository bookRepository,
+                              UserRepository userRepository,
+                              Pagination pagination) {
+        this.loanRepository = loanRepository;
+        this.loanHistoryRepository = loanHistoryRepository;
+        this.bookLoanCountRepository = bookLoanCountRepository;
+        this.userLoanCountRepository = userLoanCountRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.pagination = pagination;
+    }
+
+    // Un libro borrado conserva su historial archivado; solo es 404 si no existe ni tiene historial
+    public PageResponse<LoanDTO> findByBook(Long bookId, String cursor, Integer size) {
+        int pageSize = pagination.resolveSize(size);
+        long beforeId = pagination.beforeId(cursor);
+        PageRequest page = PageRequest.ofSize(pageSize + 1);
+        PageResponse<LoanDTO> loans = newestFirst(
+                loanRepository.findByBookPageBefore(bookId, beforeId, page),
+                loanHistoryRepository.findByBookPageBefore(bookId, beforeId, page),
+                pageSize);
+        if (loans.content().isEmpty() && cursor == null && !bookRepository.existsById(bookId)) {
+            throw new ResourceNotFoundException("Libro", "id", bookId);
+        }
+        return loans;
+    }
+
+    public PageResponse<LoanDTO> findByUser(Long userId, String cursor, Integer size) {
+        int pageSize = pagination.resolveSize(size);
+        long beforeId = pagination.beforeId(cursor);
+        PageRequest page = PageRequest.ofSize(pageSize + 1);
+        PageResponse<LoanDTO> loans = newestFirst(
+                loanRepository.findByUserPageBefore(userId, beforeId, page),
+                loanHistoryRepository.findByUserPageBefore(userId, beforeId, page),
+                pageSize);
+        if (loans.content().isEmpty() && cursor == null && !userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+        return loans;
+    }
+
+    public LoanCountsDTO countsForBook(Long bookId) {
+        long archived = bookLoanCountRepository.findById(bookId).map(BookLoanCount::getLoans).orElse(0L);
+        return counts(bookId, loanRepository.countByBook_Id(bookId), archived);
+    }
+
+    public LoanCountsDTO countsForUser(Long userId) {
+        long archived = userLoanCountRepository.findById(userId).map(UserLoanCount::getLoans).orElse(0L);
+        return counts(userId, loanRepository.countByUser_Id(userId), archived);
+    }
+
+    private static LoanCountsDTO counts(Long id, long current, long archived) {
+        return new LoanCountsDTO(id, current, archived, current + archived);
+    }
+
+    // Las dos fuentes llegan ordenadas por id descendente: basta con unirlas y ordenar. Se lee primero loan,
+    // así un préstamo archivado entre ambas consultas aparece dos veces (nunca ninguna) y se descarta el repetido.
+    private static PageResponse<LoanDTO> newestFirst(List<LoanDTO> current, List<LoanDTO> archived, int pageSize) {
+        List<LoanDTO> all = new ArrayList<>(current.size() + archived.size());
+        all.addAll(current);
+        all.addAll(archived);
+        all.sort(NEWEST_FIRST);
+        List<LoanDTO> merged = new ArrayList<>(all.size());
+        for (LoanDTO loan : all) {
+            if (merged.isEmpty() || !merged.get(merged.size() - 1).id().equals(loan.id())) {
+                merged.add(loan);
+            }
+        }
+        return Pagination.page(merged, pageSize, loan -> Pagination.idCursor(loan.id()));
+    }
+}
@@ -1,18 +1,36 @@
 package com.library.management.service;
 
+import com.library.management.dto.LoanBatchItemDTO;
+import com.library.management.dto.LoanBatchResultDTO;
+import com.library.management.dto.LoanDTO;
+import com.library.management.dto.PageResponse;
+import com.library.management.dto.ReservationStatsDTO;
+import com.library.management.dto.UserFineDTO;
+import com.library.management.event.LoanEvent;
+import com.library.management.exception.ResourceNotFoundException;
 import com.library.management.model.Book;
 import com.library.management.model.Loan;
 import com.library.management.model.User;
+import com.library.management.repository.BookJdbcRepository;
 import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanJdbcRepository;
 import com.library.management.repository.LoanRepository;
 import com.library.management.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class LoanService {
@@ -20,45 +38,210 @@ public class LoanService {
     private final LoanRepository loanRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
+    private final BookReservationEngine reservationEngine;
+    private final BookJdbcRepository bookJdbcRepository;
+    private final LoanJdbcRepository loanJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FineAccrualEngine fineAccrualEngine;
+    private final Pagination pagination;
+    private final TransactionTemplate transactionTemplate;
 
-    public LoanService(LoanRepository loanRepository, BookRepository bookRepository, UserRepository userRepository) {
+    public LoanService(LoanRepository loanRepository, BookRepository bookRepository, UserRepository userRepository,
+                       BookReservationEngine reservationEngine, BookJdbcRepository bookJdbcRepository,
+                       LoanJdbcRepository loanJdbcRepository, ApplicationEventPublisher eventPublisher,
+                       FineAccrualEngine fineAccrualEngine, Pagination pagination,
+                       TransactionTemplate transactionTemplate) {
         this.loanRepository = loanRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
+        this.reservationEngine = reservationEngine;
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.loanJdbcRepository = loanJdbcRepository;
+        this.eventPublisher = eventPublisher;
+        this.fineAccrualEngine = fineAccrualEngine;
+        this.pagination = pagination;
+        this.transactionTemplate = transactionTemplate;
     }
 
     private static final int LOAN_DAYS = 15;
-    private static final double FINE_PER_DAY = 0.50;
+    static final double FINE_PER_DAY = 0.50;
+    private static final int MAX_DUE_WITHIN_DAYS = 365;
 
     public Loan borrowBook(Long bookId, Long userId) {
         Book book = bookRepository.findById(bookId).orElseThrow(() -> new RuntimeException("Book not found"));
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!book.isAvailable()) {
+        // El UPDATE condicional decide quién se queda el ejemplar; no se confía en book.isAvailable()
+        if (!reservationEngine.reserve(bookId)) {
             throw new RuntimeException("Book is not available");
         }
 
-        book.setAvailable(false);
-        bookRepository.save(book);
-
         Loan loan = new Loan();
         loan.setBook(book);
         loan.setUser(user);
         loan.setLoanDate(LocalDate.now());
         loan.setDueDate(LocalDate.now().plusDays(LOAN_DAYS));
 
-        return loanRepository.save(loan);
+        Loan saved;
+        try {
+            saved = loanRepository.save(loan);
+        } catch (RuntimeException e) {
+            // Compensar: si el préstamo no se pudo guardar el ejemplar vuelve a estar disponible
+            reservationEngine.release(bookId);
+            throw e;
+        }
+        // Solo para la respuesta: el UPDATE condicional ya incrementó la versión, y con open-in-view el libro
+        // sigue gestionado; modificarlo antes de guardar el préstamo lo volcaría con la versión antigua
+        book.setAvailable(false);
+        eventPublisher.publishEvent(LoanEvent.borrowed(saved.getId(), bookId, userId, saved.getDueDate()));
+        return saved;
     }
 
     public Loan returnBook(Long loanId) {
         Loan loan = loanRepository.findById(loanId).orElseThrow(() -> new RuntimeException("Loan not found"));
-        loan.setReturnDate(LocalDate.now());
+        if (loan.getReturnDate() != null) {
+            throw new RuntimeException("Loan already returned");
+        }
+
+        // Primero se cierra el préstamo y después se libera el ejemplar: ante un fallo intermedio
+        // el libro queda no disponible, nunca prestado dos veces. El UPDATE condicional (el mismo que
+        // returnBooks) decide qué devolución concurrente libera el libro; la otra no lo toca, porque
+        // entretanto el ejemplar puede haberse prestado de nuevo
+        LocalDate today = LocalDate.now();
+        if (!loanJdbcRepository.close(loanId, today)) {
+            throw new RuntimeException("Loan already returned");
+        }
+        // Solo para la respuesta, como book.setAvailable en borrowBook
+        loan.setReturnDate(today);
 
         Book book = loan.getBook();
+        reservationEngine.release(book.getId());
         book.setAvailable(true);
-        bookRepository.save(book);
+        eventPublisher.publishEvent(LoanEvent.returned(loan.getId(), book.getId(),
+                loan.getUser() != null ? loan.getUser().getId() : null, loan.getDueDate()));
+
+        return loan;
+    }
+
+    // Préstamo de varios libros para un usuario en una transacción: una consulta para comprobar los libros,
+    // un batch de UPDATE condicionales para reservarlos y un batch de INSERT para los préstamos.
+    // Cada libro obtiene su propio resultado; los que fallan no impiden prestar el resto. Ante un error
+    // transitorio (lock timeout, deadlock) se repite la transacción entera, como en BookReservationEngine.
+    public LoanBatchResultDTO borrowBooks(Long userId, List<Long> bookIds) {
+        return reservationEngine.retrying(() -> transactionTemplate.execute(status -> borrowBooksOnce(userId, bookIds)));
+    }
+
+    private LoanBatchResultDTO borrowBooksOnce(Long userId, List<Long> bookIds) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+
+        Set<Long> existing = new HashSet<>(bookRepository.findExistingIds(bookIds));
+        LoanBatchItemDTO[] items = new LoanBatchItemDTO[bookIds.size()];
+        List<Integer> positions = new ArrayList<>();
+        List<Long> candidates = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < bookIds.size(); i++) {
+            Long bookId = bookIds.get(i);
+            if (!seen.add(bookId)) {
+                items[i] = new LoanBatchItemDTO(bookId, null, LoanBatchItemDTO.Status.DUPLICATE, null);
+            } else if (!existing.contains(bookId)) {
+                items[i] = new LoanBatchItemDTO(bookId, null, LoanBatchItemDTO.Status.NOT_FOUND, null);
+            } else {
+                positions.add(i);
+                candidates.add(bookId);
+            }
+        }
+
+        int[] reserved = bookJdbcRepository.reserveAll(candidates);
+        List<Integer> borrowedPositions = new ArrayList<>();
+        List<Long> borrowed = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (reserved[i] == 1) {
+                borrowedPositions.add(positions.get(i));
+                borrowed.add(candidates.get(i));
+            } else {
+                items[positions.get(i)] = new LoanBatchItemDTO(candidates.get(i), null,
+                        LoanBatchItemDTO.Status.NOT_AVAILABLE, null);
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate dueDate = today.plusDays(LOAN_DAYS);
+        List<Long> loanIds = loanJdbcRepository.insertAll(userId, borrowed, today, dueDate);
+        for (int i = 0; i < borrowed.size(); i++) {
+            items[borrowedPositions.get(i)] = new LoanBatchItemDTO(borrowed.get(i), loanIds.get(i),
+                    LoanBatchItemDTO.Status.BORROWED, dueDate);
+            eventPublisher.publishEvent(LoanEvent.borrowed(loanIds.get(i), borrowed.get(i), userId, dueDate));
+        }
+
+        return LoanBatchResultDTO.of(List.of(items));
+    }
+
+    // Devolución de varios préstamos en una transacción: una consulta de proyección, un batch que cierra
+    // los préstamos abiertos y otro que libera sus libros. Se reintenta igual que borrowBooks.
+    public LoanBatchResultDTO returnBooks(List<Long> loanIds) {
+        return reservationEngine.retrying(() -> transactionTemplate.execute(status -> returnBooksOnce(loanIds)));
+    }
+
+    private LoanBatchResultDTO returnBooksOnce(List<Long> loanIds) {
+        Map<Long, Object[]> loans = new HashMap<>();
+        for (Object[] row : loanRepository.findReturnStateByIdIn(loanIds)) {
+            loans.put((Long) row[0], row);
+        }
+
+        LoanBatchItemDTO[] items = new LoanBatchItemDTO[loanIds.size()];
+        List<Integer> positions = new ArrayList<>();
+        List<Long> candidates = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < loanIds.size(); i++) {
+            Long loanId = loanIds.get(i);
+            Object[] loan = loans.get(loanId);
+            if (!seen.add(loanId)) {
+                items[i] = new LoanBatchItemDTO(null, loanId, LoanBatchItemDTO.Status.DUPLICATE, null);
+            } else if (loan == null) {
+                items[i] = new LoanBatchItemDTO(null, loanId, LoanBatchItemDTO.Status.NOT_FOUND, null);
+            } else if (loan[4] != null) {
+                items[i] = new LoanBatchItemDTO((Long) loan[1], loanId, LoanBatchItemDTO.Status.ALREADY_RETURNED,
+                        (LocalDate) loan[3]);
+            } else {
+                positions.add(i);
+                candidates.add(loanId);
+            }
+        }
+
+        // El UPDATE solo cierra préstamos abiertos: una devolución concurrente del mismo préstamo obtiene 0
+        int[] closed = loanJdbcRepository.closeAll(candidates, LocalDate.now());
+        List<Long> releasedBooks = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Object[] loan = loans.get(candidates.get(i));
+            LoanBatchItemDTO.Status status;
+            if (closed[i] == 1) {
+                releasedBooks.add((Long) loan[1]);
+                status = LoanBatchItemDTO.Status.RETURNED;
+                eventPublisher.publishEvent(LoanEvent.returned(candidates.get(i), (Long) loan[1], (Long) loan[2],
+                        (LocalDate) loan[3]));
+            } else {
+                status = LoanBatchItemDTO.Status.ALREADY_RETURNED;
+            }
+            items[positions.get(i)] = new LoanBatchItemDTO((Long) loan[1], candidates.get(i), status, (LocalDate) loan[3]);
+        }
+        bookJdbcRepository.releaseAll(releasedBooks);
+
+        return LoanBatchResultDTO.of(List.of(items));
+    }
+
+    public ReservationStatsDTO reservationStats() {
+        return reservationEngine.stats();
+    }
 
-        return loanRepository.save(loan);
+    // Multa acumulada por los préstamos activos vencidos del usuario, sin consultar la tabla de préstamos
+    public UserFineDTO accruedFine(Long userId) {
+        return fineAccrualEngine.fineFor(userId);
+    }
+
+    public List<UserFineDTO> topAccruedFines(int limit) {
+        return fineAccrualEngine.topFines(limit);
     }
 
     public double calculateFine(Loan loan) {
@@ -72,4 +255,36 @@ public class LoanService {
     public List<Loan> findActiveLoans() {
         return loanRepository.findActiveLoans();
     }
+
+    public PageResponse<LoanDTO> findActivePage(String cursor, Integer size) {
+        int pageSize = pagination.resolveSize(size);
+        List<LoanDTO> loans = loanRepository.findActivePageAfter(pagination.afterId(cursor), PageRequest.ofSize(pageSize + 1));
+        return Pagination.page(loans, pageSize, loan -> Pagination.idCursor(loan.id()));
+    }
+
+    public PageResponse<LoanDTO> findActiveByUser(Long userId, String cursor, Integer size) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+        int pageSize = pagination.resolveSize(size);
+        List<LoanDTO> loans = loanRepository.findActiveByUserPageAfter(
+                userId, pagination.afterId(cursor), PageRequest.ofSize(pageSize + 1));
+        return Pagination.page(loans, pageSize, loan -> Pagination.idCursor(loan.id()));
+    }
+
+    // Préstamos activos que vencen entre hoy y dentro de days días, los que vencen antes primero
+    public PageResponse<LoanDTO> findDueWithin(int days, String cursor, Integer size) {
+        return findDueWithin(days, cursor, size, LocalDate.now());
+    }
+
+    PageResponse<LoanDTO> findDueWithin(int days, String cursor, Integer size, LocalDate today) {
+        int pageSize = pagination.resolveSize(size);
+        LocalDate to = today.plusDays(Math.min(Math.max(days, 0), MAX_DUE_WITHIN_DAYS));
+        long[] after = pagination.afterDate(cursor);
+        LocalDate afterDue = after == null ? today.minusDays(1) : LocalDate.ofEpochDay(after[0]);
+        long afterId = after == null ? 0L : after[1];
+        List<LoanDTO> loans = loanRepository.findActiveDuePageAfter(
+                today, to, afterDue, afterId, PageRequest.ofSize(pageSize + 1));
+        return Pagination.page(loans, pageSize, loan -> Pagination.dateCursor(loan.dueDate(), loan.id()));
+    }
 }
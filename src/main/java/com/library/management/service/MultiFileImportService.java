@@ -0,0 +1,298 @@
+package com.library.management.service;
+
+import com.library.management.dto.CsvImportResultDTO;
+import com.library.management.dto.MultiFileImportResultDTO;
+import com.library.management.metrics.LibraryMetrics;
+import com.opencsv.CSVReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Carga de varios CSV (sueltos o dentro de zips) en una sola petición. Los archivos se reparten por
+// fork-join en csvParsePool y se analizan en paralelo; los bloques validados pasan por una cola acotada
+// a un único escritor (el hilo de la petición) que los inserta con BookImportService.writeChunk, así
+// H2 no recibe transacciones concurrentes de la misma carga y cada autor se resuelve una sola vez.
+// Los duplicados entre archivos se detectan con un conjunto de claves naturales compartido.
+@Service
+public class MultiFileImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MultiFileImportService.class);
+
+    private static final long POLL_MILLIS = 100;
+
+    private final BookImportService bookImportService;
+    private final ForkJoinPool csvParsePool;
+    private final LibraryMetrics libraryMetrics;
+    private final int chunkSize;
+    private final int maxFiles;
+
+    public MultiFileImportService(BookImportService bookImportService,
+                                  ForkJoinPool csvParsePool,
+                                  LibraryMetrics libraryMetrics,
+                                  @Value("${library.import.chunk-size:1000}") int chunkSize,
+                                  @Value("${library.import.max-files:50}") int maxFiles) {
+        this.bookImportService = bookImportService;
+        this.csvParsePool = csvParsePool;
+        this.libraryMetrics = libraryMetrics;
+        this.chunkSize = chunkSize;
+        this.maxFiles = maxFiles;
+    }
+
+    private record CsvSource(String name, InputStreamSource content) {
+    }
+
+    private record ParsedChunk(ImportProgress progress, List<CsvBookRow> rows) {
+    }
+
+    // Estado compartido por las tareas de análisis de una carga
+    private static final class Upload {
+        private final List<CsvSource> sources;
+        private final ImportProgress[] progress;
+        private final String[] errors;
+        private final Set<String> seenKeys = ConcurrentHashMap.newKeySet();
+        private final BlockingQueue<ParsedChunk> queue;
+        private volatile boolean aborted;
+
+        private Upload(List<CsvSource> sources, int queueCapacity) {
+            this.sources = sources;
+            this.progress = new ImportProgress[sources.size()];
+            this.errors = new String[sources.size()];
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            for (int i = 0; i < sources.size(); i++) {
+                progress[i] = new ImportProgress(sources.get(i).name());
+            }
+        }
+
+        // Bloquea mientras el escritor va por detrás; así la memoria queda acotada a la cola
+        private void put(ParsedChunk chunk) throws InterruptedException {
+            while (!queue.offer(chunk, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (aborted) {
+                    throw new CancellationException("La carga se canceló");
+                }
+            }
+        }
+    }
+
+    // Divide el rango de archivos por la mitad hasta quedarse con uno
+    private final class ParseTask extends RecursiveAction {
+        private final Upload upload;
+        private final int from;
+        private final int to;
+
+        private ParseTask(Upload upload, int from, int to) {
+            this.upload = upload;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                parse(upload, from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask(upload, from, middle), new ParseTask(upload, middle, to));
+        }
+    }
+
+    public MultiFileImportResultDTO importFiles(List<MultipartFile> files) throws IOException {
+        long start = System.nanoTime();
+        List<Path> tempFiles = new ArrayList<>();
+        List<ZipFile> zipFiles = new ArrayList<>();
+        try {
+            List<CsvSource> sources = collectSources(files, tempFiles, zipFiles);
+            if (sources.isEmpty()) {
+                throw new IllegalArgumentException("La carga no contiene archivos CSV");
+            }
+            if (sources.size() > maxFiles) {
+                throw new IllegalArgumentException("La carga contiene " + sources.size()
+                        + " archivos CSV; el máximo es " + maxFiles);
+            }
+            return run(sources, start);
+        } finally {
+            zipFiles.forEach(this::closeQuietly);
+            tempFiles.forEach(this::deleteQuietly);
+        }
+    }
+
+    private MultiFileImportResultDTO run(List<CsvSource> sources, long start) throws IOException {
+        logger.info("Iniciando carga múltiple de {} archivos CSV ({} en paralelo)",
+                sources.size(), csvParsePool.getParallelism());
+
+        Upload upload = new Upload(sources, csvParsePool.getParallelism() * 2);
+        ForkJoinTask<?> parsing = csvParsePool.submit(new ParseTask(upload, 0, sources.size()));
+        boolean succeeded = false;
+        try {
+            writeAll(upload, parsing);
+            succeeded = true;
+        } finally {
+            if (!succeeded) {
+                upload.aborted = true;
+                parsing.quietlyJoin();
+            }
+            for (int i = 0; i < sources.size(); i++) {
+                upload.progress[i].finish();
+                libraryMetrics.importFinished(upload.progress[i], succeeded && upload.errors[i] == null);
+            }
+        }
+
+        MultiFileImportResultDTO result = toResult(upload, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Carga múltiple finalizada: {} archivos, {} filas leídas, {} libros guardados, {} archivos con error en {} ms",
+                result.files(), result.rowsRead(), result.accepted(), result.errors().size(), result.elapsedMillis());
+        return result;
+    }
+
+    // Único escritor: vacía la cola hasta que todas las tareas de análisis han terminado
+    private void writeAll(Upload upload, ForkJoinTask<?> parsing) throws IOException {
+        try {
+            while (true) {
+                ParsedChunk chunk = upload.queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (chunk != null) {
+                    bookImportService.writeChunk(chunk.rows(), chunk.progress());
+                } else if (parsing.isDone()) {
+                    // Lo encolado antes de terminar el análisis sigue en la cola
+                    while ((chunk = upload.queue.poll()) != null) {
+                        bookImportService.writeChunk(chunk.rows(), chunk.progress());
+                    }
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Carga múltiple interrumpida");
+        }
+    }
+
+    // Analiza un archivo; un archivo ilegible se anota como error y no detiene al resto
+    private void parse(Upload upload, int index) {
+        CsvSource source = upload.sources.get(index);
+        ImportProgress progress = upload.progress[index];
+        try (InputStream inputStream = source.content().getInputStream();
+             CSVReader reader = CsvSupport.openReader(inputStream)) {
+            CsvSupport.validateHeader(reader.readNext());
+
+            List<CsvBookRow> chunk = new ArrayList<>(chunkSize);
+            String[] nextLine;
+            int row = 2; // Comenzar desde la segunda fila (primera fila = encabezado)
+
+            while ((nextLine = reader.readNext()) != null && !upload.aborted) {
+                progress.rowRead();
+                CsvBookRow bookRow = BookImportService.toBookRow(nextLine, row++, progress);
+                if (bookRow == null) {
+                    continue;
+                }
+                if (!upload.seenKeys.add(bookRow.naturalKey())) {
+                    logger.warn("{} fila {}: libro '{}' por '{}' ya está presente en la carga actual, omitiendo",
+                            source.name(), bookRow.rowNumber(), bookRow.title(), bookRow.authorName());
+                    progress.skipped(ImportSkipReason.DUPLICATE_IN_FILE);
+                    continue;
+                }
+                chunk.add(bookRow);
+                if (chunk.size() >= chunkSize) {
+                    upload.put(new ParsedChunk(progress, chunk));
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                upload.put(new ParsedChunk(progress, chunk));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            upload.errors[index] = "Análisis interrumpido";
+        } catch (Exception e) {
+            logger.warn("No se pudo procesar el archivo {}: {}", source.name(), e.getMessage());
+            upload.errors[index] = e.getMessage();
+        }
+    }
+
+    // Un zip aporta cada uno de sus .csv; se copia a un temporal para poder leer sus entradas en paralelo
+    private List<CsvSource> collectSources(List<MultipartFile> files, List<Path> tempFiles,
+                                           List<ZipFile> zipFiles) throws IOException {
+        List<CsvSource> sources = new ArrayList<>();
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) {
+                continue;
+            }
+            String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : file.getName();
+            if (!name.toLowerCase(Locale.ROOT).endsWith(".zip")) {
+                sources.add(new CsvSource(name, file));
+                continue;
+            }
+            Path tempFile = Files.createTempFile("library-import-", ".zip");
+            tempFiles.add(tempFile);
+            file.transferTo(tempFile);
+            ZipFile zipFile = new ZipFile(tempFile.toFile());
+            zipFiles.add(zipFile);
+            for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                if (!entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                    sources.add(new CsvSource(name + "!" + entry.getName(), () -> zipFile.getInputStream(entry)));
+                }
+            }
+        }
+        return sources;
+    }
+
+    private static MultiFileImportResultDTO toResult(Upload upload, long elapsedMillis) {
+        List<CsvImportResultDTO> results = new ArrayList<>(upload.progress.length);
+        Map<String, Long> skipped = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        long rowsRead = 0;
+        long accepted = 0;
+        for (int i = 0; i < upload.progress.length; i++) {
+            CsvImportResultDTO result = upload.progress[i].toResult();
+            results.add(result);
+            rowsRead += result.rowsRead();
+            accepted += result.accepted();
+            result.skipped().forEach((reason, count) -> skipped.merge(reason, count, Long::sum));
+            if (upload.errors[i] != null) {
+                errors.put(result.fileName(), upload.errors[i]);
+            }
+        }
+        double rowsPerSecond = elapsedMillis == 0 ? 0.0 : rowsRead * 1000.0 / elapsedMillis;
+        return new MultiFileImportResultDTO(results.size(), rowsRead, accepted, skipped, elapsedMillis,
+                rowsPerSecond, results, errors);
+    }
+
+    private void closeQuietly(ZipFile zipFile) {
+        try {
+            zipFile.close();
+        } catch (IOException e) {
+            logger.warn("No se pudo cerrar el zip {}", zipFile.getName(), e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar el archivo temporal {}", file, e);
+        }
+    }
+}
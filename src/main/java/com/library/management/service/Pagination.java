@@ -0,0 +1,132 @@
+package com.library.management.service;
+
+import com.library.management.dto.PageResponse;
+import com.library.management.exception.InvalidPageRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Paginación por cursor (keyset): el cursor codifica la clave del último elemento devuelto y la
+// siguiente página se pide con "WHERE clave > cursor", así el coste no depende de la profundidad.
+@Component
+public class Pagination {
+
+    private static final String ID_CURSOR = "i";
+    private static final String SCORE_CURSOR = "s";
+    private static final String DATE_CURSOR = "d";
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public Pagination(@Value("${library.pagination.default-size:50}") int defaultSize,
+                      @Value("${library.pagination.max-size:500}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    public int resolveSize(Integer requested) {
+        if (requested == null) {
+            return defaultSize;
+        }
+        if (requested < 1) {
+            throw new InvalidPageRequestException("El tamaño de página debe ser mayor que 0");
+        }
+        return Math.min(requested, maxSize);
+    }
+
+    // Id a partir del cual continuar; 0 si es la primera página
+    public long afterId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        String[] parts = decode(cursor);
+        if (parts.length != 2 || !ID_CURSOR.equals(parts[0])) {
+            throw new InvalidPageRequestException("Cursor inválido: " + cursor);
+        }
+        return parseLong(parts[1], cursor);
+    }
+
+    // Para los listados de más reciente a más antiguo ("WHERE id < cursor"); Long.MAX_VALUE en la primera página
+    public long beforeId(String cursor) {
+        return cursor == null || cursor.isBlank() ? Long.MAX_VALUE : afterId(cursor);
+    }
+
+    public static String idCursor(Long id) {
+        return encode(ID_CURSOR, String.valueOf(id));
+    }
+
+    public static String scoreCursor(int score, Long id) {
+        return encode(SCORE_CURSOR, String.valueOf(score), String.valueOf(id));
+    }
+
+    // [score, id] del último elemento de la página anterior, o null si es la primera página
+    public long[] afterScore(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = decode(cursor);
+        if (parts.length != 3 || !SCORE_CURSOR.equals(parts[0])) {
+            throw new InvalidPageRequestException("Cursor inválido: " + cursor);
+        }
+        return new long[]{parseLong(parts[1], cursor), parseLong(parts[2], cursor)};
+    }
+
+    public static String dateCursor(LocalDate date, Long id) {
+        return encode(DATE_CURSOR, String.valueOf(date.toEpochDay()), String.valueOf(id));
+    }
+
+    // [día (epoch day), id] del último elemento de la página anterior, o null si es la primera página
+    public long[] afterDate(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = decode(cursor);
+        if (parts.length != 3 || !DATE_CURSOR.equals(parts[0])) {
+            throw new InvalidPageRequestException("Cursor inválido: " + cursor);
+        }
+        return new long[]{parseLong(parts[1], cursor), parseLong(parts[2], cursor)};
+    }
+
+    public static boolean isIdCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return false;
+        }
+        String[] parts = decode(cursor);
+        return parts.length > 0 && ID_CURSOR.equals(parts[0]);
+    }
+
+    // Construye la página a partir de hasta size + 1 elementos: el elemento extra solo indica que hay más
+    public static <T> PageResponse<T> page(List<T> fetched, int size, Function<T, String> cursorOf) {
+        if (fetched.size() <= size) {
+            return new PageResponse<>(fetched, fetched.size(), null);
+        }
+        List<T> content = fetched.subList(0, size);
+        return new PageResponse<>(content, size, cursorOf.apply(content.get(size - 1)));
+    }
+
+    static String encode(String... parts) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(":", parts).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException("Cursor inválido: " + cursor);
+        }
+    }
+
+    static long parseLong(String value, String cursor) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidPageRequestException("Cursor inválido: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.library.management.service;
+
+import com.library.management.dto.AvailableBookDTO;
+import com.library.management.dto.PopularBookDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.LoanEvent;
+import com.library.management.repository.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Ranking de libros más prestados en una ventana deslizante de library.popularity.window-days días.
+// Los préstamos se cuentan por día y por libro; los totales de la ventana se mantienen en conjuntos
+// ordenados (global y por género), así el top-K cuesta O(K) y no depende del historial de préstamos.
+// Cada cierto tiempo se reconcilia con la base de datos por si se perdió algún evento.
+@Component
+public class PopularityTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(PopularityTracker.class);
+
+    private static final Comparator<Rank> BY_LOANS_DESC =
+            Comparator.comparingLong(Rank::loans).reversed().thenComparing(Rank::bookId);
+
+    private final LoanRepository loanRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final int windowDays;
+
+    // día -> (libro -> préstamos de ese día)
+    private final NavigableMap<LocalDate, Map<Long, Long>> buckets = new TreeMap<>();
+    private final Map<Long, Long> totals = new HashMap<>();
+    private final Map<Long, String> genreKeys = new HashMap<>();
+    private final NavigableSet<Rank> ranking = new TreeSet<>(BY_LOANS_DESC);
+    private final Map<String, NavigableSet<Rank>> rankingByGenre = new HashMap<>();
+    // Préstamos recibidos mientras se reconcilia; los posteriores a la consulta se vuelven a aplicar
+    private final List<LoanEvent> pendingDuringReconcile = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean reconciling;
+
+    public PopularityTracker(LoanRepository loanRepository,
+                             AvailabilityIndex availabilityIndex,
+                             @Value("${library.popularity.window-days:30}") int windowDays) {
+        this.loanRepository = loanRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.windowDays = windowDays;
+    }
+
+    private record Rank(long loans, Long bookId) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${library.popularity.reconcile-interval:PT1H}",
+            initialDelayString = "${library.popularity.reconcile-interval:PT1H}")
+    public void reconcile() {
+        reconcile(LocalDate.now());
+    }
+
+    void reconcile(LocalDate today) {
+        LocalDate from = windowStart(today);
+        lock.writeLock().lock();
+        try {
+            reconciling = true;
+            pendingDuringReconcile.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        Long maxLoanId = loanRepository.findMaxId();
+        List<Object[]> rows = maxLoanId == null
+                ? List.of()
+                : loanRepository.countLoansByBookAndDaySince(from, maxLoanId);
+
+        lock.writeLock().lock();
+        try {
+            buckets.clear();
+            totals.clear();
+            genreKeys.clear();
+            ranking.clear();
+            rankingByGenre.clear();
+            for (Object[] row : rows) {
+                Long bookId = (Long) row[0];
+                genreKeys.put(bookId, AvailabilityIndex.key((String) row[1]));
+                add(bookId, (LocalDate) row[2], (Long) row[3]);
+            }
+            for (LoanEvent event : pendingDuringReconcile) {
+                if (maxLoanId == null || event.loanId() > maxLoanId) {
+                    record(event);
+                }
+            }
+            pendingDuringReconcile.clear();
+            reconciling = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Ranking de popularidad reconciliado: {} libros con préstamos desde {} en {} ms",
+                totals.size(), from, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoan(LoanEvent event) {
+        if (event.type() != LoanEvent.Type.BORROWED) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (reconciling) {
+                pendingDuringReconcile.add(event);
+            }
+            record(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Un cambio de género mueve el libro de ranking; los préstamos acumulados se conservan
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.type() == BookChangedEvent.Type.CREATED) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Long total = totals.get(event.bookId());
+            if (total == null) {
+                return;
+            }
+            Rank rank = new Rank(total, event.bookId());
+            removeRank(rank);
+            if (event.type() == BookChangedEvent.Type.DELETED) {
+                forget(event.bookId());
+            } else {
+                genreKeys.put(event.bookId(), AvailabilityIndex.key(event.genre()));
+                addRank(rank);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Al cambiar de día los préstamos que salen de la ventana dejan de contar
+    @Scheduled(cron = "${library.popularity.roll-cron:0 0 0 * * *}")
+    public void rollWindow() {
+        rollWindow(LocalDate.now());
+    }
+
+    void rollWindow(LocalDate today) {
+        lock.writeLock().lock();
+        try {
+            expireBefore(windowStart(today));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<PopularBookDTO> top(String genre, int limit) {
+        List<Rank> ranks = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            NavigableSet<Rank> source = genre == null ? ranking : rankingByGenre.get(AvailabilityIndex.key(genre));
+            if (source != null) {
+                Iterator<Rank> iterator = source.iterator();
+                while (iterator.hasNext() && ranks.size() < limit) {
+                    ranks.add(iterator.next());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<PopularBookDTO> books = new ArrayList<>(ranks.size());
+        for (Rank rank : ranks) {
+            AvailableBookDTO book = availabilityIndex.summaryOf(rank.bookId());
+            books.add(book == null
+                    ? new PopularBookDTO(rank.bookId(), null, null, null, rank.loans())
+                    : new PopularBookDTO(book.id(), book.title(), book.authorName(), book.genre(), rank.loans()));
+        }
+        return books;
+    }
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    private LocalDate windowStart(LocalDate today) {
+        return today.minusDays(windowDays - 1L);
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void record(LoanEvent event) {
+        LocalDate day = LocalDate.ofInstant(event.occurredAt(), ZoneId.systemDefault());
+        expireBefore(windowStart(day));
+        if (!genreKeys.containsKey(event.bookId())) {
+            AvailableBookDTO book = availabilityIndex.summaryOf(event.bookId());
+            genreKeys.put(event.bookId(), AvailabilityIndex.key(book != null ? book.genre() : null));
+        }
+        add(event.bookId(), day, 1);
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void add(Long bookId, LocalDate day, long loans) {
+        buckets.computeIfAbsent(day, d -> new HashMap<>()).merge(bookId, loans, Long::sum);
+        long previous = totals.getOrDefault(bookId, 0L);
+        if (previous > 0) {
+            removeRank(new Rank(previous, bookId));
+        }
+        totals.put(bookId, previous + loans);
+        addRank(new Rank(previous + loans, bookId));
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void expireBefore(LocalDate start) {
+        while (!buckets.isEmpty() && buckets.firstKey().isBefore(start)) {
+            Map<Long, Long> expired = buckets.pollFirstEntry().getValue();
+            expired.forEach((bookId, loans) -> {
+                Long previous = totals.get(bookId);
+                if (previous == null) {
+                    return; // libro borrado
+                }
+                removeRank(new Rank(previous, bookId));
+                if (previous.equals(loans)) {
+                    forget(bookId);
+                } else {
+                    totals.put(bookId, previous - loans);
+                    addRank(new Rank(previous - loans, bookId));
+                }
+            });
+        }
+    }
+
+    private void addRank(Rank rank) {
+        ranking.add(rank);
+        rankingByGenre.computeIfAbsent(genreKeys.get(rank.bookId()), g -> new TreeSet<>(BY_LOANS_DESC)).add(rank);
+    }
+
+    private void removeRank(Rank rank) {
+        ranking.remove(rank);
+        String genreKey = genreKeys.get(rank.bookId());
+        NavigableSet<Rank> genreRanking = rankingByGenre.get(genreKey);
+        if (genreRanking != null) {
+            genreRanking.remove(rank);
+            if (genreRanking.isEmpty()) {
+                rankingByGenre.remove(genreKey);
+            }
+        }
+    }
+
+    private void forget(Long bookId) {
+        totals.remove(bookId);
+        genreKeys.remove(bookId);
+    }
+}
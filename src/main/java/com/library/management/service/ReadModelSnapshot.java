@@ -0,0 +1,230 @@
+package com.library.management.service;
+
+import com.library.management.dto.JournalPageDTO;
+import com.library.management.journal.ChangeJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Instantánea binaria del modelo de lectura en memoria (libros con título, autor, género y disponibilidad)
+// junto con la secuencia del diario de cambios en la que se tomó. Al arrancar, antes de que Tomcat acepte
+// peticiones, se carga, se pone al día con ChangeJournal.replay y se entrega a AvailabilityIndex y
+// BookSearchIndex: las primeras lecturas ya no esperan a la reconstrucción ni caen en el LIKE. La
+// reconstrucción desde la base de datos en ApplicationReadyEvent sigue siendo la fuente de verdad y
+// sustituye después a lo restaurado. Se escribe cada library.snapshot.interval y al parar.
+@Component
+public class ReadModelSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadModelSnapshot.class);
+
+    private static final int MAGIC = 0x4C524D53;
+    private static final int VERSION = 1;
+    // Un cambio puede estar ya en el diario y aún no en los índices cuando se toma la instantánea; se vuelven
+    // a aplicar las últimas entradas anteriores (aplicarlas de nuevo en orden deja el mismo estado)
+    private static final int REPLAY_OVERLAP = 1000;
+
+    private final AvailabilityIndex availabilityIndex;
+    private final BookSearchIndex bookSearchIndex;
+    private final ChangeJournal changeJournal;
+    private final Path file;
+    private final boolean enabled;
+    // La escritura programada y la de parada no deben compartir el temporal
+    private final Lock writeLock = new ReentrantLock();
+    private volatile Restore lastRestore = new Restore(Outcome.DISABLED, 0, 0, 0);
+
+    public ReadModelSnapshot(AvailabilityIndex availabilityIndex,
+                             BookSearchIndex bookSearchIndex,
+                             ChangeJournal changeJournal,
+                             @Value("${library.snapshot.file:./data/read-model.snapshot}") String file,
+                             @Value("${library.snapshot.enabled:true}") boolean enabled) {
+        this.availabilityIndex = availabilityIndex;
+        this.bookSearchIndex = bookSearchIndex;
+        this.changeJournal = changeJournal;
+        this.file = Paths.get(file);
+        this.enabled = enabled;
+    }
+
+    public record BookRow(Long id, String title, String authorName, String genre, boolean available) {
+
+        BookRow withAvailable(boolean value) {
+            return new BookRow(id, title, authorName, genre, value);
+        }
+    }
+
+    public enum Outcome {
+        RESTORED, MISSING, STALE, FAILED, DISABLED
+    }
+
+    public record Restore(Outcome outcome, int books, long replayedEntries, long elapsedMillis) {
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (!Files.exists(file)) {
+            lastRestore = new Restore(Outcome.MISSING, 0, 0, 0);
+            logger.info("Sin instantánea del modelo de lectura en {}; los índices se construirán desde la base de datos", file);
+            return;
+        }
+
+        try {
+            Map<Long, BookRow> books = new LinkedHashMap<>();
+            long sequence = read(books);
+            // Si el diario ya no llega a la secuencia de la instantánea no se puede poner al día
+            JournalPageDTO head = changeJournal.read(sequence + 1, 1);
+            if (head.firstSequence() > sequence + 1 || head.lastSequence() < sequence) {
+                lastRestore = new Restore(Outcome.STALE, 0, 0, elapsedMillis(start));
+                logger.warn("La instantánea {} (secuencia {}) no se puede poner al día con el diario ({} a {}); se descarta",
+                        file, sequence, head.firstSequence(), head.lastSequence());
+                return;
+            }
+            long[] replayed = {0};
+            changeJournal.replay(Math.max(head.firstSequence(), sequence + 1 - REPLAY_OVERLAP), entry -> {
+                replayed[0]++;
+                switch (entry.type()) {
+                    case BOOK_CREATED, BOOK_UPDATED -> {
+                        // Sin available (cambio de nombre del autor) se conserva la disponibilidad anterior
+                        BookRow previous = books.get(entry.bookId());
+                        boolean available = entry.available() != null
+                                ? entry.available()
+                                : previous != null && previous.available();
+                        books.put(entry.bookId(), new BookRow(entry.bookId(), entry.title(), entry.authorName(),
+                                entry.genre(), available));
+                    }
+                    case BOOK_DELETED -> books.remove(entry.bookId());
+                    case BORROWED -> books.computeIfPresent(entry.bookId(), (id, row) -> row.withAvailable(false));
+                    case RETURNED -> books.computeIfPresent(entry.bookId(), (id, row) -> row.withAvailable(true));
+                }
+            });
+
+            availabilityIndex.restore(books.values());
+            bookSearchIndex.restore(books.values());
+            lastRestore = new Restore(Outcome.RESTORED, books.size(), replayed[0], elapsedMillis(start));
+            logger.info("Modelo de lectura restaurado desde {}: {} libros, {} entradas del diario aplicadas en {} ms",
+                    file, books.size(), replayed[0], lastRestore.elapsedMillis());
+        } catch (IOException | RuntimeException e) {
+            lastRestore = new Restore(Outcome.FAILED, 0, 0, elapsedMillis(start));
+            logger.warn("No se pudo restaurar la instantánea {}; los índices se construirán desde la base de datos", file, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.snapshot.interval:PT10M}",
+            initialDelayString = "${library.snapshot.interval:PT10M}")
+    public void scheduledWrite() {
+        write();
+    }
+
+    @PreDestroy
+    public void write() {
+        if (!enabled || !availabilityIndex.isReady()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            writeSnapshot();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeSnapshot() {
+        long start = System.nanoTime();
+        // La secuencia se lee antes que los libros: lo que entre en medio se vuelve a aplicar al restaurar
+        long sequence = changeJournal.lastSequence();
+        List<BookRow> books = availabilityIndex.snapshot();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            CRC32 crc = new CRC32();
+            try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)), crc))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(sequence);
+                out.writeInt(books.size());
+                for (BookRow book : books) {
+                    out.writeLong(book.id());
+                    writeNullable(out, book.title());
+                    writeNullable(out, book.authorName());
+                    writeNullable(out, book.genre());
+                    out.writeBoolean(book.available());
+                }
+                out.writeLong(crc.getValue());
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Instantánea del modelo de lectura escrita en {}: {} libros, secuencia {} en {} ms",
+                    file, books.size(), sequence, elapsedMillis(start));
+        } catch (IOException e) {
+            logger.warn("No se pudo escribir la instantánea {}", file, e);
+        }
+    }
+
+    public Restore getLastRestore() {
+        return lastRestore;
+    }
+
+    // Llena books y devuelve la secuencia del diario en la que se tomó la instantánea
+    private long read(Map<Long, BookRow> books) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Formato de instantánea desconocido");
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                BookRow book = new BookRow(in.readLong(), readNullable(in), readNullable(in), readNullable(in),
+                        in.readBoolean());
+                books.put(book.id(), book);
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Suma de comprobación incorrecta");
+            }
+            return sequence;
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
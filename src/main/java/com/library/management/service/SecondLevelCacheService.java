@@ -0,0 +1,55 @@
+package com.library.management.service;
+
+import com.library.management.dto.CacheRegionStatsDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// Estadísticas e invalidación manual de la cache de segundo nivel de Hibernate
+@Service
+public class SecondLevelCacheService {
+
+    private final SessionFactory sessionFactory;
+
+    public SecondLevelCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public List<CacheRegionStatsDTO> stats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toDTO(region, statistics.getCacheRegionStatistics(region)))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public void evictAll() {
+        sessionFactory.getCache().evictAll();
+    }
+
+    private static CacheRegionStatsDTO toDTO(String region, CacheRegionStatistics statistics) {
+        if (statistics == null) {
+            return null;
+        }
+        long hits = statistics.getHitCount();
+        long misses = statistics.getMissCount();
+        long lookups = hits + misses;
+        // JCache no expone el número de elementos de una región
+        long size = statistics.getElementCountInMemory();
+        return new CacheRegionStatsDTO(
+                region,
+                hits,
+                misses,
+                statistics.getPutCount(),
+                lookups == 0 ? 0.0 : (double) hits / lookups,
+                size == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN ? null : size
+        );
+    }
+}
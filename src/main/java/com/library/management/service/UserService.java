@@ -1,8 +1,10 @@
 package com.library.management.service;
 
+import com.library.management.dto.PageResponse;
 import com.library.management.model.User;
 import com.library.management.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,15 +15,24 @@ public class UserService {
 
 
     private final UserRepository userRepository;
+    private final Pagination pagination;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, Pagination pagination) {
         this.userRepository = userRepository;
+        this.pagination = pagination;
     }
 
     public List<User> findAll() {
         return userRepository.findAll();
     }
 
+    public PageResponse<User> findPage(String cursor, Integer size) {
+        int pageSize = pagination.resolveSize(size);
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(
+                pagination.afterId(cursor), PageRequest.ofSize(pageSize + 1));
+        return Pagination.page(users, pageSize, user -> Pagination.idCursor(user.getId()));
+    }
+
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
@@ -0,0 +1,67 @@
+package com.library.management.config;
+
+import com.library.management.model.User;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Reglas de acceso que dependen del orden de los matchers
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:it-mvc",
+        "library.journal.dir=target/test-data/it-mvc/journal",
+        "library.snapshot.enabled=false"
+})
+@AutoConfigureMockMvc
+public class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void whenAvailabilityStreamOpened_thenOnlyStaffIsAllowed() throws Exception {
+        // when & then
+        mockMvc.perform(get("/api/books/availability/stream"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/books/availability/stream").with(httpBasic("user", "password")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/books/availability/stream").with(httpBasic("librarian", "password")))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    public void whenAnonymousReadsAvailabilityCounts_thenAllowed() throws Exception {
+        // when & then
+        mockMvc.perform(get("/api/books/availability/genres"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void whenUserReadsAnotherUsersLoans_thenForbidden() throws Exception {
+        // given
+        User reader = new User();
+        reader.setName("Lector ajeno");
+        reader.setRole("USER");
+        reader = userRepository.save(reader);
+
+        // when & then
+        mockMvc.perform(get("/api/loans/users/1/active").with(httpBasic("user", "password")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/loans/users/1/history").with(httpBasic("user", "password")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/loans/users/1/counts").with(httpBasic("user", "password")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/loans/users/{userId}/active", reader.getId()).with(httpBasic("librarian", "password")))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,103 @@
+package com.library.management.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.model.User;
+import com.library.management.repository.AuthorRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Préstamos por HTTP con open-in-view: el libro gestionado por la petición no debe volcarse con una versión
+// anterior a la de los UPDATE condicionales de BookJdbcRepository
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:it-mvc",
+        "library.journal.dir=target/test-data/it-mvc/journal",
+        "library.snapshot.enabled=false"
+})
+@AutoConfigureMockMvc
+public class LoanControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void whenBorrowReturnAndBorrowAgainOverHttp_thenEachSucceeds() throws Exception {
+        // given
+        Author author = authorRepository.save(new Author(null, "Ana María Matute", null));
+        Book book = bookRepository.save(new Book(null, "Olvidado rey Gudú", author, "Novela", true));
+        long initialVersion = bookRepository.findById(book.getId()).orElseThrow().getVersion();
+        User user = new User();
+        user.setName("Lector");
+        user.setRole("USER");
+        user = userRepository.save(user);
+
+        // when
+        JsonNode first = borrow(book.getId(), user.getId());
+        mockMvc.perform(post("/api/loans/return/{loanId}", first.get("id").asLong())
+                        .with(httpBasic("librarian", "password")))
+                .andExpect(status().isOk());
+        JsonNode second = borrow(book.getId(), user.getId());
+
+        // then
+        assertThat(second.get("id").asLong()).isNotEqualTo(first.get("id").asLong());
+        Book stored = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(stored.isAvailable()).isFalse();
+        // Reserva, liberación y reserva: un incremento por cada UPDATE condicional y ninguno más
+        assertThat(stored.getVersion()).isEqualTo(initialVersion + 3);
+    }
+
+    @Test
+    public void whenOnlyIfModifiedSinceIsSent_thenCatalogueIsNotAnswered304() throws Exception {
+        // given
+        MvcResult initial = mockMvc.perform(get("/api/books").with(httpBasic("librarian", "password")))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = initial.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(initial.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)).isNull();
+
+        // when / then: la fecha tiene resolución de segundos y no distingue dos cambios en el mismo segundo
+        mockMvc.perform(get("/api/books").with(httpBasic("librarian", "password"))
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, System.currentTimeMillis() + 60_000))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/books").with(httpBasic("librarian", "password"))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    private JsonNode borrow(Long bookId, Long userId) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/loans/borrow")
+                        .param("bookId", bookId.toString())
+                        .param("userId", userId.toString())
+                        .with(httpBasic("librarian", "password")))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+}
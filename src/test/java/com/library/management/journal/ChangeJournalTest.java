@@ -0,0 +1,124 @@
+package com.library.management.journal;
+
+import com.library.management.dto.JournalEntryDTO;
+import com.library.management.dto.JournalPageDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.LoanEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class ChangeJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void whenMutationsAreJournaled_thenConsumersResumeFromOffsetAndSurviveRestart() throws Exception {
+        // given
+        ChangeJournal journal = open(DataSize.ofMegabytes(1), 4);
+        LocalDate due = LocalDate.of(2026, 11, 1);
+        journal.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED, 1L,
+                "Cien años de soledad", "Gabriel García Márquez", "Realismo mágico", true));
+        journal.onLoan(LoanEvent.borrowed(10L, 1L, 7L, due));
+        journal.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, 1L,
+                "Cien años de soledad", null, null, false));
+
+        // when
+        JournalPageDTO first = journal.read(1, 2);
+        JournalPageDTO rest = journal.read(first.nextSequence(), 10);
+        journal.close();
+        ChangeJournal reopened = open(DataSize.ofMegabytes(1), 4);
+        reopened.onLoan(LoanEvent.returned(10L, 1L, 7L, due));
+        List<JournalEntryDTO> replayed = new ArrayList<>();
+        long next = reopened.replay(0, replayed::add);
+
+        // then
+        assertThat(first.entries()).extracting(JournalEntryDTO::type)
+                .containsExactly(JournalEntryDTO.Type.BOOK_CREATED, JournalEntryDTO.Type.BORROWED);
+        assertThat(first.entries().get(0).authorName()).isEqualTo("Gabriel García Márquez");
+        assertThat(first.entries().get(1)).extracting(JournalEntryDTO::loanId, JournalEntryDTO::userId,
+                JournalEntryDTO::dueDate, JournalEntryDTO::title).containsExactly(10L, 7L, due, null);
+        assertThat(first.nextSequence()).isEqualTo(3);
+        assertThat(rest.entries()).singleElement()
+                .extracting(JournalEntryDTO::sequence, JournalEntryDTO::available, JournalEntryDTO::genre)
+                .containsExactly(3L, false, null);
+        assertThat(replayed).extracting(JournalEntryDTO::sequence).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(replayed.get(3).type()).isEqualTo(JournalEntryDTO.Type.RETURNED);
+        assertThat(next).isEqualTo(5);
+        assertThat(reopened.read(next, 10).entries()).isEmpty();
+    }
+
+    @Test
+    public void whenSegmentsFill_thenRollsOverAndDropsOldestSegments() throws Exception {
+        // given
+        ChangeJournal journal = open(DataSize.ofKilobytes(1), 3);
+
+        // when
+        for (long i = 1; i <= 100; i++) {
+            journal.onLoan(LoanEvent.borrowed(i, i, 7L, LocalDate.of(2026, 11, 1)));
+        }
+        JournalPageDTO page = journal.read(1, 500);
+
+        // then
+        assertThat(segmentFiles()).hasSize(3);
+        assertThat(page.lastSequence()).isEqualTo(100);
+        assertThat(page.firstSequence()).isGreaterThan(1);
+        assertThat(page.entries()).extracting(JournalEntryDTO::sequence).first().isEqualTo(page.firstSequence());
+        assertThat(page.entries()).extracting(JournalEntryDTO::loanId).last().isEqualTo(100L);
+        assertThat(page.nextSequence()).isEqualTo(101);
+    }
+
+    @Test
+    public void whenLastRecordIsTorn_thenReopenDiscardsItAndContinues() throws Exception {
+        // given
+        ChangeJournal journal = open(DataSize.ofKilobytes(4), 4);
+        journal.onLoan(LoanEvent.borrowed(1L, 1L, 7L, LocalDate.of(2026, 11, 1)));
+        journal.onLoan(LoanEvent.borrowed(2L, 2L, 7L, LocalDate.of(2026, 11, 1)));
+        journal.close();
+        // Registro a medias: longitud escrita pero sin crc ni cuerpo válidos
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            int position = 0;
+            for (int i = 0; i < 2; i++) {
+                file.seek(position);
+                position += JournalSegment.HEADER_BYTES + file.readInt();
+            }
+            file.seek(position);
+            file.writeInt(64);
+        }
+
+        // when
+        ChangeJournal reopened = open(DataSize.ofKilobytes(4), 4);
+        reopened.onLoan(LoanEvent.returned(1L, 1L, 7L, LocalDate.of(2026, 11, 1)));
+
+        // then
+        assertThat(reopened.read(1, 10).entries()).extracting(JournalEntryDTO::sequence, JournalEntryDTO::type)
+                .containsExactly(
+                        tuple(1L, JournalEntryDTO.Type.BORROWED),
+                        tuple(2L, JournalEntryDTO.Type.BORROWED),
+                        tuple(3L, JournalEntryDTO.Type.RETURNED));
+    }
+
+    private ChangeJournal open(DataSize segmentSize, int maxSegments) throws Exception {
+        ChangeJournal journal = new ChangeJournal(directory.toString(), segmentSize, maxSegments);
+        journal.open();
+        return journal;
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.library.management.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlStatementMetricsTest {
+
+    @Test
+    public void whenStatementsRunBetweenBeginAndEnd_thenTheyAreCountedForThatThread() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DataSource dataSource = SqlStatementMetrics.wrap(
+                new DriverManagerDataSource("jdbc:h2:mem:sqlmetrics;DB_CLOSE_DELAY=-1", "sa", ""), () -> meterRegistry);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE item (id BIGINT PRIMARY KEY)");
+
+        // when
+        SqlStatementMetrics.begin();
+        jdbcTemplate.update("INSERT INTO item (id) VALUES (?)", 1L);
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Long.class);
+        SqlStatementMetrics.RequestTotals totals = SqlStatementMetrics.end();
+
+        // then
+        assertThat(totals.getStatements()).isEqualTo(2);
+        assertThat(totals.getNanos()).isPositive();
+        assertThat(SqlStatementMetrics.end()).isNull();
+        assertThat(meterRegistry.timer("library.sql.statements").count()).isEqualTo(3);
+    }
+}
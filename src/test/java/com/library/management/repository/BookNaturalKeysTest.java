@@ -0,0 +1,54 @@
+package com.library.management.repository;
+
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.service.AuthorService;
+import com.library.management.service.BookSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// El cambio de nombre de un autor reescribe las claves de sus libros por JDBC, fuera de Hibernate
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:it",
+        "library.journal.dir=target/test-data/it/journal",
+        "library.snapshot.enabled=false"
+})
+public class BookNaturalKeysTest {
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Test
+    public void whenAuthorRenamed_thenBooksAreRekeyedVersionedAndReindexed() {
+        // given
+        Author author = authorRepository.save(new Author(null, "Jorge Luis Borjes", null));
+        Book book = bookRepository.save(new Book(null, "Ficciones", author, "Cuentos", true));
+        // Se lee una vez para que quede en la cache de segundo nivel con la clave antigua
+        Book cached = bookRepository.findById(book.getId()).orElseThrow();
+
+        // when
+        authorService.save(new Author(author.getId(), "Jorge Luis Borges", null));
+
+        // then
+        Book renamed = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(renamed.getNaturalKey()).isEqualTo(Book.naturalKey("Ficciones", "Jorge Luis Borges"));
+        assertThat(renamed.getVersion()).isEqualTo(cached.getVersion() + 1);
+        assertThat(renamed.getUpdatedAt()).isAfter(cached.getUpdatedAt());
+        assertThat(bookSearchIndex.search("borges"))
+                .extracting(BookSearchIndex.Match::bookId)
+                .containsExactly(book.getId());
+        assertThat(bookSearchIndex.search("borjes")).isEmpty();
+    }
+}
@@ -0,0 +1,58 @@
+package com.library.management.repository;
+
+import com.library.management.dto.BookDTO;
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.model.User;
+import com.library.management.service.LoanService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// La búsqueda LIKE está en la cache de consultas y proyecta available, que el préstamo cambia por JDBC
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:it",
+        "library.journal.dir=target/test-data/it/journal",
+        "library.snapshot.enabled=false"
+})
+public class BookQueryCacheTest {
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Test
+    public void whenBookIsBorrowed_thenCachedSearchReportsItUnavailable() {
+        // given
+        Author author = authorRepository.save(new Author(null, "Ursula K. Le Guin", null));
+        Book book = bookRepository.save(new Book(null, "Los desposeídos", author, "Ciencia ficción", true));
+        User user = new User();
+        user.setName("Lectora");
+        user.setRole("USER");
+        user = userRepository.save(user);
+        assertThat(search("desposeídos")).singleElement().extracting(BookDTO::available).isEqualTo(true);
+
+        // when
+        loanService.borrowBook(book.getId(), user.getId());
+
+        // then
+        assertThat(search("desposeídos")).singleElement().extracting(BookDTO::available).isEqualTo(false);
+    }
+
+    private List<BookDTO> search(String query) {
+        return bookRepository.searchBooksAfter(query, 0L, PageRequest.ofSize(10));
+    }
+}
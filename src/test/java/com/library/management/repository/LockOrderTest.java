@@ -0,0 +1,25 @@
+package com.library.management.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LockOrderTest {
+
+    @Test
+    public void whenIdsOverlapInAnyOrder_thenSentSortedAndMappedBackToRequestPositions() {
+        // given
+        List<Long> requested = List.of(30L, 10L, 20L, 10L);
+
+        // when
+        List<Long> sorted = LockOrder.sortedDistinct(requested);
+        int[] counts = LockOrder.toRequestOrder(requested, sorted, new int[]{1, 0, 1});
+
+        // then
+        assertThat(sorted).containsExactly(10L, 20L, 30L);
+        // 10 se reservó, 20 ya estaba prestado; la repetición de 10 obtiene 0
+        assertThat(counts).containsExactly(1, 1, 0, 0);
+    }
+}
@@ -0,0 +1,103 @@
+package com.library.management.repository;
+
+import com.library.management.dto.BookDTO;
+import com.library.management.dto.LoanDTO;
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Las proyecciones de los listados deben ejecutar una sola sentencia SQL, sea cual sea el tamaño de la página
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class ProjectionStatementCountTest {
+
+    private static final int ROWS = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setName("Lector");
+        user.setRole("USER");
+        entityManager.persist(user);
+
+        // Un autor distinto por libro: con entidades cada autor sería una consulta más
+        for (int i = 0; i < ROWS; i++) {
+            Author author = new Author(null, "Autor " + i, null);
+            entityManager.persist(author);
+            Book book = new Book(null, "Libro " + i, author, "Novela", i % 2 == 0);
+            entityManager.persist(book);
+            bookIds.add(book.getId());
+
+            Loan loan = new Loan();
+            loan.setBook(book);
+            loan.setUser(user);
+            loan.setLoanDate(LocalDate.now());
+            loan.setDueDate(LocalDate.now().plusDays(15));
+            entityManager.persist(loan);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void whenListingBookPage_thenSingleStatement() {
+        List<BookDTO> books = bookRepository.findPageAfter(0L, PageRequest.ofSize(ROWS + 1));
+
+        assertThat(books).hasSize(ROWS).allSatisfy(book -> assertThat(book.authorName()).startsWith("Autor"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenSearchingBooks_thenSingleStatementPerPath() {
+        List<BookDTO> byLike = bookRepository.searchBooksAfter("Libro", 0L, PageRequest.ofSize(ROWS + 1));
+        List<BookDTO> byIndex = bookRepository.findDTOsByIdIn(bookIds);
+
+        assertThat(byLike).hasSize(ROWS);
+        assertThat(byIndex).hasSize(ROWS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenListingActiveLoans_thenSingleStatement() {
+        List<LoanDTO> loans = loanRepository.findActivePageAfter(0L, PageRequest.ofSize(ROWS + 1));
+
+        assertThat(loans).hasSize(ROWS).allSatisfy(loan -> {
+            assertThat(loan.authorName()).startsWith("Autor");
+            assertThat(loan.userName()).isEqualTo("Lector");
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
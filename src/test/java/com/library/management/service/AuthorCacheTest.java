@@ -0,0 +1,145 @@
+package com.library.management.service;
+
+import com.library.management.dto.AuthorCacheStatsDTO;
+import com.library.management.model.Author;
+import com.library.management.repository.AuthorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthorCacheTest {
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AuthorCache authorCache;
+
+    @BeforeEach
+    public void setUp() {
+        authorCache = new AuthorCache(authorRepository, transactionManager, 2);
+    }
+
+    @Test
+    public void whenInsertHitsUniqueName_thenExistingAuthorIsReloaded() {
+        // given
+        when(authorRepository.findByName("Clarice Lispector"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new Author(4L, "Clarice Lispector", null)));
+        when(authorRepository.save(any(Author.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_author_name"));
+
+        // when
+        Author author = authorCache.resolve("Clarice Lispector");
+
+        // then
+        assertThat(author.getId()).isEqualTo(4L);
+        assertThat(authorCache.resolve("Clarice Lispector").getId()).isEqualTo(4L);
+        verify(authorRepository, times(2)).findByName("Clarice Lispector");
+    }
+
+    @Test
+    public void whenResolveTwice_thenRepositoryIsQueriedOnce() {
+        // given
+        when(authorRepository.findByName("George Orwell")).thenReturn(Optional.of(new Author(1L, "George Orwell", null)));
+
+        // when
+        Author first = authorCache.resolve("George Orwell");
+        Author second = authorCache.resolve("George Orwell");
+
+        // then
+        assertThat(first.getId()).isEqualTo(1L);
+        assertThat(second.getId()).isEqualTo(1L);
+        verify(authorRepository, times(1)).findByName("George Orwell");
+        AuthorCacheStatsDTO stats = authorCache.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenConcurrentResolveOfNewAuthor_thenCreatedOnce() throws Exception {
+        // given
+        when(authorRepository.findByName("Nuevo Autor")).thenReturn(Optional.empty());
+        when(authorRepository.save(any(Author.class))).thenAnswer(invocation -> {
+            Author author = invocation.getArgument(0);
+            Thread.sleep(20);
+            author.setId(7L);
+            return author;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Author>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return authorCache.resolve("Nuevo Autor");
+            }));
+        }
+
+        // when
+        start.countDown();
+        for (Future<Author> result : results) {
+            assertThat(result.get().getId()).isEqualTo(7L);
+        }
+        pool.shutdown();
+
+        // then
+        verify(authorRepository, times(1)).save(any(Author.class));
+        assertThat(authorCache.stats().creations()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenResolveAll_thenMissingAuthorsAreFetchedInOneQuery() {
+        // given
+        when(authorRepository.findByNameIn(anyCollection()))
+                .thenReturn(List.of(new Author(1L, "George Orwell", null), new Author(2L, "Miguel de Cervantes", null)));
+
+        // when
+        Map<String, Author> authors = authorCache.resolveAll(List.of("George Orwell", "Miguel de Cervantes"));
+
+        // then
+        assertThat(authors).hasSize(2);
+        assertThat(authors.get("Miguel de Cervantes").getId()).isEqualTo(2L);
+        assertThat(authorCache.resolve("George Orwell").getId()).isEqualTo(1L);
+        assertThat(authorCache.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenEvict_thenNextResolveQueriesRepository() {
+        // given
+        when(authorRepository.findByName("George Orwell")).thenReturn(Optional.of(new Author(1L, "George Orwell", null)));
+        authorCache.resolve("George Orwell");
+
+        // when
+        authorCache.evict(1L);
+        authorCache.resolve("George Orwell");
+
+        // then
+        verify(authorRepository, times(2)).findByName("George Orwell");
+        assertThat(authorCache.stats().evictions()).isEqualTo(1);
+    }
+}
@@ -1,18 +1,24 @@
 package com.library.management.service;
 
+import com.library.management.event.AuthorChangedEvent;
+import com.library.management.event.BookChangedEvent;
 import com.library.management.model.Author;
 import com.library.management.repository.AuthorRepository;
+import com.library.management.repository.BookNaturalKeys;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,6 +27,15 @@ public class AuthorServiceTest {
     @Mock
     private AuthorRepository authorRepository;
 
+    @Mock
+    private AuthorCache authorCache;
+
+    @Mock
+    private BookNaturalKeys bookNaturalKeys;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AuthorService authorService;
 
@@ -57,4 +72,42 @@ public class AuthorServiceTest {
         assertThat(foundAuthor).isPresent();
         assertThat(foundAuthor.get().getName()).isEqualTo("Test Author");
     }
+
+    @Test
+    public void whenAuthorRenamed_thenEachBookIsPublishedWithNewName() {
+        // given
+        Author author = new Author(1L, "George Orwel", null);
+        when(authorRepository.save(author)).thenReturn(new Author(1L, "George Orwell", null));
+        when(bookNaturalKeys.refreshAuthor(1L, "George Orwell")).thenReturn(List.of(
+                new BookNaturalKeys.RekeyedBook(10L, "1984", "Distopía"),
+                new BookNaturalKeys.RekeyedBook(11L, "Rebelión en la granja", "Sátira")));
+
+        // when
+        authorService.save(author);
+
+        // then
+        verify(eventPublisher).publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED,
+                10L, "1984", "George Orwell", "Distopía", null));
+        verify(eventPublisher).publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED,
+                11L, "Rebelión en la granja", "George Orwell", "Sátira", null));
+        verify(eventPublisher).publishEvent(new AuthorChangedEvent(1L));
+        verifyNoInteractions(authorCache);
+    }
+
+    @Test
+    public void whenNewAuthorSaved_thenNoBookIsRekeyed() {
+        // given: como JPA, save asigna el id al propio objeto
+        Author author = new Author(null, "Elena Fortún", null);
+        when(authorRepository.save(author)).thenAnswer(invocation -> {
+            author.setId(2L);
+            return author;
+        });
+
+        // when
+        authorService.save(author);
+
+        // then
+        verifyNoInteractions(bookNaturalKeys);
+        verify(eventPublisher).publishEvent(new AuthorChangedEvent(2L));
+    }
 }
@@ -0,0 +1,63 @@
+package com.library.management.service;
+
+import com.library.management.model.Author;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Lo que AuthorService hace después del commit solo se comprueba con una transacción real
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:it",
+        "library.journal.dir=target/test-data/it/journal",
+        "library.snapshot.enabled=false"
+})
+public class AuthorServiceTransactionTest {
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private CatalogueVersion catalogueVersion;
+
+    @Autowired
+    private AuthorCache authorCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void whenAuthorIsSaved_thenCatalogueVersionChangesOnlyAfterCommit() {
+        // given
+        String before = catalogueVersion.etag();
+
+        // when
+        String duringTransaction = transactionTemplate.execute(status -> {
+            authorService.save(new Author(null, "Gloria Fuertes", null));
+            return catalogueVersion.etag();
+        });
+
+        // then
+        assertThat(duringTransaction).isEqualTo(before);
+        assertThat(catalogueVersion.etag()).isNotEqualTo(before);
+    }
+
+    @Test
+    public void whenAuthorIsRenamed_thenCacheEntryIsEvictedOnlyAfterCommit() {
+        // given
+        Author author = authorCache.resolve("Carmen Martín Gaite");
+        long evictions = authorCache.stats().evictions();
+
+        // when
+        long duringTransaction = transactionTemplate.execute(status -> {
+            authorService.save(new Author(author.getId(), "Carmen Martín Gaite (1925)", null));
+            return authorCache.stats().evictions();
+        });
+
+        // then
+        assertThat(duringTransaction).isEqualTo(evictions);
+        assertThat(authorCache.stats().evictions()).isEqualTo(evictions + 1);
+    }
+}
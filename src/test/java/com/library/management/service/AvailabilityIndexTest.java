@@ -0,0 +1,112 @@
+package com.library.management.service;
+
+import com.library.management.dto.AvailableBookDTO;
+import com.library.management.dto.GenreAvailabilityDTO;
+import com.library.management.dto.TitleAvailabilityDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.LoanEvent;
+import com.library.management.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AvailabilityIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private AvailabilityIndex availabilityIndex;
+
+    @BeforeEach
+    public void setUp() {
+        availabilityIndex = new AvailabilityIndex(bookRepository);
+        when(bookRepository.findAllForAvailabilityIndex()).thenReturn(List.of(
+                new Object[]{1L, "Cien años de soledad", "Gabriel García Márquez", "Novela", true},
+                new Object[]{2L, "Cien Años de Soledad", "Gabriel Garcia Marquez", "novela", false},
+                new Object[]{3L, "1984", "George Orwell", "Distopía", true}));
+        availabilityIndex.rebuild();
+    }
+
+    @Test
+    public void whenRebuilt_thenCountsByTitleAndGenreIgnoringCaseAndAccents() {
+        // when
+        TitleAvailabilityDTO title = availabilityIndex.countByTitle("cien anos de soledad", "gabriel garcia marquez");
+        GenreAvailabilityDTO genre = availabilityIndex.countByGenre("NOVELA");
+
+        // then
+        assertThat(title.copies()).isEqualTo(2);
+        assertThat(title.available()).isEqualTo(1);
+        assertThat(genre.books()).isEqualTo(2);
+        assertThat(genre.available()).isEqualTo(1);
+        assertThat(availabilityIndex.countAllGenres()).hasSize(2);
+    }
+
+    @Test
+    public void whenLoanEvents_thenCountersFollowBorrowAndReturn() {
+        // when
+        availabilityIndex.onLoan(LoanEvent.borrowed(10L, 1L, 5L, LocalDate.now()));
+        availabilityIndex.onLoan(LoanEvent.returned(11L, 2L, 5L, LocalDate.now()));
+
+        // then
+        assertThat(availabilityIndex.findAvailable("Novela", 0L, 10))
+                .extracting(AvailableBookDTO::id)
+                .containsExactly(2L);
+        assertThat(availabilityIndex.countByGenre("Novela").available()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenBookUpdatedOrDeleted_thenMovesBetweenKeys() {
+        // when
+        availabilityIndex.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED,
+                3L, "1984", "George Orwell", "Novela", true));
+        availabilityIndex.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED,
+                1L, "Cien años de soledad", "Gabriel García Márquez", "Novela", true));
+
+        // then
+        assertThat(availabilityIndex.countByGenre("Distopía").books()).isZero();
+        assertThat(availabilityIndex.findAvailable("novela", 0L, 10))
+                .extracting(AvailableBookDTO::id)
+                .containsExactly(3L);
+        assertThat(availabilityIndex.countByTitle("Cien años de soledad", "Gabriel García Márquez").copies())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void whenAuthorRenameCarriesNoAvailability_thenBookKeepsItsCurrentValue() {
+        // given: el libro se prestó después de que el cambio de nombre leyera sus filas
+        availabilityIndex.onLoan(LoanEvent.borrowed(10L, 3L, 5L, LocalDate.now()));
+
+        // when
+        availabilityIndex.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED,
+                3L, "1984", "G. Orwell", "Distopía", null));
+
+        // then
+        assertThat(availabilityIndex.countByTitle("1984", "G. Orwell").copies()).isEqualTo(1);
+        assertThat(availabilityIndex.countByTitle("1984", "G. Orwell").available()).isZero();
+    }
+
+    @Test
+    public void whenLoanCommitsDuringRebuild_thenItIsNotLostWithTheOldMaps() {
+        // given: el préstamo se confirma después de que la consulta leyera el libro disponible
+        when(bookRepository.findAllForAvailabilityIndex()).thenAnswer(invocation -> {
+            availabilityIndex.onLoan(LoanEvent.borrowed(20L, 3L, 5L, LocalDate.now()));
+            return List.<Object[]>of(new Object[]{3L, "1984", "George Orwell", "Distopía", true});
+        });
+
+        // when
+        availabilityIndex.rebuild();
+
+        // then
+        assertThat(availabilityIndex.countByGenre("Distopía").available()).isZero();
+        assertThat(availabilityIndex.findAvailable("Distopía", 0L, 10)).isEmpty();
+    }
+}
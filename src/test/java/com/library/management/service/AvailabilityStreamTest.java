@@ -0,0 +1,143 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.AvailableBookDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.LoanEvent;
+import com.library.management.journal.ChangeJournal;
+import com.library.management.metrics.LibraryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+public class AvailabilityStreamTest {
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @TempDir
+    Path directory;
+
+    private ChangeJournal changeJournal;
+    private final List<Runnable> pendingSends = new ArrayList<>();
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+    // Guarda el texto de cada evento enviado en lugar de escribirlo en una respuesta
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder.build().stream().map(data -> data.getData().toString()).collect(Collectors.joining()));
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        changeJournal = new ChangeJournal(directory.toString(), DataSize.ofMegabytes(1), 4);
+        changeJournal.open();
+        lenient().when(availabilityIndex.summaryOf(anyLong()))
+                .thenAnswer(invocation -> new AvailableBookDTO(invocation.getArgument(0), "1984", "George Orwell", "Distopía"));
+    }
+
+    @Test
+    public void whenLoansHappen_thenEveryClientReceivesTheDeltas() {
+        // given
+        AvailabilityStream stream = stream(10);
+        stream.subscribe(null);
+        stream.subscribe(null);
+
+        // when
+        changeJournal.onLoan(LoanEvent.borrowed(10L, 1L, 7L, LocalDate.of(2026, 11, 1)));
+        changeJournal.onLoan(LoanEvent.returned(10L, 1L, 7L, LocalDate.of(2026, 11, 1)));
+        stream.dispatch();
+        runPendingSends();
+
+        // then
+        assertThat(emitters).hasSize(2).allSatisfy(emitter -> {
+            assertThat(emitter.events).hasSize(3);
+            assertThat(emitter.events.get(1)).contains("id:1\nevent:availability\n")
+                    .contains("\"change\":\"BORROWED\"", "\"bookId\":1", "\"title\":\"1984\"", "\"available\":false");
+            assertThat(emitter.events.get(2)).contains("id:2\n", "\"change\":\"RETURNED\"", "\"available\":true");
+        });
+    }
+
+    @Test
+    public void whenClientFallsBehind_thenOldestMessagesAreDroppedAndClientIsTold() {
+        // given
+        AvailabilityStream stream = stream(3);
+        stream.subscribe(null);
+        runPendingSends();
+
+        // when: el cliente no lee mientras llegan cinco cambios
+        for (long i = 1; i <= 5; i++) {
+            changeJournal.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED, i,
+                    "Libro " + i, "Autor", "Ensayo", true));
+            stream.dispatch();
+        }
+        runPendingSends();
+
+        // then
+        List<String> events = emitters.get(0).events;
+        assertThat(events).hasSize(5);
+        assertThat(events.get(1)).contains("event:dropped", "{\"dropped\":2}");
+        assertThat(events.subList(2, 5)).extracting(event -> event.substring(0, event.indexOf('\n')))
+                .containsExactly("id:3", "id:4", "id:5");
+    }
+
+    @Test
+    public void whenClientReconnectsWithLastEventId_thenMissedChangesAreReplayedFromJournal() {
+        // given
+        AvailabilityStream stream = stream(10);
+        for (long i = 1; i <= 4; i++) {
+            changeJournal.onLoan(LoanEvent.borrowed(i, i, 7L, LocalDate.of(2026, 11, 1)));
+        }
+
+        // when
+        stream.subscribe(2L);
+        stream.dispatch();
+        runPendingSends();
+
+        // then
+        assertThat(emitters.get(0).events).filteredOn(event -> event.startsWith("id:"))
+                .extracting(event -> event.substring(0, event.indexOf('\n')))
+                .containsExactly("id:3", "id:4");
+    }
+
+    private AvailabilityStream stream(int bufferSize) {
+        return new AvailabilityStream(changeJournal, availabilityIndex, new ObjectMapper().findAndRegisterModules(),
+                pendingSends::add, new LibraryMetrics(new SimpleMeterRegistry()), 100, bufferSize,
+                Duration.ofMillis(200), Duration.ofHours(1), Duration.ofMinutes(30)) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private void runPendingSends() {
+        while (!pendingSends.isEmpty()) {
+            pendingSends.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.library.management.service;
+
+import com.library.management.dto.BookBatchItemDTO;
+import com.library.management.dto.BookBatchOperationDTO;
+import com.library.management.dto.BookBatchResultDTO;
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.repository.AuthorRepository;
+import com.library.management.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// El orden en que Hibernate envía INSERT, UPDATE y DELETE solo se comprueba contra el índice único real
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:it",
+        "library.journal.dir=target/test-data/it/journal",
+        "library.snapshot.enabled=false"
+})
+public class BookBatchPersistenceTest {
+
+    @Autowired
+    private BookBatchService bookBatchService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    public void whenUpdateRenamesAwayAndCreateTakesKey_thenBothAreCommitted() {
+        // given
+        Author author = authorRepository.save(new Author(null, "Italo Calvino", null));
+        Book book = bookRepository.save(new Book(null, "Las ciudades invisibles", author, "Novela", true));
+
+        // when
+        BookBatchResultDTO result = bookBatchService.apply(List.of(
+                update(book.getId(), "Las ciudades invisibles (ed. revisada)", "Italo Calvino"),
+                create("Las ciudades invisibles", "Italo Calvino")));
+
+        // then
+        assertThat(result.items()).extracting(BookBatchItemDTO::status)
+                .containsExactly(BookBatchItemDTO.Status.UPDATED, BookBatchItemDTO.Status.CREATED);
+        assertThat(bookRepository.existsByNaturalKey(Book.naturalKey("Las ciudades invisibles", "Italo Calvino")))
+                .isTrue();
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getTitle)
+                .isEqualTo("Las ciudades invisibles (ed. revisada)");
+    }
+
+    @Test
+    public void whenUpdateTakesKeyFreedByLaterUpdate_thenBothAreCommitted() {
+        // given: el libro de menor id toma la clave del otro, que la deja en la misma petición
+        Author author = authorRepository.save(new Author(null, "Mercè Rodoreda", null));
+        Book first = bookRepository.save(new Book(null, "La plaza del Diamante", author, "Novela", true));
+        Book second = bookRepository.save(new Book(null, "Espejo roto", author, "Novela", true));
+
+        // when
+        BookBatchResultDTO result = bookBatchService.apply(List.of(
+                update(second.getId(), "Espejo roto (bolsillo)", "Mercè Rodoreda"),
+                update(first.getId(), "Espejo roto", "Mercè Rodoreda")));
+
+        // then
+        assertThat(result.items()).extracting(BookBatchItemDTO::status)
+                .containsExactly(BookBatchItemDTO.Status.UPDATED, BookBatchItemDTO.Status.UPDATED);
+        assertThat(bookRepository.findById(first.getId())).get().extracting(Book::getTitle).isEqualTo("Espejo roto");
+    }
+
+    private static BookBatchOperationDTO update(Long id, String title, String authorName) {
+        return new BookBatchOperationDTO(BookBatchOperationDTO.Action.UPDATE, id, title, authorName, "Novela");
+    }
+
+    private static BookBatchOperationDTO create(String title, String authorName) {
+        return new BookBatchOperationDTO(BookBatchOperationDTO.Action.CREATE, null, title, authorName, "Novela");
+    }
+}
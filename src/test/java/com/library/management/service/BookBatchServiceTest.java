@@ -0,0 +1,239 @@
+package com.library.management.service;
+
+import com.library.management.dto.BookBatchItemDTO;
+import com.library.management.dto.BookBatchOperationDTO;
+import com.library.management.dto.BookBatchResultDTO;
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.repository.BookNaturalKeys;
+import com.library.management.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookBatchServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookNaturalKeys bookNaturalKeys;
+
+    @Mock
+    private AuthorCache authorCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BookBatchService bookBatchService;
+
+    @BeforeEach
+    public void setUp() {
+        bookBatchService = new BookBatchService(bookRepository, bookNaturalKeys, authorCache, transactionTemplate, eventPublisher);
+    }
+
+    @Test
+    public void whenApplyBatch_thenEachOperationGetsItsOwnResult() {
+        // given
+        Author orwell = new Author(1L, "George Orwell", null);
+        Author huxley = new Author(2L, "Aldous Huxley", null);
+        Book animalFarm = new Book(10L, "Rebelión en la granja", orwell, "Sátira", true);
+        Book brave = new Book(11L, "Un mundo feliz", huxley, "Distopía", true);
+        Book loaned = new Book(12L, "1984", orwell, "Distopía", false);
+
+        runTransactions();
+        when(authorCache.resolveAll(anyCollection())).thenReturn(Map.of("George Orwell", orwell, "Aldous Huxley", huxley));
+        when(bookRepository.findWithAuthorByIdIn(anyCollection())).thenReturn(List.of(animalFarm, brave, loaned));
+        when(bookRepository.findIdsWithLoans(anyCollection())).thenReturn(List.of(12L));
+        when(bookRepository.findIdAndNaturalKeyByNaturalKeyIn(anyCollection())).thenReturn(List.<Object[]>of(
+                new Object[]{10L, Book.naturalKey("Rebelión en la granja", "George Orwell")},
+                new Object[]{11L, Book.naturalKey("Un mundo feliz", "Aldous Huxley")}));
+
+        List<BookBatchOperationDTO> operations = List.of(
+                create("Homenaje a Cataluña", "George Orwell"),
+                create("Un mundo feliz", "Aldous Huxley"),
+                new BookBatchOperationDTO(BookBatchOperationDTO.Action.UPDATE, 10L, "Rebelión en la granja",
+                        "George Orwell", "Fábula"),
+                new BookBatchOperationDTO(BookBatchOperationDTO.Action.DELETE, 11L, null, null, null),
+                create("Un mundo feliz", "Aldous Huxley"),
+                new BookBatchOperationDTO(BookBatchOperationDTO.Action.DELETE, 12L, null, null, null),
+                new BookBatchOperationDTO(BookBatchOperationDTO.Action.DELETE, 10L, null, null, null),
+                new BookBatchOperationDTO(BookBatchOperationDTO.Action.UPDATE, 99L, "X", "George Orwell", null),
+                create(" ", "George Orwell"));
+
+        // when
+        BookBatchResultDTO result = bookBatchService.apply(operations);
+
+        // then
+        assertThat(result.requested()).isEqualTo(9);
+        assertThat(result.succeeded()).isEqualTo(4);
+        assertThat(result.items()).extracting(BookBatchItemDTO::status).containsExactly(
+                BookBatchItemDTO.Status.CREATED,
+                BookBatchItemDTO.Status.ALREADY_EXISTS,
+                BookBatchItemDTO.Status.UPDATED,
+                BookBatchItemDTO.Status.DELETED,
+                BookBatchItemDTO.Status.CREATED,
+                BookBatchItemDTO.Status.HAS_LOANS,
+                BookBatchItemDTO.Status.DUPLICATE,
+                BookBatchItemDTO.Status.NOT_FOUND,
+                BookBatchItemDTO.Status.INVALID);
+        assertThat(animalFarm.getGenre()).isEqualTo("Fábula");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Book>> created = ArgumentCaptor.forClass(List.class);
+        var order = inOrder(bookRepository);
+        order.verify(bookRepository).deleteAll(List.of(brave));
+        // Un flush tras los borrados y otro tras las modificaciones, antes de las altas
+        order.verify(bookRepository, times(2)).flush();
+        order.verify(bookRepository).saveAll(created.capture());
+        assertThat(created.getValue()).extracting(Book::getTitle)
+                .containsExactly("Homenaje a Cataluña", "Un mundo feliz");
+    }
+
+    @Test
+    public void whenUpdateRenamesAwayFromKeyUsedByCreate_thenKeyIsReleasedBeforeInsert() {
+        // given
+        Author orwell = new Author(1L, "George Orwell", null);
+        Book book = new Book(10L, "1984", orwell, "Distopía", true);
+        runTransactions();
+        when(authorCache.resolveAll(anyCollection())).thenReturn(Map.of("George Orwell", orwell));
+        when(bookRepository.findWithAuthorByIdIn(anyCollection())).thenReturn(List.of(book));
+        when(bookRepository.findIdAndNaturalKeyByNaturalKeyIn(anyCollection())).thenReturn(List.<Object[]>of(
+                new Object[]{10L, Book.naturalKey("1984", "George Orwell")}));
+
+        // when
+        BookBatchResultDTO result = bookBatchService.apply(List.of(
+                update(10L, "Mil novecientos ochenta y cuatro", "George Orwell"),
+                create("1984", "George Orwell")));
+
+        // then
+        assertThat(result.items()).extracting(BookBatchItemDTO::status)
+                .containsExactly(BookBatchItemDTO.Status.UPDATED, BookBatchItemDTO.Status.CREATED);
+        var order = inOrder(bookNaturalKeys, bookRepository);
+        order.verify(bookNaturalKeys).clear(List.of(10L));
+        order.verify(bookRepository).flush();
+        order.verify(bookRepository).saveAll(anyCollection());
+    }
+
+    @Test
+    public void whenDeleteAndCreateSameKey_thenDeleteIsFlushedBeforeInsert() {
+        // given
+        Author orwell = new Author(1L, "George Orwell", null);
+        Book book = new Book(10L, "1984", orwell, "Distopía", true);
+        runTransactions();
+        when(authorCache.resolveAll(anyCollection())).thenReturn(Map.of("George Orwell", orwell));
+        when(bookRepository.findWithAuthorByIdIn(anyCollection())).thenReturn(List.of(book));
+        when(bookRepository.findIdsWithLoans(anyCollection())).thenReturn(List.of());
+        when(bookRepository.findIdAndNaturalKeyByNaturalKeyIn(anyCollection())).thenReturn(List.<Object[]>of(
+                new Object[]{10L, Book.naturalKey("1984", "George Orwell")}));
+
+        // when
+        BookBatchResultDTO result = bookBatchService.apply(List.of(
+                create("1984", "George Orwell"),
+                delete(10L),
+                create("1984", "George Orwell")));
+
+        // then
+        assertThat(result.items()).extracting(BookBatchItemDTO::status).containsExactly(
+                BookBatchItemDTO.Status.ALREADY_EXISTS,
+                BookBatchItemDTO.Status.DELETED,
+                BookBatchItemDTO.Status.CREATED);
+        var order = inOrder(bookRepository);
+        order.verify(bookRepository).deleteAll(List.of(book));
+        order.verify(bookRepository, times(2)).flush();
+        order.verify(bookRepository).saveAll(anyCollection());
+    }
+
+    @Test
+    public void whenSameCreateTwiceInBatch_thenSecondIsAlreadyExists() {
+        // given
+        Author orwell = new Author(1L, "George Orwell", null);
+        runTransactions();
+        when(authorCache.resolveAll(anyCollection())).thenReturn(Map.of("George Orwell", orwell));
+        when(bookRepository.findIdAndNaturalKeyByNaturalKeyIn(anyCollection())).thenReturn(List.of());
+
+        // when
+        BookBatchResultDTO result = bookBatchService.apply(List.of(
+                create("Homenaje a Cataluña", "George Orwell"),
+                create("HOMENAJE A CATALUÑA", "George Orwell")));
+
+        // then
+        assertThat(result.items()).extracting(BookBatchItemDTO::status)
+                .containsExactly(BookBatchItemDTO.Status.CREATED, BookBatchItemDTO.Status.ALREADY_EXISTS);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Book>> created = ArgumentCaptor.forClass(List.class);
+        verify(bookRepository).saveAll(created.capture());
+        assertThat(created.getValue()).hasSize(1);
+    }
+
+    @Test
+    public void whenConcurrentWriteTakesKey_thenBatchIsEvaluatedAgain() {
+        // given
+        Author orwell = new Author(1L, "George Orwell", null);
+        when(authorCache.resolveAll(anyCollection())).thenReturn(Map.of("George Orwell", orwell));
+        // Otra carga inserta el mismo libro entre la comprobación y el commit del primer intento
+        when(bookRepository.findIdAndNaturalKeyByNaturalKeyIn(anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.<Object[]>of(new Object[]{20L, Book.naturalKey("1984", "George Orwell")}));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            throw new DataIntegrityViolationException("uk_book_natural_key");
+        }).doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        // when
+        BookBatchResultDTO result = bookBatchService.apply(List.of(create("1984", "George Orwell")));
+
+        // then
+        assertThat(result.items()).singleElement().satisfies(item -> {
+            assertThat(item.status()).isEqualTo(BookBatchItemDTO.Status.ALREADY_EXISTS);
+            assertThat(item.bookId()).isEqualTo(20L);
+        });
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+    }
+
+    private void runTransactions() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static BookBatchOperationDTO update(Long id, String title, String authorName) {
+        return new BookBatchOperationDTO(BookBatchOperationDTO.Action.UPDATE, id, title, authorName, "Novela");
+    }
+
+    private static BookBatchOperationDTO delete(Long id) {
+        return new BookBatchOperationDTO(BookBatchOperationDTO.Action.DELETE, id, null, null, null);
+    }
+
+    private static BookBatchOperationDTO create(String title, String authorName) {
+        return new BookBatchOperationDTO(BookBatchOperationDTO.Action.CREATE, null, title, authorName, "Novela");
+    }
+}
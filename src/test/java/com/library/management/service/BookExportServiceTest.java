@@ -0,0 +1,97 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.library.management.dto.BookExportDTO;
+import com.library.management.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookExportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookExportService bookExportService;
+
+    private final Instant updatedAt = Instant.parse("2024-03-01T10:15:30Z");
+
+    @BeforeEach
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        bookExportService = new BookExportService(bookRepository, objectMapper, Duration.ofMinutes(5));
+    }
+
+    @Test
+    public void whenExportNdjson_thenOneJsonObjectPerLine() throws Exception {
+        // given
+        when(bookRepository.streamForExport("Distopía", true, null)).thenReturn(Stream.of(
+                new BookExportDTO(1L, "1984", 2L, "George Orwell", "Distopía", true, updatedAt),
+                new BookExportDTO(3L, "Un mundo feliz", 4L, "Aldous Huxley", "Distopía", true, updatedAt)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        long rows = bookExportService.export(ExportFormat.NDJSON, "Distopía", true, null, out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"title\":\"1984\"").contains("\"updatedAt\":\"2024-03-01T10:15:30Z\"");
+        assertThat(lines[1]).contains("\"authorName\":\"Aldous Huxley\"");
+    }
+
+    @Test
+    public void whenExportCsv_thenHeaderMatchesImportFormat() throws Exception {
+        // given
+        when(bookRepository.streamForExport(null, null, updatedAt)).thenReturn(Stream.of(
+                new BookExportDTO(1L, "1984", 2L, "George Orwell", "Distopía", false, updatedAt)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        bookExportService.export(ExportFormat.CSV, null, null, updatedAt, out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines[0]).startsWith("titulo;autor;genero");
+        assertThat(lines[1]).isEqualTo("1984;George Orwell;Distopía;false;1;2;2024-03-01T10:15:30Z");
+    }
+
+    @Test
+    public void whenWatermarkRequested_thenLatestUpdateMinusLag() {
+        // given
+        when(bookRepository.findMaxUpdatedAt()).thenReturn(updatedAt);
+
+        // when
+        Instant watermark = bookExportService.watermark(null);
+
+        // then: una transacción que fijó updated_at justo antes y aún no ha confirmado entra en la siguiente
+        assertThat(watermark).isEqualTo(Instant.parse("2024-03-01T10:10:30Z"));
+    }
+
+    @Test
+    public void whenCatalogueIsEmpty_thenWatermarkKeepsPreviousOne() {
+        // given
+        when(bookRepository.findMaxUpdatedAt()).thenReturn(null);
+
+        // when & then
+        assertThat(bookExportService.watermark(updatedAt)).isEqualTo(updatedAt);
+        assertThat(bookExportService.watermark(null)).isEqualTo(Instant.EPOCH);
+    }
+}
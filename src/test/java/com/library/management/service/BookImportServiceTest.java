@@ -0,0 +1,155 @@
+package com.library.management.service;
+
+import com.library.management.dto.CsvImportResultDTO;
+import com.library.management.exception.CsvHeaderMissingException;
+import com.library.management.metrics.LibraryMetrics;
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookImportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorCache authorCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    public void setUp() {
+        bookImportService = new BookImportService(bookRepository, authorCache, transactionTemplate, eventPublisher,
+                new LibraryMetrics(meterRegistry), 2);
+    }
+
+    @Test
+    public void whenImportBooks_thenSkipsInvalidAndDuplicateRowsPerChunk() throws Exception {
+        // given
+        String csv = "Titulo;Autor;Genero\n" +
+                "1984;George Orwell;Distopía\n" +
+                "1984;george orwell;Distopía\n" +
+                ";;\n" +
+                "Crimen y Castigo;Fiódor Dostoievski;Clásico\n" +
+                "Solo titulo\n";
+        MockMultipartFile file = new MockMultipartFile("file", "libros.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+
+        Author orwell = new Author(1L, "George Orwell", null);
+
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(bookRepository.findExistingNaturalKeys(anyCollection()))
+                .thenReturn(Collections.emptyList())
+                .thenReturn(List.of(Book.naturalKey("crimen y  castigo", "Fiódor Dostoievski")));
+        when(authorCache.resolveAll(anyCollection()))
+                .thenReturn(Map.of("George Orwell", orwell));
+
+        // when
+        CsvImportResultDTO result = bookImportService.importBooks(file);
+
+        // then
+        assertThat(result.rowsRead()).isEqualTo(5);
+        assertThat(result.accepted()).isEqualTo(1);
+        assertThat(result.skipped())
+                .containsEntry("DUPLICATE_IN_FILE", 1L)
+                .containsEntry("DUPLICATE_IN_DB", 1L)
+                .containsEntry("EMPTY_ROW", 1L)
+                .containsEntry("MISSING_COLUMNS", 1L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Book>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bookRepository).saveAll(inserted.capture());
+        assertThat(inserted.getValue())
+                .extracting(Book::getTitle)
+                .containsExactly("1984");
+        assertThat(meterRegistry.counter("library.imports", "outcome", "completed").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("library.import.rows.skipped", "reason", "EMPTY_ROW").count()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenChunkCollidesWithConcurrentImport_thenRechecksAndSkipsTheDuplicate() throws Exception {
+        // given
+        String csv = "Titulo;Autor;Genero\n" +
+                "1984;George Orwell;Distopía\n" +
+                "Rebelión en la granja;George Orwell;Sátira\n";
+        MockMultipartFile file = new MockMultipartFile("file", "libros.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+
+        Author orwell = new Author(1L, "George Orwell", null);
+
+        doThrow(new DataIntegrityViolationException("uk_book_natural_key"))
+                .doAnswer(invocation -> {
+                    invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+                    return null;
+                }).when(transactionTemplate).executeWithoutResult(any());
+        when(bookRepository.findExistingNaturalKeys(anyCollection()))
+                .thenReturn(Collections.emptyList())
+                .thenReturn(List.of(Book.naturalKey("1984", "George Orwell")));
+        when(authorCache.resolveAll(anyCollection()))
+                .thenReturn(Map.of("George Orwell", orwell));
+
+        // when
+        CsvImportResultDTO result = bookImportService.importBooks(file);
+
+        // then
+        assertThat(result.accepted()).isEqualTo(1);
+        assertThat(result.skipped()).containsEntry("DUPLICATE_IN_DB", 1L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Book>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bookRepository).saveAll(inserted.capture());
+        assertThat(inserted.getValue())
+                .extracting(Book::getTitle)
+                .containsExactly("Rebelión en la granja");
+    }
+
+    @Test
+    public void whenImportBooksWithoutHeader_thenThrowsCsvHeaderMissing() {
+        // given
+        MockMultipartFile file = new MockMultipartFile("file", "sin_encabezado.csv", "text/csv",
+                "1984;George Orwell;Distopía\n".getBytes(StandardCharsets.UTF_8));
+
+        // when & then
+        assertThrows(CsvHeaderMissingException.class, () -> bookImportService.importBooks(file));
+        assertThat(meterRegistry.counter("library.imports", "outcome", "failed").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.library.management.service;
+
+import com.library.management.dto.ReservationStatsDTO;
+import com.library.management.repository.BookJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookReservationEngineTest {
+
+    @Mock
+    private BookJdbcRepository bookJdbcRepository;
+
+    private BookReservationEngine reservationEngine;
+
+    @BeforeEach
+    public void setUp() {
+        reservationEngine = new BookReservationEngine(bookJdbcRepository, 3, 0);
+    }
+
+    @Test
+    public void whenConditionalUpdateMatchesNoRow_thenConflict() {
+        // given
+        when(bookJdbcRepository.reserve(1L)).thenReturn(1).thenReturn(0);
+
+        // when
+        boolean first = reservationEngine.reserve(1L);
+        boolean second = reservationEngine.reserve(1L);
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        ReservationStatsDTO stats = reservationEngine.stats();
+        assertThat(stats.attempts()).isEqualTo(2);
+        assertThat(stats.reservations()).isEqualTo(1);
+        assertThat(stats.conflicts()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenTransientFailure_thenRetriesUpToLimit() {
+        // given
+        when(bookJdbcRepository.reserve(1L))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenReturn(1);
+        when(bookJdbcRepository.reserve(2L))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        // when
+        boolean reserved = reservationEngine.reserve(1L);
+
+        // then
+        assertThat(reserved).isTrue();
+        assertThrows(CannotAcquireLockException.class, () -> reservationEngine.reserve(2L));
+        ReservationStatsDTO stats = reservationEngine.stats();
+        assertThat(stats.retries()).isEqualTo(3);
+        assertThat(stats.failures()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenBatchHitsTransientFailure_thenWholeOperationIsRepeated() {
+        // given: la primera ejecución del lote pierde un deadlock
+        AtomicInteger runs = new AtomicInteger();
+
+        // when
+        String result = reservationEngine.retrying(() -> {
+            if (runs.incrementAndGet() == 1) {
+                throw new CannotAcquireLockException("deadlock");
+            }
+            return "lote";
+        });
+
+        // then
+        assertThat(result).isEqualTo("lote");
+        assertThat(runs).hasValue(2);
+        assertThat(reservationEngine.stats().retries()).isEqualTo(1);
+    }
+}
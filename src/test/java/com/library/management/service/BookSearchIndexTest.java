@@ -0,0 +1,110 @@
+package com.library.management.service;
+
+import com.library.management.event.BookChangedEvent;
+import com.library.management.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        bookSearchIndex = new BookSearchIndex(bookRepository);
+        when(bookRepository.findAllForSearchIndex()).thenReturn(List.of(
+                new Object[]{1L, "Crimen y Castigo", "Fiódor Dostoievski", "Clásico"},
+                new Object[]{2L, "1984", "George Orwell", "Distopía"},
+                new Object[]{3L, "Rebelión en la granja", "George Orwell", "Fábula"},
+                new Object[]{4L, "Orwell: una biografía", "Gordon Bowker", "Biografía"}
+        ));
+        bookSearchIndex.rebuild();
+    }
+
+    @Test
+    public void whenSearchWithoutAccents_thenMatchesAccentedText() {
+        assertThat(ids(bookSearchIndex.search("fiodor"))).containsExactly(1L);
+        assertThat(ids(bookSearchIndex.search("DISTOPIA"))).containsExactly(2L);
+    }
+
+    @Test
+    public void whenSearchByPrefix_thenMatchesAllTermsStartingWithIt() {
+        assertThat(ids(bookSearchIndex.search("dostoi"))).containsExactly(1L);
+        assertThat(ids(bookSearchIndex.search("geo orw"))).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    public void whenTermMatchesTitleAndAuthor_thenTitleRanksFirst() {
+        // "orwell" está en el título del libro 4 y en el autor de los libros 2 y 3
+        assertThat(ids(bookSearchIndex.search("orwell"))).containsExactly(4L, 2L, 3L);
+    }
+
+    @Test
+    public void whenBookChangedEvents_thenIndexIsUpdated() {
+        // when
+        bookSearchIndex.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED,
+                5L, "Cien años de soledad", "Gabriel García Márquez", "Realismo Mágico", true));
+        bookSearchIndex.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED,
+                2L, "1984", "George Orwell", "Distopía", true));
+
+        // then
+        assertThat(ids(bookSearchIndex.search("garcia"))).containsExactly(5L);
+        assertThat(bookSearchIndex.search("1984")).isEmpty();
+    }
+
+    @Test
+    public void whenBookChangesDuringRebuild_thenChangeIsKept() {
+        // given: el alta se confirma después de la consulta que alimenta la reconstrucción
+        when(bookRepository.findAllForSearchIndex()).thenAnswer(invocation -> {
+            bookSearchIndex.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED,
+                    5L, "Cien años de soledad", "Gabriel García Márquez", "Realismo Mágico", true));
+            return List.<Object[]>of(new Object[]{2L, "1984", "George Orwell", "Distopía"});
+        });
+
+        // when
+        bookSearchIndex.rebuild();
+
+        // then
+        assertThat(ids(bookSearchIndex.search("garcia"))).containsExactly(5L);
+        assertThat(ids(bookSearchIndex.search("orwell"))).containsExactly(2L);
+    }
+
+    @Test
+    public void whenSearchPage_thenReturnsOnlyMatchesAfterCursorInRankingOrder() {
+        // when: "orwell" da 4, 2, 3 en ese orden
+        List<BookSearchIndex.Match> first = bookSearchIndex.search("orwell", null, 2);
+        BookSearchIndex.Match last = first.get(first.size() - 1);
+        List<BookSearchIndex.Match> second = bookSearchIndex.search("orwell",
+                new long[]{last.score(), last.bookId()}, 2);
+
+        // then
+        assertThat(ids(first)).containsExactly(4L, 2L);
+        assertThat(ids(second)).containsExactly(3L);
+    }
+
+    @Test
+    public void whenSingleLetterTerm_thenMatchesOnlyExactTerm() {
+        // "y" es un término de "Crimen y Castigo"; no se expande a todos los términos que empiezan por "y"
+        bookSearchIndex.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED,
+                5L, "Yerma", "Federico García Lorca", "Teatro", true));
+
+        assertThat(ids(bookSearchIndex.search("y"))).containsExactly(1L);
+        assertThat(ids(bookSearchIndex.search("ye"))).containsExactly(5L);
+    }
+
+    private List<Long> ids(List<BookSearchIndex.Match> matches) {
+        return matches.stream().map(BookSearchIndex.Match::bookId).toList();
+    }
+}
@@ -1,17 +1,22 @@
 package com.library.management.service;
 
+import com.library.management.dto.BookDTO;
 import com.library.management.dto.BookRequestDTO;
 import com.library.management.dto.BookResponseDTO;
+import com.library.management.dto.PageResponse;
+import com.library.management.exception.ResourceAlreadyExistsException;
 import com.library.management.model.Author;
 import com.library.management.model.Book;
-import com.library.management.repository.AuthorRepository;
 import com.library.management.repository.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.util.Collections;
 import java.util.List;
@@ -29,7 +34,22 @@ public class BookServiceTest {
     private BookRepository bookRepository;
 
     @Mock
-    private AuthorRepository authorRepository;
+    private AuthorCache authorCache;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private Pagination pagination = new Pagination(2, 10);
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private PopularityTracker popularityTracker;
 
     @InjectMocks
     private BookService bookService;
@@ -86,8 +106,8 @@ public class BookServiceTest {
 
         Book book = new Book(null, "Test Book", author, "Fiction", true);
 
-        given(authorRepository.findByName("Test Author")).willReturn(Optional.of(author));
-        given(bookRepository.existsByTitleAndAuthor_Name("Test Book", "Test Author")).willReturn(false);
+        given(authorCache.resolve("Test Author")).willReturn(author);
+        given(bookRepository.existsByNaturalKey(Book.naturalKey("Test Book", "Test Author"))).willReturn(false);
         given(bookRepository.save(any(Book.class))).willReturn(book);
 
         // Act
@@ -100,4 +120,81 @@ public class BookServiceTest {
         assertEquals("Fiction", result.genre());
         assertTrue(result.available());
     }
+
+    @Test
+    public void whenUpdateBookKeepingTitleAndAuthor_thenItIsNotItsOwnDuplicate() {
+        // given
+        BookRequestDTO request = new BookRequestDTO("Test Book", "Test Author", "Drama");
+        given(bookRepository.findById(1L)).willReturn(Optional.of(book));
+        given(authorCache.resolve("Test Author")).willReturn(book.getAuthor());
+        given(bookRepository.existsByNaturalKeyAndIdNot(Book.naturalKey("Test Book", "Test Author"), 1L))
+                .willReturn(false);
+        given(bookRepository.save(book)).willReturn(book);
+
+        // when
+        BookResponseDTO result = bookService.update(1L, request);
+
+        // then
+        assertEquals("Drama", result.genre());
+    }
+
+    @Test
+    public void whenSaveRacesWithAnotherInsert_thenReportsAlreadyExists() {
+        // given
+        BookRequestDTO request = new BookRequestDTO("Test Book", "Test Author", "Fiction");
+        given(authorCache.resolve("Test Author")).willReturn(book.getAuthor());
+        given(bookRepository.existsByNaturalKey(Book.naturalKey("Test Book", "Test Author"))).willReturn(false);
+        given(bookRepository.save(any(Book.class)))
+                .willThrow(new DataIntegrityViolationException("uk_book_natural_key"));
+
+        // when & then
+        assertThrows(ResourceAlreadyExistsException.class, () -> bookService.save(request));
+    }
+
+    @Test
+    public void whenFindPage_thenReturnNextCursorOnlyIfMoreResults() {
+        // given
+        BookDTO first = new BookDTO(1L, "Test Book", 1L, "Test Author", "Fiction", true);
+        BookDTO second = new BookDTO(2L, "Second Book", 1L, "Test Author", "Fiction", true);
+        BookDTO third = new BookDTO(3L, "Third Book", 1L, "Test Author", "Fiction", true);
+        given(bookRepository.findPageAfter(eq(0L), any())).willReturn(List.of(first, second, third));
+        given(bookRepository.findPageAfter(eq(2L), any())).willReturn(List.of(third));
+
+        // when
+        PageResponse<BookDTO> firstPage = bookService.findPage(null, null);
+        PageResponse<BookDTO> lastPage = bookService.findPage(firstPage.nextCursor(), null);
+
+        // then
+        assertEquals(2, firstPage.size());
+        assertNotNull(firstPage.nextCursor());
+        assertEquals(1, lastPage.content().size());
+        assertEquals("Third Book", lastPage.content().get(0).title());
+        assertNull(lastPage.nextCursor());
+    }
+
+    @Test
+    public void whenSearchBooks_thenPagesFollowIndexRelevance() {
+        // given
+        BookDTO first = new BookDTO(1L, "Test Book", 1L, "Test Author", "Fiction", true);
+        BookDTO second = new BookDTO(2L, "Second Book", 1L, "Test Author", "Fiction", true);
+        BookDTO third = new BookDTO(3L, "Third Book", 1L, "Test Author", "Fiction", true);
+        given(bookSearchIndex.isReady()).willReturn(true);
+        given(bookSearchIndex.search(eq("book"), isNull(), eq(3))).willReturn(List.of(
+                new BookSearchIndex.Match(3L, 6),
+                new BookSearchIndex.Match(1L, 3),
+                new BookSearchIndex.Match(2L, 3)));
+        given(bookSearchIndex.search(eq("book"), any(long[].class), eq(3))).willReturn(List.of(
+                new BookSearchIndex.Match(2L, 3)));
+        given(bookRepository.findDTOsByIdIn(List.of(3L, 1L))).willReturn(List.of(first, third));
+        given(bookRepository.findDTOsByIdIn(List.of(2L))).willReturn(List.of(second));
+
+        // when
+        PageResponse<BookDTO> firstPage = bookService.searchBooks("book", null, null);
+        PageResponse<BookDTO> lastPage = bookService.searchBooks("book", firstPage.nextCursor(), null);
+
+        // then
+        assertEquals(List.of(3L, 1L), firstPage.content().stream().map(BookDTO::id).toList());
+        assertEquals(List.of(2L), lastPage.content().stream().map(BookDTO::id).toList());
+        assertNull(lastPage.nextCursor());
+    }
 }
@@ -0,0 +1,35 @@
+package com.library.management.service;
+
+import com.library.management.event.AuthorChangedEvent;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.LoanEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CatalogueVersionTest {
+
+    @Test
+    public void whenCatalogueChanges_thenEtagChanges() {
+        // given
+        CatalogueVersion catalogueVersion = new CatalogueVersion();
+        String initial = catalogueVersion.etag();
+
+        // when
+        String unchanged = catalogueVersion.etag();
+        catalogueVersion.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, 1L,
+                "1984", "George Orwell", "Distopía", true));
+        String afterBookChange = catalogueVersion.etag();
+        catalogueVersion.onLoan(LoanEvent.borrowed(1L, 1L, 7L, LocalDate.now().plusDays(14)));
+        String afterLoan = catalogueVersion.etag();
+        catalogueVersion.onAuthorChanged(new AuthorChangedEvent(3L));
+
+        // then
+        assertThat(unchanged).isEqualTo(initial);
+        assertThat(afterBookChange).isNotEqualTo(initial).startsWith("\"").endsWith("\"");
+        assertThat(afterLoan).isNotEqualTo(afterBookChange);
+        assertThat(catalogueVersion.etag()).isNotEqualTo(afterLoan);
+    }
+}
@@ -0,0 +1,77 @@
+package com.library.management.service;
+
+import com.library.management.dto.UserFineDTO;
+import com.library.management.event.LoanEvent;
+import com.library.management.repository.LoanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FineAccrualEngineTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2024, 3, 10);
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    private FineAccrualEngine fineAccrualEngine;
+
+    @BeforeEach
+    public void setUp() {
+        fineAccrualEngine = new FineAccrualEngine(loanRepository);
+    }
+
+    @Test
+    public void whenAccruing_thenOnlyNewlyOverdueLoansAreRead() {
+        // given
+        when(loanRepository.findActiveDueBefore(DAY_1)).thenReturn(List.<Object[]>of(
+                new Object[]{1L, 7L, DAY_1.minusDays(4)},
+                new Object[]{2L, 7L, DAY_1.minusDays(1)}));
+        when(loanRepository.findActiveDueBetween(DAY_1, DAY_1.plusDays(1))).thenReturn(List.<Object[]>of(
+                new Object[]{3L, 7L, DAY_1}));
+
+        // when
+        fineAccrualEngine.accrue(DAY_1);
+        fineAccrualEngine.accrue(DAY_1);
+        fineAccrualEngine.accrue(DAY_1.plusDays(1));
+
+        // then
+        UserFineDTO fine = fineAccrualEngine.fineFor(7L, DAY_1.plusDays(1));
+        assertThat(fine.overdueLoans()).isEqualTo(3);
+        assertThat(fine.overdueDays()).isEqualTo(5 + 2 + 1);
+        assertThat(fine.amount()).isEqualTo(8 * LoanService.FINE_PER_DAY);
+        verify(loanRepository).findActiveDueBefore(DAY_1);
+        verify(loanRepository).findActiveDueBetween(DAY_1, DAY_1.plusDays(1));
+        verifyNoMoreInteractions(loanRepository);
+    }
+
+    @Test
+    public void whenOverdueLoanReturned_thenStopsAccruing() {
+        // given
+        when(loanRepository.findActiveDueBefore(DAY_1)).thenReturn(List.<Object[]>of(
+                new Object[]{1L, 7L, DAY_1.minusDays(4)},
+                new Object[]{2L, 8L, DAY_1.minusDays(2)}));
+        fineAccrualEngine.accrue(DAY_1);
+
+        // when
+        fineAccrualEngine.onLoan(LoanEvent.returned(1L, 100L, 7L, DAY_1.minusDays(4)));
+
+        // then
+        assertThat(fineAccrualEngine.fineFor(7L, DAY_1).amount()).isZero();
+        assertThat(fineAccrualEngine.fineFor(8L, DAY_1).overdueDays()).isEqualTo(2);
+        assertThat(fineAccrualEngine.topFines(10))
+                .extracting(UserFineDTO::userId)
+                .containsExactly(8L);
+    }
+}
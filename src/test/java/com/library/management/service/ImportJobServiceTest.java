@@ -0,0 +1,77 @@
+package com.library.management.service;
+
+import com.library.management.dto.ImportJobDTO;
+import com.library.management.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+public class ImportJobServiceTest {
+
+    @Mock
+    private BookImportService bookImportService;
+
+    private ImportJobService importJobService;
+
+    private final MockMultipartFile file = new MockMultipartFile("file", "libros.csv", "text/csv",
+            "Titulo;Autor;Genero\n1984;George Orwell;Distopía\n".getBytes(StandardCharsets.UTF_8));
+
+    @BeforeEach
+    public void setUp() {
+        importJobService = new ImportJobService(bookImportService, new SyncTaskExecutor(), 10);
+    }
+
+    @Test
+    public void whenSubmit_thenJobCompletesWithProgress() throws Exception {
+        // given
+        doAnswer(invocation -> {
+            ImportProgress progress = invocation.getArgument(1);
+            progress.rowRead();
+            progress.accepted(1);
+            return null;
+        }).when(bookImportService).importBooks(any(InputStream.class), any(ImportProgress.class));
+
+        // when
+        ImportJob job = importJobService.submit(file);
+
+        // then
+        ImportJobDTO dto = importJobService.findById(job.getId()).toDTO();
+        assertThat(dto.status()).isEqualTo("COMPLETED");
+        assertThat(dto.fileName()).isEqualTo("libros.csv");
+        assertThat(dto.rowsRead()).isEqualTo(1);
+        assertThat(dto.accepted()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenImportFails_thenJobIsFailed() throws Exception {
+        // given
+        doThrow(new IllegalStateException("boom"))
+                .when(bookImportService).importBooks(any(InputStream.class), any(ImportProgress.class));
+
+        // when
+        ImportJob job = importJobService.submit(file);
+
+        // then
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.FAILED);
+        assertThat(job.toDTO().error()).isEqualTo("boom");
+    }
+
+    @Test
+    public void whenFindUnknownJob_thenThrowsNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> importJobService.findById("missing"));
+    }
+}
@@ -0,0 +1,140 @@
+package com.library.management.service;
+
+import com.library.management.dto.LoanArchiveResultDTO;
+import com.library.management.metrics.LibraryMetrics;
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.model.BookLoanCount;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.AuthorRepository;
+import com.library.management.repository.BookLoanCountRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanArchiveJdbcRepository;
+import com.library.management.repository.LoanHistoryRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// La copia a loan_history y los MERGE de contadores solo se comprueban contra las tablas reales
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:it",
+        "library.journal.dir=target/test-data/it/journal",
+        "library.snapshot.enabled=false"
+})
+public class LoanArchivePersistenceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+
+    @Autowired
+    private LoanArchiveJdbcRepository loanArchiveJdbcRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanHistoryRepository loanHistoryRepository;
+
+    @Autowired
+    private BookLoanCountRepository bookLoanCountRepository;
+
+    @Test
+    public void whenArchiveSpansSeveralBatches_thenEveryLoanIsMovedAndCountedOnce() {
+        // given
+        Book book = book("Nada", "Carmen Laforet");
+        List<Loan> loans = returnedLoans(book, 5);
+
+        // when: bloques de 2, 2 y 1
+        LoanArchiveResultDTO result = archiver(2).archive(TODAY);
+
+        // then
+        assertThat(result.archived()).isEqualTo(5);
+        assertThat(loanRepository.findAllById(ids(loans))).isEmpty();
+        assertThat(loanHistoryRepository.findAllById(ids(loans))).hasSize(5);
+        assertThat(bookLoanCountRepository.findById(book.getId())).get()
+                .extracting(BookLoanCount::getLoans).isEqualTo(5L);
+    }
+
+    @Test
+    public void whenRerunAfterPartialCopy_thenArchivesRestWithoutCountingTwice() {
+        // given: una pasada anterior copió el primero a loan_history y no llegó a borrarlo de loan
+        Book book = book("Tiempo de silencio", "Luis Martín-Santos");
+        List<Loan> loans = returnedLoans(book, 3);
+        Loan copied = loans.get(0);
+        jdbcTemplate.update("INSERT INTO loan_history (id, book_id, user_id, loan_date, due_date, return_date) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", copied.getId(), book.getId(), copied.getUser().getId(),
+                Date.valueOf(copied.getLoanDate()), Date.valueOf(copied.getDueDate()),
+                Date.valueOf(copied.getReturnDate()));
+        jdbcTemplate.update("INSERT INTO book_loan_count (book_id, loans) VALUES (?, 1)", book.getId());
+
+        // when
+        LoanArchiveResultDTO result = archiver(1000).archive(TODAY);
+
+        // then
+        assertThat(result.archived()).isEqualTo(3);
+        assertThat(loanRepository.findAllById(ids(loans))).isEmpty();
+        assertThat(loanHistoryRepository.findAllById(ids(loans))).hasSize(3);
+        assertThat(bookLoanCountRepository.findById(book.getId())).get()
+                .extracting(BookLoanCount::getLoans).isEqualTo(3L);
+    }
+
+    private LoanArchiver archiver(int batchSize) {
+        return new LoanArchiver(loanArchiveJdbcRepository, transactionTemplate,
+                new LibraryMetrics(new SimpleMeterRegistry()), 180, batchSize, 30);
+    }
+
+    private Book book(String title, String authorName) {
+        Author author = authorRepository.save(new Author(null, authorName, null));
+        return bookRepository.save(new Book(null, title, author, "Novela", true));
+    }
+
+    private List<Loan> returnedLoans(Book book, int count) {
+        User user = new User();
+        user.setName("Lector de " + book.getTitle());
+        user.setRole("USER");
+        user = userRepository.save(user);
+
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Loan loan = new Loan();
+            loan.setBook(book);
+            loan.setUser(user);
+            loan.setLoanDate(LocalDate.of(2020, 1, 1));
+            loan.setDueDate(LocalDate.of(2020, 1, 16));
+            loan.setReturnDate(LocalDate.of(2020, 1, 10));
+            loans.add(loanRepository.save(loan));
+        }
+        return loans;
+    }
+
+    private static List<Long> ids(List<Loan> loans) {
+        return loans.stream().map(Loan::getId).toList();
+    }
+}
@@ -0,0 +1,62 @@
+package com.library.management.service;
+
+import com.library.management.dto.LoanArchiveResultDTO;
+import com.library.management.metrics.LibraryMetrics;
+import com.library.management.repository.LoanArchiveJdbcRepository;
+import com.library.management.repository.LoanArchiveJdbcRepository.ReturnedLoan;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LoanArchiverTest {
+
+    @Mock
+    private LoanArchiveJdbcRepository loanArchiveJdbcRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void whenArchive_thenMovesBatchesUntilOneIsShort() {
+        // given
+        LoanArchiver archiver = new LoanArchiver(loanArchiveJdbcRepository, transactionTemplate,
+                new LibraryMetrics(meterRegistry), 10, 2, 30);
+        LocalDate today = LocalDate.of(2024, 6, 30);
+        LocalDate before = today.minusDays(30); // nunca menos que la ventana de popularidad
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        when(loanArchiveJdbcRepository.findReturnedBefore(before, 2))
+                .thenReturn(List.of(returned(1L), returned(2L)))
+                .thenReturn(List.of(returned(3L)));
+
+        // when
+        LoanArchiveResultDTO result = archiver.archive(today);
+
+        // then
+        assertThat(result.returnedBefore()).isEqualTo(before);
+        assertThat(result.archived()).isEqualTo(3);
+        verify(loanArchiveJdbcRepository, times(2)).archive(any());
+        assertThat(meterRegistry.counter("library.loans.archived").count()).isEqualTo(3);
+    }
+
+    private static ReturnedLoan returned(Long id) {
+        return new ReturnedLoan(id, 1L, 1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 16),
+                LocalDate.of(2024, 1, 10));
+    }
+}
@@ -0,0 +1,108 @@
+package com.library.management.service;
+
+import com.library.management.dto.LoanCountsDTO;
+import com.library.management.dto.LoanDTO;
+import com.library.management.dto.PageResponse;
+import com.library.management.exception.ResourceNotFoundException;
+import com.library.management.repository.BookLoanCountRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanHistoryRepository;
+import com.library.management.repository.LoanRepository;
+import com.library.management.repository.UserLoanCountRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LoanHistoryServiceTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private LoanHistoryRepository loanHistoryRepository;
+
+    @Mock
+    private BookLoanCountRepository bookLoanCountRepository;
+
+    @Mock
+    private UserLoanCountRepository userLoanCountRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private Pagination pagination = new Pagination(2, 10);
+
+    @InjectMocks
+    private LoanHistoryService loanHistoryService;
+
+    @Test
+    public void whenFindByBook_thenMergesCurrentAndArchivedNewestFirst() {
+        // given
+        LoanDTO active = loan(40L, null);
+        LoanDTO movedWhileReading = loan(31L, LocalDate.of(2024, 1, 20));
+        LoanDTO archived = loan(12L, LocalDate.of(2023, 5, 2));
+        when(loanRepository.findByBookPageBefore(eq(1L), eq(Long.MAX_VALUE), any()))
+                .thenReturn(List.of(active, movedWhileReading));
+        when(loanHistoryRepository.findByBookPageBefore(eq(1L), eq(Long.MAX_VALUE), any()))
+                .thenReturn(List.of(movedWhileReading, archived));
+        when(loanRepository.findByBookPageBefore(eq(1L), eq(31L), any())).thenReturn(List.of());
+        when(loanHistoryRepository.findByBookPageBefore(eq(1L), eq(31L), any())).thenReturn(List.of(archived));
+
+        // when
+        PageResponse<LoanDTO> page = loanHistoryService.findByBook(1L, null, 2);
+        PageResponse<LoanDTO> next = loanHistoryService.findByBook(1L, page.nextCursor(), 2);
+
+        // then
+        assertThat(page.content()).containsExactly(active, movedWhileReading);
+        assertThat(next.content()).containsExactly(archived);
+        assertThat(next.nextCursor()).isNull();
+    }
+
+    @Test
+    public void whenFindByBookWithoutBookOrHistory_thenThrowsNotFound() {
+        // given
+        when(loanRepository.findByBookPageBefore(eq(99L), any(), any())).thenReturn(List.of());
+        when(loanHistoryRepository.findByBookPageBefore(eq(99L), any(), any())).thenReturn(List.of());
+        when(bookRepository.existsById(99L)).thenReturn(false);
+
+        // when & then
+        assertThrows(ResourceNotFoundException.class, () -> loanHistoryService.findByBook(99L, null, null));
+    }
+
+    @Test
+    public void whenCountsForUser_thenAddsArchivedCount() {
+        // given
+        when(loanRepository.countByUser_Id(5L)).thenReturn(3L);
+        when(userLoanCountRepository.findById(5L)).thenReturn(Optional.empty());
+
+        // when
+        LoanCountsDTO counts = loanHistoryService.countsForUser(5L);
+
+        // then
+        assertThat(counts).isEqualTo(new LoanCountsDTO(5L, 3, 0, 3));
+    }
+
+    private static LoanDTO loan(Long id, LocalDate returnDate) {
+        return new LoanDTO(id, 1L, "1984", "George Orwell", 2L, "Ana",
+                LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 16), returnDate);
+    }
+}
@@ -0,0 +1,86 @@
+package com.library.management.service;
+
+import com.library.management.model.Author;
+import com.library.management.model.Book;
+import com.library.management.model.Loan;
+import com.library.management.model.User;
+import com.library.management.repository.AuthorRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Dos devoluciones simultáneas del mismo préstamo: solo una puede liberar el ejemplar
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:it",
+        "library.journal.dir=target/test-data/it/journal",
+        "library.snapshot.enabled=false"
+})
+public class LoanReturnRaceTest {
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void whenSameLoanIsReturnedConcurrently_thenOnlyOneReturnSucceeds() throws Exception {
+        // given
+        Author author = authorRepository.save(new Author(null, "Ana María Moix", null));
+        Book book = bookRepository.save(new Book(null, "Julia", author, "Novela", true));
+        Loan loan = loanService.borrowBook(book.getId(), user("Primera lectora").getId());
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Loan>> returns = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            returns.add(pool.submit(() -> {
+                start.await();
+                return loanService.returnBook(loan.getId());
+            }));
+        }
+
+        // when
+        start.countDown();
+        int succeeded = 0;
+        for (Future<Loan> result : returns) {
+            try {
+                result.get();
+                succeeded++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).hasMessage("Loan already returned");
+            }
+        }
+        pool.shutdown();
+
+        // then: el libro se liberó una vez y admite un único préstamo nuevo
+        assertThat(succeeded).isEqualTo(1);
+        loanService.borrowBook(book.getId(), user("Segunda lectora").getId());
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::isAvailable).isEqualTo(false);
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setRole("USER");
+        return userRepository.save(user);
+    }
+}
@@ -1,23 +1,40 @@
 package com.library.management.service;
 
+import com.library.management.dto.LoanBatchItemDTO;
+import com.library.management.dto.LoanBatchResultDTO;
+import com.library.management.dto.LoanDTO;
+import com.library.management.dto.PageResponse;
+import com.library.management.event.LoanEvent;
 import com.library.management.model.Book;
 import com.library.management.model.Loan;
 import com.library.management.model.User;
+import com.library.management.repository.BookJdbcRepository;
 import com.library.management.repository.BookRepository;
+import com.library.management.repository.LoanJdbcRepository;
 import com.library.management.repository.LoanRepository;
 import com.library.management.repository.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +49,27 @@ public class LoanServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private BookReservationEngine reservationEngine;
+
+    @Mock
+    private BookJdbcRepository bookJdbcRepository;
+
+    @Mock
+    private LoanJdbcRepository loanJdbcRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FineAccrualEngine fineAccrualEngine;
+
+    @Spy
+    private Pagination pagination = new Pagination(2, 10);
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private LoanService loanService;
 
@@ -53,6 +91,7 @@ public class LoanServiceTest {
 
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(reservationEngine.reserve(1L)).thenReturn(true);
         when(loanRepository.save(any(Loan.class))).thenReturn(loan);
 
         // when
@@ -87,8 +126,7 @@ public class LoanServiceTest {
         loan.setDueDate(LocalDate.now().minusDays(1)); // Overdue
 
         when(loanRepository.findById(1L)).thenReturn(Optional.of(loan));
-        when(loanRepository.save(any(Loan.class))).thenReturn(loan);
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(loanJdbcRepository.close(eq(1L), any(LocalDate.class))).thenReturn(true);
 
         // when
         Loan returnedLoan = loanService.returnBook(1L);
@@ -97,5 +135,150 @@ public class LoanServiceTest {
         assertThat(returnedLoan).isNotNull();
         assertThat(returnedLoan.getReturnDate()).isNotNull();
         assertThat(returnedLoan.getBook().isAvailable()).isTrue();
+        verify(reservationEngine).release(1L);
+    }
+
+    @Test
+    public void whenBorrowBookAlreadyReserved_thenNotAvailable() {
+        // given
+        Book book = new Book();
+        book.setId(1L);
+        book.setAvailable(true); // dato obsoleto: otra petición ya ganó la reserva
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(reservationEngine.reserve(1L)).thenReturn(false);
+
+        // when & then
+        assertThrows(RuntimeException.class, () -> loanService.borrowBook(1L, 1L));
+        verify(loanRepository, never()).save(any(Loan.class));
+    }
+
+    @Test
+    public void whenLoanCannotBeSaved_thenReservationIsReleased() {
+        // given
+        Book book = new Book();
+        book.setId(1L);
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        when(reservationEngine.reserve(1L)).thenReturn(true);
+        when(loanRepository.save(any(Loan.class))).thenThrow(new IllegalStateException("db down"));
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> loanService.borrowBook(1L, 1L));
+        verify(reservationEngine).release(1L);
+    }
+
+    @Test
+    public void whenReturnBookTwice_thenFails() {
+        // given
+        Loan loan = new Loan();
+        loan.setId(1L);
+        loan.setReturnDate(LocalDate.now());
+
+        when(loanRepository.findById(1L)).thenReturn(Optional.of(loan));
+
+        // when & then
+        assertThrows(RuntimeException.class, () -> loanService.returnBook(1L));
+        verify(reservationEngine, never()).release(any());
+    }
+
+    @Test
+    public void whenTwoReturnsOfOneLoanRace_thenOnlyOneReleasesTheBook() {
+        // given: las dos peticiones leyeron el préstamo abierto antes de que ninguna lo cerrara
+        Book book = new Book();
+        book.setId(1L);
+        when(loanRepository.findById(1L)).thenAnswer(invocation -> {
+            Loan loan = new Loan();
+            loan.setId(1L);
+            loan.setBook(book);
+            loan.setDueDate(LocalDate.now().plusDays(1));
+            return Optional.of(loan);
+        });
+        when(loanJdbcRepository.close(eq(1L), any(LocalDate.class))).thenReturn(true).thenReturn(false);
+
+        // when
+        loanService.returnBook(1L);
+
+        // then
+        assertThrows(RuntimeException.class, () -> loanService.returnBook(1L));
+        verify(reservationEngine, times(1)).release(1L);
+        verify(eventPublisher, times(1)).publishEvent(any(LoanEvent.class));
+    }
+
+    @Test
+    public void whenBorrowBooksInBatch_thenReportsOutcomePerBook() {
+        // given
+        runBatchesInline();
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.findExistingIds(List.of(10L, 11L, 12L, 10L))).thenReturn(List.of(10L, 11L));
+        when(bookJdbcRepository.reserveAll(List.of(10L, 11L))).thenReturn(new int[]{1, 0});
+        when(loanJdbcRepository.insertAll(eq(1L), eq(List.of(10L)), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(100L));
+
+        // when
+        LoanBatchResultDTO result = loanService.borrowBooks(1L, List.of(10L, 11L, 12L, 10L));
+
+        // then
+        assertThat(result.requested()).isEqualTo(4);
+        assertThat(result.succeeded()).isEqualTo(1);
+        assertThat(result.items())
+                .extracting(LoanBatchItemDTO::status)
+                .containsExactly(LoanBatchItemDTO.Status.BORROWED, LoanBatchItemDTO.Status.NOT_AVAILABLE,
+                        LoanBatchItemDTO.Status.NOT_FOUND, LoanBatchItemDTO.Status.DUPLICATE);
+        assertThat(result.items().get(0).loanId()).isEqualTo(100L);
+    }
+
+    @Test
+    public void whenReturnBooksInBatch_thenReleasesOnlyClosedLoans() {
+        // given
+        runBatchesInline();
+        LocalDate dueDate = LocalDate.now().plusDays(3);
+        when(loanRepository.findReturnStateByIdIn(List.of(1L, 2L, 3L, 4L))).thenReturn(List.of(
+                new Object[]{1L, 10L, 7L, dueDate, null},
+                new Object[]{2L, 11L, 7L, dueDate, LocalDate.now()},
+                new Object[]{4L, 13L, 7L, dueDate, null}));
+        when(loanJdbcRepository.closeAll(eq(List.of(1L, 4L)), any(LocalDate.class))).thenReturn(new int[]{1, 0});
+
+        // when
+        LoanBatchResultDTO result = loanService.returnBooks(List.of(1L, 2L, 3L, 4L));
+
+        // then
+        assertThat(result.succeeded()).isEqualTo(1);
+        assertThat(result.items())
+                .extracting(LoanBatchItemDTO::status)
+                .containsExactly(LoanBatchItemDTO.Status.RETURNED, LoanBatchItemDTO.Status.ALREADY_RETURNED,
+                        LoanBatchItemDTO.Status.NOT_FOUND, LoanBatchItemDTO.Status.ALREADY_RETURNED);
+        verify(bookJdbcRepository).releaseAll(List.of(10L));
+        verify(eventPublisher).publishEvent(any(LoanEvent.class));
+    }
+
+    @Test
+    public void whenFindDueWithin_thenPagesByDueDateAndId() {
+        // given
+        LocalDate today = LocalDate.of(2024, 3, 1);
+        LoanDTO first = new LoanDTO(7L, 1L, "1984", "George Orwell", 1L, "Ana", today.minusDays(14), today, null);
+        LoanDTO second = new LoanDTO(3L, 2L, "Dune", "Frank Herbert", 2L, "Luis", today.minusDays(12), today.plusDays(2), null);
+        LoanDTO third = new LoanDTO(5L, 3L, "Emma", "Jane Austen", 1L, "Ana", today.minusDays(12), today.plusDays(2), null);
+        when(loanRepository.findActiveDuePageAfter(eq(today), eq(today.plusDays(7)), eq(today.minusDays(1)), eq(0L), any()))
+                .thenReturn(List.of(first, second, third));
+        when(loanRepository.findActiveDuePageAfter(eq(today), eq(today.plusDays(7)), eq(today.plusDays(2)), eq(3L), any()))
+                .thenReturn(List.of(third));
+
+        // when
+        PageResponse<LoanDTO> page = loanService.findDueWithin(7, null, 2, today);
+        PageResponse<LoanDTO> next = loanService.findDueWithin(7, page.nextCursor(), 2, today);
+
+        // then
+        assertThat(page.content()).containsExactly(first, second);
+        assertThat(next.content()).containsExactly(third);
+        assertThat(next.nextCursor()).isNull();
+    }
+
+    private void runBatchesInline() {
+        when(reservationEngine.retrying(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 }
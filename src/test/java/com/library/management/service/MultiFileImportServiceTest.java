@@ -0,0 +1,109 @@
+package com.library.management.service;
+
+import com.library.management.dto.MultiFileImportResultDTO;
+import com.library.management.metrics.LibraryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class MultiFileImportServiceTest {
+
+    @Mock
+    private BookImportService bookImportService;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    private MultiFileImportService multiFileImportService;
+
+    @BeforeEach
+    public void setUp() {
+        multiFileImportService = new MultiFileImportService(bookImportService, pool,
+                new LibraryMetrics(new SimpleMeterRegistry()), 2, 10);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void whenImportFilesAndZip_thenParsesAllAndWritesFromSingleThread() throws Exception {
+        // given
+        MockMultipartFile north = csv("norte.csv",
+                "1984;George Orwell;Distopía\n" +
+                "Rebelión en la granja;George Orwell;Sátira\n" +
+                "Fahrenheit 451;Ray Bradbury;Distopía\n");
+        MockMultipartFile south = csv("sur.csv",
+                "1984;george orwell;Distopía\n" +
+                ";;\n");
+        MockMultipartFile branches = zip("sucursales.zip",
+                "este.csv", "Titulo;Autor;Genero\nUn mundo feliz;Aldous Huxley;Distopía\n",
+                "leeme.txt", "no es un csv");
+        MockMultipartFile broken = csv("roto.csv", null);
+
+        List<String> writtenTitles = new ArrayList<>();
+        List<Thread> writers = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<CsvBookRow> rows = invocation.getArgument(0);
+            ImportProgress progress = invocation.getArgument(1);
+            rows.forEach(row -> writtenTitles.add(row.title()));
+            writers.add(Thread.currentThread());
+            progress.accepted(rows.size());
+            return null;
+        }).when(bookImportService).writeChunk(anyList(), any());
+
+        // when
+        MultiFileImportResultDTO result = multiFileImportService.importFiles(List.of(north, south, branches, broken));
+
+        // then
+        assertThat(result.files()).isEqualTo(4);
+        assertThat(result.rowsRead()).isEqualTo(6);
+        assertThat(result.accepted()).isEqualTo(4);
+        assertThat(result.skipped())
+                .containsEntry("DUPLICATE_IN_FILE", 1L)
+                .containsEntry("EMPTY_ROW", 1L);
+        assertThat(writtenTitles).containsExactlyInAnyOrder(
+                "1984", "Rebelión en la granja", "Fahrenheit 451", "Un mundo feliz");
+        assertThat(writers).containsOnly(Thread.currentThread());
+        assertThat(result.errors()).containsOnlyKeys("roto.csv");
+        assertThat(result.results())
+                .extracting(r -> r.fileName())
+                .containsExactly("norte.csv", "sur.csv", "sucursales.zip!este.csv", "roto.csv");
+    }
+
+    private static MockMultipartFile csv(String name, String rows) {
+        String content = rows == null ? "1984;George Orwell;Distopía\n" : "Titulo;Autor;Genero\n" + rows;
+        return new MockMultipartFile("files", name, "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockMultipartFile zip(String name, String... entries) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(entries[i]));
+                zip.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return new MockMultipartFile("files", name, "application/zip", bytes.toByteArray());
+    }
+}
@@ -0,0 +1,117 @@
+package com.library.management.service;
+
+import com.library.management.dto.AvailableBookDTO;
+import com.library.management.dto.PopularBookDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.LoanEvent;
+import com.library.management.repository.LoanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PopularityTrackerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    private PopularityTracker popularityTracker;
+
+    @BeforeEach
+    public void setUp() {
+        popularityTracker = new PopularityTracker(loanRepository, availabilityIndex, 7);
+        lenient().when(availabilityIndex.summaryOf(anyLong())).thenAnswer(invocation -> {
+            Long bookId = invocation.getArgument(0);
+            return new AvailableBookDTO(bookId, "Libro " + bookId, "Autor", bookId % 2 == 0 ? "Novela" : "Ensayo");
+        });
+    }
+
+    @Test
+    public void whenReconciledAndLoansArrive_thenRankingIsUpdatedIncrementally() {
+        // given
+        when(loanRepository.findMaxId()).thenReturn(10L);
+        when(loanRepository.countLoansByBookAndDaySince(TODAY.minusDays(6), 10L)).thenReturn(List.<Object[]>of(
+                new Object[]{1L, "Ensayo", TODAY.minusDays(2), 3L},
+                new Object[]{2L, "Novela", TODAY.minusDays(1), 2L},
+                new Object[]{4L, "Novela", TODAY, 1L}));
+        popularityTracker.reconcile(TODAY);
+
+        // when
+        popularityTracker.onLoan(borrowed(11L, 4L, TODAY));
+        popularityTracker.onLoan(borrowed(12L, 4L, TODAY));
+        popularityTracker.onLoan(borrowed(13L, 4L, TODAY));
+        popularityTracker.onLoan(LoanEvent.returned(11L, 4L, 7L, TODAY));
+
+        // then
+        assertThat(popularityTracker.top(null, 2))
+                .extracting(PopularBookDTO::bookId, PopularBookDTO::loans)
+                .containsExactly(tuple(4L, 4L), tuple(1L, 3L));
+        assertThat(popularityTracker.top("novela", 10))
+                .extracting(PopularBookDTO::bookId)
+                .containsExactly(4L, 2L);
+        assertThat(popularityTracker.top("Ciencia", 10)).isEmpty();
+    }
+
+    @Test
+    public void whenWindowRolls_thenOldLoansStopCounting() {
+        // given
+        when(loanRepository.findMaxId()).thenReturn(5L);
+        when(loanRepository.countLoansByBookAndDaySince(TODAY.minusDays(6), 5L)).thenReturn(List.<Object[]>of(
+                new Object[]{1L, "Ensayo", TODAY.minusDays(6), 5L},
+                new Object[]{1L, "Ensayo", TODAY, 1L},
+                new Object[]{2L, "Novela", TODAY.minusDays(6), 2L}));
+        popularityTracker.reconcile(TODAY);
+
+        // when
+        popularityTracker.rollWindow(TODAY.plusDays(1));
+
+        // then
+        assertThat(popularityTracker.top(null, 10))
+                .extracting(PopularBookDTO::bookId, PopularBookDTO::loans)
+                .containsExactly(tuple(1L, 1L));
+        assertThat(popularityTracker.top("Novela", 10)).isEmpty();
+    }
+
+    @Test
+    public void whenBookChangesGenreOrIsDeleted_thenRankingsFollow() {
+        // given
+        when(loanRepository.findMaxId()).thenReturn(2L);
+        when(loanRepository.countLoansByBookAndDaySince(TODAY.minusDays(6), 2L)).thenReturn(List.<Object[]>of(
+                new Object[]{1L, "Ensayo", TODAY, 2L},
+                new Object[]{3L, "Ensayo", TODAY, 1L}));
+        popularityTracker.reconcile(TODAY);
+
+        // when
+        popularityTracker.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, 1L,
+                "Libro 1", "Autor", "Poesía", true));
+        popularityTracker.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, 3L,
+                "Libro 3", "Autor", "Ensayo", true));
+
+        // then
+        assertThat(popularityTracker.top("poesia", 10)).extracting(PopularBookDTO::bookId).containsExactly(1L);
+        assertThat(popularityTracker.top("Ensayo", 10)).isEmpty();
+        assertThat(popularityTracker.top(null, 10)).extracting(PopularBookDTO::bookId).containsExactly(1L);
+    }
+
+    private static LoanEvent borrowed(Long loanId, Long bookId, LocalDate day) {
+        return new LoanEvent(LoanEvent.Type.BORROWED, loanId, bookId, 7L, day.plusDays(14),
+                day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,109 @@
+package com.library.management.service;
+
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.LoanEvent;
+import com.library.management.journal.ChangeJournal;
+import com.library.management.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReadModelSnapshotTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @TempDir
+    Path directory;
+
+    private ChangeJournal changeJournal;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        changeJournal = new ChangeJournal(directory.resolve("journal").toString(), DataSize.ofMegabytes(1), 4);
+        changeJournal.open();
+    }
+
+    @Test
+    public void whenRestarted_thenIndexesAreRestoredAndCaughtUpWithJournalWithoutDatabase() {
+        // given
+        when(bookRepository.findAllForAvailabilityIndex()).thenReturn(List.of(
+                new Object[]{1L, "1984", "George Orwell", "Distopía", true},
+                new Object[]{2L, "Rebelión en la granja", "George Orwell", "Sátira", true}));
+        AvailabilityIndex running = new AvailabilityIndex(bookRepository);
+        running.rebuild();
+        snapshot(running, new BookSearchIndex(bookRepository)).write();
+
+        // Cambios posteriores a la instantánea, solo en el diario
+        changeJournal.onLoan(LoanEvent.borrowed(10L, 1L, 7L, LocalDate.of(2026, 11, 1)));
+        changeJournal.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, 2L,
+                "Rebelión en la granja", "George Orwell", "Sátira", true));
+        changeJournal.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED, 3L,
+                "Un mundo feliz", "Aldous Huxley", "Distopía", true));
+        // El cambio de nombre del autor no lleva disponibilidad: cada libro conserva la suya
+        changeJournal.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, 1L,
+                "1984", "G. Orwell", "Distopía", null));
+        changeJournal.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, 3L,
+                "Un mundo feliz", "A. Huxley", "Distopía", null));
+
+        // when
+        BookRepository restartedRepository = mock(BookRepository.class);
+        AvailabilityIndex availabilityIndex = new AvailabilityIndex(restartedRepository);
+        BookSearchIndex bookSearchIndex = new BookSearchIndex(restartedRepository);
+        ReadModelSnapshot restarted = snapshot(availabilityIndex, bookSearchIndex);
+        restarted.restore();
+
+        // then
+        assertThat(restarted.getLastRestore().outcome()).isEqualTo(ReadModelSnapshot.Outcome.RESTORED);
+        assertThat(restarted.getLastRestore().books()).isEqualTo(2);
+        assertThat(availabilityIndex.isReady()).isTrue();
+        assertThat(availabilityIndex.countByGenre("distopia").books()).isEqualTo(2);
+        assertThat(availabilityIndex.countByGenre("distopia").available()).isEqualTo(1);
+        assertThat(availabilityIndex.countByGenre("satira").books()).isZero();
+        assertThat(bookSearchIndex.isReady()).isTrue();
+        assertThat(bookSearchIndex.search("huxley")).extracting(BookSearchIndex.Match::bookId).containsExactly(3L);
+        verifyNoInteractions(restartedRepository);
+    }
+
+    @Test
+    public void whenJournalWasReset_thenSnapshotIsDiscarded() throws Exception {
+        // given
+        changeJournal.onLoan(LoanEvent.borrowed(10L, 1L, 7L, LocalDate.of(2026, 11, 1)));
+        when(bookRepository.findAllForAvailabilityIndex()).thenReturn(List.<Object[]>of(
+                new Object[]{1L, "1984", "George Orwell", "Distopía", false}));
+        AvailabilityIndex running = new AvailabilityIndex(bookRepository);
+        running.rebuild();
+        snapshot(running, new BookSearchIndex(bookRepository)).write();
+        changeJournal.close();
+        changeJournal = new ChangeJournal(directory.resolve("journal-nuevo").toString(), DataSize.ofMegabytes(1), 4);
+        changeJournal.open();
+
+        // when
+        AvailabilityIndex availabilityIndex = new AvailabilityIndex(bookRepository);
+        ReadModelSnapshot restarted = snapshot(availabilityIndex, new BookSearchIndex(bookRepository));
+        restarted.restore();
+
+        // then
+        assertThat(restarted.getLastRestore().outcome()).isEqualTo(ReadModelSnapshot.Outcome.STALE);
+        assertThat(availabilityIndex.isReady()).isFalse();
+    }
+
+    private ReadModelSnapshot snapshot(AvailabilityIndex availabilityIndex, BookSearchIndex bookSearchIndex) {
+        return new ReadModelSnapshot(availabilityIndex, bookSearchIndex, changeJournal,
+                directory.resolve("read-model.snapshot").toString(), true);
+    }
+}
@@ -1,18 +1,27 @@
 package com.library.management.service;
 
+import com.library.management.dto.PageResponse;
+import com.library.management.exception.InvalidPageRequestException;
 import com.library.management.model.User;
 import com.library.management.repository.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,6 +30,9 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private Pagination pagination = new Pagination(50, 500);
+
     @InjectMocks
     private UserService userService;
 
@@ -59,4 +71,23 @@ public class UserServiceTest {
         assertThat(foundUser).isPresent();
         assertThat(foundUser.get().getName()).isEqualTo("Test User");
     }
+
+    @Test
+    public void whenFindPageWithSizeAboveMax_thenSizeIsCapped() {
+        // given
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(List.of());
+
+        // when
+        PageResponse<User> page = userService.findPage(null, 10_000);
+
+        // then
+        assertThat(page.content()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(501));
+    }
+
+    @Test
+    public void whenFindPageWithInvalidCursor_thenThrows() {
+        assertThrows(InvalidPageRequestException.class, () -> userService.findPage("not-a-cursor", null));
+    }
 }